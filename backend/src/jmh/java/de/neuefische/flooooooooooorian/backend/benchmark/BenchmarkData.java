@@ -0,0 +1,82 @@
+package de.neuefische.flooooooooooorian.backend.benchmark;
+
+import de.neuefische.flooooooooooorian.backend.dto.location.LocationSummaryDto;
+import de.neuefische.flooooooooooorian.backend.model.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+final class BenchmarkData {
+
+    private static final double[][] CITIES = {
+            {53.55, 9.99}, {52.52, 13.40}, {48.14, 11.58}, {50.94, 6.96}, {48.86, 2.35},
+            {51.51, -0.13}, {40.71, -74.01}, {35.68, 139.69}, {-33.87, 151.21}, {64.15, -21.94}
+    };
+    private static final int[] RENDITION_WIDTHS = {128, 512, 1600};
+
+    private BenchmarkData() {
+    }
+
+    static List<Location> locations(int count, long seed) {
+        Random random = new Random(seed);
+        List<Location> locations = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            double[] position = position(random);
+            OwnerSnapshot owner = OwnerSnapshot.builder()
+                    .id("owner-" + random.nextInt(1000))
+                    .full_name("Photographer " + random.nextInt(1000))
+                    .avatar_url("https://lh3.googleusercontent.com/a/avatar-" + random.nextInt(1000))
+                    .build();
+            List<PictureRendition> renditions = new ArrayList<>();
+            for (int width : RENDITION_WIDTHS) {
+                renditions.add(PictureRendition.builder().width(width).height(width * 2 / 3).format("webp").url("https://res.cloudinary.com/photohunter/w_" + width + "/location-" + i + ".webp").build());
+            }
+            locations.add(Location.builder()
+                    .id(String.format("%024x", i))
+                    .creationDate(Instant.ofEpochSecond(1_600_000_000L + random.nextInt(50_000_000)))
+                    .owner(owner)
+                    .ownerId(owner.getId())
+                    .lat(position[0])
+                    .lng(position[1])
+                    .title("Location " + i)
+                    .description("Golden hour view over the old town, best reached by bike. Tripod recommended.")
+                    .rating(random.nextInt(50) / 10.0)
+                    .thumbnail(Picture.builder().id("picture-" + i).url("https://res.cloudinary.com/photohunter/location-" + i + ".jpg").creationDate(Instant.now()).renditions(renditions).build())
+                    .thumbnailState(ThumbnailState.READY)
+                    .pictures(List.of("https://res.cloudinary.com/photohunter/gallery-" + i + "-1.jpg", "https://res.cloudinary.com/photohunter/gallery-" + i + "-2.jpg"))
+                    .tags(List.of(Tag.builder().id("tag-1").title("sunset").build(), Tag.builder().id("tag-2").title("city").build()))
+                    .build());
+        }
+        return locations;
+    }
+
+    static List<LocationSummaryDto> summaries(int count, long seed) {
+        Random random = new Random(seed);
+        List<LocationSummaryDto> summaries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            double[] position = position(random);
+            summaries.add(LocationSummaryDto.builder()
+                    .id(String.format("%024x", i))
+                    .lat(position[0])
+                    .lng(position[1])
+                    .title("Location " + i)
+                    .rating(random.nextInt(50) / 10.0)
+                    .thumbnailUrl("https://res.cloudinary.com/photohunter/w_512/location-" + i + ".webp")
+                    .build());
+        }
+        return summaries;
+    }
+
+    static double[] city(int index) {
+        return CITIES[index % CITIES.length];
+    }
+
+    private static double[] position(Random random) {
+        double[] city = CITIES[random.nextInt(CITIES.length)];
+        return new double[]{
+                Math.max(-90, Math.min(90, city[0] + random.nextGaussian() * 0.3)),
+                Math.max(-180, Math.min(180, city[1] + random.nextGaussian() * 0.3))};
+    }
+}
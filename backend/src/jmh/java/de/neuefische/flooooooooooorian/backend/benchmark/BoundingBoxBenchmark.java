@@ -0,0 +1,76 @@
+package de.neuefische.flooooooooooorian.backend.benchmark;
+
+import de.neuefische.flooooooooooorian.backend.dto.CursorPageDto;
+import de.neuefische.flooooooooooorian.backend.dto.location.LocationSummaryDto;
+import de.neuefische.flooooooooooorian.backend.repository.LocationRepository;
+import de.neuefische.flooooooooooorian.backend.service.LocationService;
+import de.neuefische.flooooooooooorian.backend.service.LocationSpatialIndex;
+import de.neuefische.flooooooooooorian.backend.service.LocationTileCache;
+import de.neuefische.flooooooooooorian.backend.service.PictureService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.*;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BoundingBoxBenchmark {
+
+    private static final int INDEXED_LOCATIONS = 100_000;
+    private static final int PAGE_SIZE = 1000;
+    private static final double KM_PER_DEGREE = 111.2;
+
+    @Param({"0.05", "0.5", "5"})
+    private double viewportSpan;
+
+    private LocationSpatialIndex spatialIndex;
+    private LocationService locationService;
+    private double minLat;
+    private double minLng;
+    private double maxLat;
+    private double maxLng;
+
+    @Setup
+    public void setup() {
+        LocationRepository locationRepository = mock(LocationRepository.class, withSettings().stubOnly());
+        List<LocationSummaryDto> summaries = BenchmarkData.summaries(INDEXED_LOCATIONS, 42);
+        when(locationRepository.findSummaries(any(Criteria.class), any(Pageable.class))).thenReturn(summaries.subList(0, PAGE_SIZE));
+
+        spatialIndex = new LocationSpatialIndex(locationRepository);
+        summaries.forEach(spatialIndex::add);
+
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(LocationService.LOCATION_CACHE, LocationService.BOX_CACHE);
+        locationService = new LocationService(locationRepository, mock(PictureService.class), Optional.empty(), mock(LocationTileCache.class), cacheManager);
+
+        double[] city = BenchmarkData.city(0);
+        minLat = city[0] - viewportSpan / 2;
+        minLng = city[1] - viewportSpan / 2;
+        maxLat = city[0] + viewportSpan / 2;
+        maxLng = city[1] + viewportSpan / 2;
+    }
+
+    @Benchmark
+    public List<LocationSummaryDto> spatialIndexWithinBox() {
+        return spatialIndex.withinBox(minLat, minLng, maxLat, maxLng, Optional.empty(), PAGE_SIZE + 1);
+    }
+
+    @Benchmark
+    public List<LocationSummaryDto> spatialIndexNearest() {
+        return spatialIndex.nearest((minLat + maxLat) / 2, (minLng + maxLng) / 2, viewportSpan / 2 * KM_PER_DEGREE, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public CursorPageDto<LocationSummaryDto> cachedViewportFilter() {
+        return locationService.getLocationSummariesWithinBox(minLat, minLng, maxLat, maxLng, Optional.empty(), PAGE_SIZE);
+    }
+}
@@ -0,0 +1,53 @@
+package de.neuefische.flooooooooooorian.backend.benchmark;
+
+import de.neuefische.flooooooooooorian.backend.security.service.BreachedPasswordService;
+import de.neuefische.flooooooooooorian.backend.utils.MappedBloomFilter;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BreachedPasswordBenchmark {
+
+    @Param({"10000000"})
+    private long entries;
+
+    private Path filterFile;
+    private BreachedPasswordService breachedPasswordService;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        filterFile = Files.createTempFile("breached-benchmark", ".bloom");
+        Random random = new Random(42);
+        byte[] hash = new byte[20];
+        try (MappedBloomFilter filter = MappedBloomFilter.create(filterFile, entries, 0.001)) {
+            for (long i = 0; i < entries; i++) {
+                random.nextBytes(hash);
+                filter.put(hash);
+            }
+            filter.force();
+        }
+        breachedPasswordService = new BreachedPasswordService(filterFile.toString(), "", 0, 0.001);
+        breachedPasswordService.afterPropertiesSet();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        breachedPasswordService.destroy();
+        Files.deleteIfExists(filterFile);
+    }
+
+    @Benchmark
+    public boolean isBreached() {
+        return breachedPasswordService.isBreached("T3s!PA7sw0rd");
+    }
+}
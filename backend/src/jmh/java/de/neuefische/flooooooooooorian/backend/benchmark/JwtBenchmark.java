@@ -0,0 +1,53 @@
+package de.neuefische.flooooooooooorian.backend.benchmark;
+
+import de.neuefische.flooooooooooorian.backend.security.service.JwtUtilsService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+    private String secret;
+    private String token;
+    private HashMap<String, Object> claims;
+    private JwtUtilsService jwtUtilsService;
+
+    @Setup
+    public void setup() {
+        secret = Base64.getEncoder().encodeToString("benchmark-secret-with-enough-entropy".getBytes());
+        jwtUtilsService = new JwtUtilsService(secret, "primary", List.of());
+
+        claims = new HashMap<>();
+        claims.put(JwtUtilsService.NAME_CLAIM, "Test Name");
+        claims.put(JwtUtilsService.ROLE_CLAIM, "ROLE_USER");
+        claims.put(JwtUtilsService.USER_ID_CLAIM, "user-id");
+        claims.put(JwtUtilsService.VERSION_CLAIM, 0L);
+        token = jwtUtilsService.createToken(claims, "test@test.com");
+    }
+
+    @Benchmark
+    public String createToken() {
+        return jwtUtilsService.createToken(claims, "test@test.com");
+    }
+
+    @Benchmark
+    public Claims perCallParser() {
+        return Jwts.parser().setSigningKey(secret).parseClaimsJws(token).getBody();
+    }
+
+    @Benchmark
+    public Claims sharedParser() {
+        return jwtUtilsService.parseClaim(token);
+    }
+}
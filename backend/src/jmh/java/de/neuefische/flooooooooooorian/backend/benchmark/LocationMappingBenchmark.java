@@ -0,0 +1,60 @@
+package de.neuefische.flooooooooooorian.backend.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import de.neuefische.flooooooooooorian.backend.dto.location.LocationDto;
+import de.neuefische.flooooooooooorian.backend.model.Location;
+import de.neuefische.flooooooooooorian.backend.utils.LocationMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LocationMappingBenchmark {
+
+    @Param({"20", "100", "1000"})
+    private int locationCount;
+
+    private List<Location> locations;
+    private List<LocationDto> locationDtos;
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setup() {
+        locations = BenchmarkData.locations(locationCount, 42);
+        locationDtos = map();
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+
+    @Benchmark
+    public List<LocationDto> toLocationDto() {
+        return map();
+    }
+
+    @Benchmark
+    public byte[] serializeLocationDtos() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(locationDtos);
+    }
+
+    @Benchmark
+    public byte[] mapAndSerialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(map());
+    }
+
+    private List<LocationDto> map() {
+        return locations.stream()
+                .map(location -> LocationMapper.toLocationDto(location, LocationMapper.SUMMARY_THUMBNAIL_WIDTH))
+                .collect(Collectors.toList());
+    }
+}
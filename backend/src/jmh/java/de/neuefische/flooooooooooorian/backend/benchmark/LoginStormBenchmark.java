@@ -0,0 +1,104 @@
+package de.neuefische.flooooooooooorian.backend.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.neuefische.flooooooooooorian.backend.dto.location.LocationDto;
+import de.neuefische.flooooooooooorian.backend.model.Location;
+import de.neuefische.flooooooooooorian.backend.model.OwnerSnapshot;
+import de.neuefische.flooooooooooorian.backend.security.config.CostAwareBCryptPasswordEncoder;
+import de.neuefische.flooooooooooorian.backend.security.service.PasswordHashingService;
+import de.neuefische.flooooooooooorian.backend.utils.LocationMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+@State(Scope.Group)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class LoginStormBenchmark {
+
+    private static final int LOGIN_THREADS = 16;
+
+    @Param({"10"})
+    private int bcryptStrength;
+
+    private CostAwareBCryptPasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
+    private String encodedPassword;
+    private List<Location> locations;
+    private ObjectMapper objectMapper;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        passwordEncoder = new CostAwareBCryptPasswordEncoder(bcryptStrength);
+        passwordHashingService = new PasswordHashingService(passwordEncoder, 0, 64, Duration.ofSeconds(5));
+        encodedPassword = passwordEncoder.encode("T3s!PA7sw0rd");
+        objectMapper = new ObjectMapper().findAndRegisterModules();
+
+        locations = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            locations.add(Location.builder()
+                    .id("location-" + i)
+                    .title("Location " + i)
+                    .description("A place worth a photo")
+                    .creationDate(Instant.now())
+                    .lat(53.5 + i * 0.001)
+                    .lng(10.0 + i * 0.001)
+                    .owner(OwnerSnapshot.builder().id("owner").full_name("Owner").build())
+                    .build());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        passwordHashingService.shutdown();
+    }
+
+    @Benchmark
+    @Group("loginOnRequestThreads")
+    @GroupThreads(LOGIN_THREADS)
+    public boolean loginOnRequestThreads() {
+        return passwordEncoder.matches("T3s!PA7sw0rd", encodedPassword);
+    }
+
+    @Benchmark
+    @Group("loginOnRequestThreads")
+    @GroupThreads(1)
+    public String locationsDuringLoginOnRequestThreads() throws JsonProcessingException {
+        return locationRequest();
+    }
+
+    @Benchmark
+    @Group("loginOnHashingExecutor")
+    @GroupThreads(LOGIN_THREADS)
+    public boolean loginOnHashingExecutor() {
+        try {
+            return passwordHashingService.matches("T3s!PA7sw0rd", encodedPassword);
+        } catch (ResponseStatusException e) {
+            return false;
+        }
+    }
+
+    @Benchmark
+    @Group("loginOnHashingExecutor")
+    @GroupThreads(1)
+    public String locationsDuringLoginOnHashingExecutor() throws JsonProcessingException {
+        return locationRequest();
+    }
+
+    private String locationRequest() throws JsonProcessingException {
+        List<LocationDto> dtos = locations.stream()
+                .map(location -> LocationMapper.toLocationDto(location, LocationMapper.SUMMARY_THUMBNAIL_WIDTH))
+                .collect(Collectors.toList());
+        return objectMapper.writeValueAsString(dtos);
+    }
+}
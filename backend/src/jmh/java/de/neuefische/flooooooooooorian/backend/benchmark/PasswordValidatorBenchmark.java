@@ -0,0 +1,38 @@
+package de.neuefische.flooooooooooorian.backend.benchmark;
+
+import de.neuefische.flooooooooooorian.backend.security.validation.PasswordConstraintValidator;
+import org.openjdk.jmh.annotations.*;
+
+import javax.validation.ConstraintValidatorContext;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.*;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PasswordValidatorBenchmark {
+
+    @Param({"T3s!PA7sw0rd", "test_password"})
+    private String password;
+
+    private PasswordConstraintValidator validator;
+    private ConstraintValidatorContext context;
+
+    @Setup
+    public void setup() {
+        validator = new PasswordConstraintValidator();
+        context = mock(ConstraintValidatorContext.class, withSettings().stubOnly());
+        ConstraintValidatorContext.ConstraintViolationBuilder builder = mock(ConstraintValidatorContext.ConstraintViolationBuilder.class, withSettings().stubOnly());
+        when(context.buildConstraintViolationWithTemplate(anyString())).thenReturn(builder);
+        when(builder.addConstraintViolation()).thenReturn(context);
+    }
+
+    @Benchmark
+    public boolean isValid() {
+        return validator.isValid(password, context);
+    }
+}
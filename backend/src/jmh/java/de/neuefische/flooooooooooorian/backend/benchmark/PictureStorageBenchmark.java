@@ -0,0 +1,58 @@
+package de.neuefische.flooooooooooorian.backend.benchmark;
+
+import de.neuefische.flooooooooooorian.backend.model.Picture;
+import de.neuefische.flooooooooooorian.backend.service.CloudinaryPictureStorage;
+import de.neuefische.flooooooooooorian.backend.service.LocalPictureStorage;
+import de.neuefische.flooooooooooorian.backend.service.PictureStorage;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PictureStorageBenchmark {
+
+    @Param({"local"})
+    private String storageType;
+
+    @Param({"262144", "2097152"})
+    private int imageSize;
+
+    private Path directory;
+    private PictureStorage storage;
+    private byte[] image;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("picture-storage-benchmark");
+        storage = "cloudinary".equals(storageType)
+                ? new CloudinaryPictureStorage(DataSize.ofMegabytes(5))
+                : new LocalPictureStorage(directory, "/pictures/");
+        image = new byte[imageSize];
+    }
+
+    @Setup(Level.Invocation)
+    public void newContent() {
+        ThreadLocalRandom.current().nextBytes(image);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public Picture store() throws IOException {
+        return storage.store(image);
+    }
+}
@@ -0,0 +1,14 @@
+package de.neuefische.flooooooooooorian.loadtest;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class City {
+    private final String name;
+    private final double lat;
+    private final double lng;
+    private final double spread;
+    private final int weight;
+}
@@ -0,0 +1,30 @@
+package de.neuefische.flooooooooooorian.loadtest;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class Dataset {
+
+    private final int users;
+    private final int locations;
+    private final long pictures;
+    private final int tags;
+    private final String password;
+    private final List<City> cities;
+
+    public String emailOf(int user) {
+        return DatasetGenerator.email(user);
+    }
+
+    public String locationIdOf(int location) {
+        return DatasetGenerator.locationId(location);
+    }
+
+    public long getDocuments() {
+        return (long) users + locations + pictures + tags;
+    }
+}
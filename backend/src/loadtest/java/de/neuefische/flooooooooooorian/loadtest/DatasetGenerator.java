@@ -0,0 +1,348 @@
+package de.neuefische.flooooooooooorian.loadtest;
+
+import com.mongodb.client.model.InsertManyOptions;
+import de.neuefische.flooooooooooorian.backend.model.Location;
+import de.neuefische.flooooooooooorian.backend.model.OwnerSnapshot;
+import de.neuefische.flooooooooooorian.backend.model.Picture;
+import de.neuefische.flooooooooooorian.backend.model.PictureRendition;
+import de.neuefische.flooooooooooorian.backend.model.Tag;
+import de.neuefische.flooooooooooorian.backend.model.ThumbnailState;
+import de.neuefische.flooooooooooorian.backend.security.model.User;
+import lombok.AllArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+public class DatasetGenerator {
+
+    public static final String PASSWORD = "L0ad!Test#Pw";
+    public static final List<City> CITIES = List.of(
+            new City("Berlin", 52.520, 13.405, 0.08, 18),
+            new City("Hamburg", 53.551, 9.994, 0.07, 14),
+            new City("Munich", 48.137, 11.575, 0.06, 13),
+            new City("Cologne", 50.938, 6.960, 0.05, 9),
+            new City("Frankfurt", 50.110, 8.682, 0.05, 8),
+            new City("Dresden", 51.050, 13.738, 0.04, 5),
+            new City("Leipzig", 51.340, 12.375, 0.04, 5),
+            new City("Freiburg", 47.999, 7.842, 0.03, 4),
+            new City("Saxon Switzerland", 50.920, 14.070, 0.10, 3),
+            new City("Zugspitze", 47.421, 10.985, 0.12, 3));
+
+    private static final int USER = 1;
+    private static final int PICTURE = 2;
+    private static final int LOCATION = 3;
+    private static final int TAG = 4;
+    private static final int HOTSPOT = 5;
+
+    private static final int MAX_GALLERY_PICTURES = 15;
+    private static final double SCATTERED_SHARE = 0.1;
+    private static final double HOTSPOT_SHARE = 0.6;
+    private static final double[] COUNTRY_BOX = {47.3, 5.9, 55.0, 15.0};
+    private static final int[] RENDITION_WIDTHS = {128, 512, 1600};
+    private static final List<String> DESCRIPTIONS = List.of(
+            "Golden hour over the rooftops",
+            "Quiet spot by the water",
+            "Best viewed right after sunrise",
+            "Street art on the old warehouse",
+            "Panorama from the hill",
+            "Reflections after the rain");
+    private static final Instant EPOCH = Instant.parse("2021-01-01T00:00:00Z");
+    private static final int CREATION_WINDOW_MINUTES = 60 * 24 * 365;
+    private static final InsertManyOptions UNORDERED = new InsertManyOptions().ordered(false).bypassDocumentValidation(true);
+
+    private final MongoTemplate mongoTemplate;
+    private final MongoConverter converter;
+    private final LoadTestSettings settings;
+    private final List<Hotspot> hotspots;
+    private final int cityWeight;
+
+    public DatasetGenerator(MongoTemplate mongoTemplate, LoadTestSettings settings) {
+        this.mongoTemplate = mongoTemplate;
+        this.converter = mongoTemplate.getConverter();
+        this.settings = settings;
+        this.hotspots = hotspots(new SplittableRandom(streamSeed(settings.getSeed(), HOTSPOT, 0)), settings.getHotspotsPerCity());
+        this.cityWeight = CITIES.stream().mapToInt(City::getWeight).sum();
+    }
+
+    public static String email(int user) {
+        return "user-" + user + "@loadtest.invalid";
+    }
+
+    public static String userId(int user) {
+        return objectId(USER, user);
+    }
+
+    public static String locationId(int location) {
+        return objectId(LOCATION, location);
+    }
+
+    public Dataset generate(String encodedPassword) throws InterruptedException {
+        if (settings.getLocations() > 0 && settings.getUsers() == 0) {
+            throw new IllegalArgumentException("Locations need at least one user to own them");
+        }
+        LongAdder pictures = new LongAdder();
+        ExecutorService workers = Executors.newFixedThreadPool(settings.getParallelism(), new CustomizableThreadFactory("dataset-generator-"));
+        try {
+            run(workers, TAG, settings.getTags(), (from, to, random) -> insert(Tag.class, tags(from, to)));
+            run(workers, USER, settings.getUsers(), (from, to, random) -> insert(User.class, users(from, to, random, encodedPassword)));
+            run(workers, LOCATION, settings.getLocations(), (from, to, random) -> {
+                List<Picture> batchPictures = new ArrayList<>();
+                List<Location> batchLocations = locations(from, to, random, batchPictures);
+                insert(Picture.class, batchPictures);
+                insert(Location.class, batchLocations);
+                pictures.add(batchPictures.size());
+            });
+        } finally {
+            workers.shutdownNow();
+        }
+        return new Dataset(settings.getUsers(), settings.getLocations(), pictures.sum(), settings.getTags(), PASSWORD, CITIES);
+    }
+
+    private void run(ExecutorService workers, int stream, int count, BatchTask task) throws InterruptedException {
+        int batchSize = settings.getBatchSize();
+        int batches = (count + batchSize - 1) / batchSize;
+        int parallelism = settings.getParallelism();
+        List<Future<?>> futures = new ArrayList<>(parallelism);
+        for (int worker = 0; worker < parallelism; worker++) {
+            int first = worker;
+            futures.add(workers.submit(() -> {
+                for (int batch = first; batch < batches; batch += parallelism) {
+                    int from = batch * batchSize;
+                    task.run(from, Math.min(from + batchSize, count), new SplittableRandom(streamSeed(settings.getSeed(), stream, batch)));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                futures.forEach(other -> other.cancel(true));
+                throw new IllegalStateException("Dataset generation failed", e.getCause());
+            }
+        }
+    }
+
+    private void insert(Class<?> type, List<?> entities) {
+        if (entities.isEmpty()) {
+            return;
+        }
+        List<Document> documents = new ArrayList<>(entities.size());
+        for (Object entity : entities) {
+            Document document = new Document();
+            converter.write(entity, document);
+            documents.add(document);
+        }
+        mongoTemplate.getCollection(mongoTemplate.getCollectionName(type)).insertMany(documents, UNORDERED);
+    }
+
+    List<Tag> tags(int from, int to) {
+        List<Tag> tags = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            tags.add(tag(i));
+        }
+        return tags;
+    }
+
+    List<User> users(int from, int to, SplittableRandom random, String encodedPassword) {
+        List<User> users = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            users.add(User.builder()
+                    .id(userId(i))
+                    .email(email(i))
+                    .full_name(fullName(i))
+                    .password(encodedPassword)
+                    .role("User")
+                    .enabled(true)
+                    .joinedOn(EPOCH.plus(Duration.ofMinutes(random.nextInt(CREATION_WINDOW_MINUTES))))
+                    .build());
+        }
+        return users;
+    }
+
+    List<Location> locations(int from, int to, SplittableRandom random, List<Picture> pictures) {
+        List<Location> locations = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            double[] position = position(random);
+            int owner = owner(random);
+            Instant created = EPOCH.plus(Duration.ofMinutes(random.nextInt(CREATION_WINDOW_MINUTES)));
+            User ownerReference = User.builder().id(userId(owner)).build();
+
+            Picture thumbnail = picture(pictureId(i, 0), ownerReference, created);
+            pictures.add(thumbnail);
+            List<String> gallery = new ArrayList<>();
+            int galleryPictures = galleryPictures(random);
+            for (int k = 1; k <= galleryPictures; k++) {
+                Picture picture = picture(pictureId(i, k), ownerReference, created.plus(Duration.ofMinutes(k)));
+                pictures.add(picture);
+                gallery.add(picture.getId());
+            }
+
+            locations.add(Location.builder()
+                    .id(locationId(i))
+                    .title("Spot " + i)
+                    .description(DESCRIPTIONS.get(random.nextInt(DESCRIPTIONS.size())))
+                    .lat(position[0])
+                    .lng(position[1])
+                    .position(new GeoJsonPoint(position[1], position[0]))
+                    .ownerId(userId(owner))
+                    .owner(OwnerSnapshot.builder().id(userId(owner)).full_name(fullName(owner)).build())
+                    .creationDate(created)
+                    .thumbnail(thumbnail)
+                    .thumbnailState(ThumbnailState.READY)
+                    .pictures(gallery)
+                    .rating(random.nextInt(51) / 10.0)
+                    .tags(locationTags(random))
+                    .build());
+        }
+        return locations;
+    }
+
+    private double[] position(SplittableRandom random) {
+        double kind = random.nextDouble();
+        if (kind < SCATTERED_SHARE) {
+            return new double[]{
+                    COUNTRY_BOX[0] + random.nextDouble() * (COUNTRY_BOX[2] - COUNTRY_BOX[0]),
+                    COUNTRY_BOX[1] + random.nextDouble() * (COUNTRY_BOX[3] - COUNTRY_BOX[1])};
+        }
+        int city = city(random);
+        if (kind < SCATTERED_SHARE + HOTSPOT_SHARE && settings.getHotspotsPerCity() > 0) {
+            Hotspot hotspot = hotspots.get(city * settings.getHotspotsPerCity() + skewed(random, settings.getHotspotsPerCity(), 2));
+            return new double[]{
+                    hotspot.lat + gaussian(random) * hotspot.spread,
+                    hotspot.lng + gaussian(random) * hotspot.spread * 1.5};
+        }
+        City center = CITIES.get(city);
+        return new double[]{
+                center.getLat() + gaussian(random) * center.getSpread(),
+                center.getLng() + gaussian(random) * center.getSpread() * 1.5};
+    }
+
+    private int city(SplittableRandom random) {
+        int pick = random.nextInt(cityWeight);
+        for (int i = 0; i < CITIES.size(); i++) {
+            pick -= CITIES.get(i).getWeight();
+            if (pick < 0) {
+                return i;
+            }
+        }
+        return CITIES.size() - 1;
+    }
+
+    private int owner(SplittableRandom random) {
+        return skewed(random, settings.getUsers(), settings.getOwnerSkew());
+    }
+
+    private int galleryPictures(SplittableRandom random) {
+        double continuation = settings.getPicturesPerLocation() / (settings.getPicturesPerLocation() + 1);
+        int count = 0;
+        while (count < MAX_GALLERY_PICTURES && random.nextDouble() < continuation) {
+            count++;
+        }
+        return count;
+    }
+
+    private List<Tag> locationTags(SplittableRandom random) {
+        if (settings.getTags() == 0) {
+            return List.of();
+        }
+        int count = random.nextInt(4);
+        List<Tag> tags = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Tag tag = tag(skewed(random, settings.getTags(), 2));
+            if (!tags.contains(tag)) {
+                tags.add(tag);
+            }
+        }
+        return tags;
+    }
+
+    private static Tag tag(int index) {
+        return Tag.builder().id(objectId(TAG, index)).title("tag-" + index).build();
+    }
+
+    private static Picture picture(String id, User owner, Instant created) {
+        List<PictureRendition> renditions = new ArrayList<>(RENDITION_WIDTHS.length);
+        for (int width : RENDITION_WIDTHS) {
+            renditions.add(PictureRendition.builder()
+                    .width(width)
+                    .height(width * 3 / 4)
+                    .format("jpg")
+                    .url("https://stand-in.invalid/image/upload/w_" + width + "/" + id + ".jpg")
+                    .build());
+        }
+        return Picture.builder()
+                .id(id)
+                .url("https://stand-in.invalid/image/upload/" + id + ".jpg")
+                .owner(owner)
+                .creationDate(created)
+                .renditions(renditions)
+                .build();
+    }
+
+    private static List<Hotspot> hotspots(SplittableRandom random, int perCity) {
+        List<Hotspot> hotspots = new ArrayList<>(CITIES.size() * perCity);
+        for (City city : CITIES) {
+            for (int i = 0; i < perCity; i++) {
+                hotspots.add(new Hotspot(
+                        city.getLat() + gaussian(random) * city.getSpread(),
+                        city.getLng() + gaussian(random) * city.getSpread() * 1.5,
+                        city.getSpread() * (0.02 + random.nextDouble() * 0.08)));
+            }
+        }
+        return hotspots;
+    }
+
+    private static int skewed(SplittableRandom random, int bound, double skew) {
+        return Math.min((int) (Math.pow(random.nextDouble(), skew) * bound), bound - 1);
+    }
+
+    private static double gaussian(SplittableRandom random) {
+        double u = 1 - random.nextDouble();
+        double v = random.nextDouble();
+        return Math.sqrt(-2 * Math.log(u)) * Math.cos(2 * Math.PI * v);
+    }
+
+    private static String fullName(int user) {
+        return "Load Test " + user;
+    }
+
+    private static String pictureId(int location, int index) {
+        return objectId(PICTURE, (long) location * (MAX_GALLERY_PICTURES + 1) + index);
+    }
+
+    private static String objectId(int kind, long index) {
+        return String.format("%02x%022x", kind, index);
+    }
+
+    private static long streamSeed(long seed, int stream, int batch) {
+        long z = seed * 0x9E3779B97F4A7C15L + ((long) stream << 32) + batch;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    @FunctionalInterface
+    private interface BatchTask {
+        void run(int from, int to, SplittableRandom random);
+    }
+
+    @AllArgsConstructor
+    private static class Hotspot {
+        private final double lat;
+        private final double lng;
+        private final double spread;
+    }
+}
@@ -0,0 +1,50 @@
+package de.neuefische.flooooooooooorian.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+public class EndpointStats {
+
+    private static final long MAX_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(2);
+
+    private final Histogram latencies = new ConcurrentHistogram(MAX_TRACKABLE_MICROS, 3);
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public void record(long durationNanos, int status) {
+        latencies.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(durationNanos), MAX_TRACKABLE_MICROS));
+        if (status == 503) {
+            rejected.increment();
+        } else if (status < 200 || status >= 400) {
+            errors.increment();
+        }
+    }
+
+    public long getRequests() {
+        return latencies.getTotalCount();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public double getPercentileMillis(double percentile) {
+        return latencies.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    public double getMaxMillis() {
+        return latencies.getMaxValue() / 1000.0;
+    }
+
+    public double getErrorRate() {
+        long requests = getRequests();
+        return requests == 0 ? 0 : (double) (getErrors() + getRejected()) / requests;
+    }
+}
@@ -0,0 +1,37 @@
+package de.neuefische.flooooooooooorian.loadtest;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import de.neuefische.flooooooooooorian.backend.security.config.CostAwareBCryptPasswordEncoder;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+public class GenerateDataset {
+
+    public static void main(String[] args) throws Exception {
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.setConversionService(new ApplicationConversionService());
+        LoadTestSettings settings = LoadTestSettings.from(environment);
+        ConnectionString connectionString = new ConnectionString(environment.getProperty("loadtest.mongodb-uri", "mongodb://localhost:27017/photohunter-loadtest"));
+        String database = connectionString.getDatabase() != null ? connectionString.getDatabase() : "photohunter-loadtest";
+        int bcryptStrength = environment.getProperty("security.password.bcrypt-strength", Integer.class, 10);
+
+        try (MongoClient mongoClient = MongoClients.create(connectionString)) {
+            MongoTemplate mongoTemplate = new MongoTemplate(mongoClient, database);
+            String encodedPassword = new CostAwareBCryptPasswordEncoder(bcryptStrength).encode(DatasetGenerator.PASSWORD);
+
+            System.out.printf("Generating %d users, %d locations and %d tags into %s with %d writers (seed %d)%n",
+                    settings.getUsers(), settings.getLocations(), settings.getTags(), database, settings.getParallelism(), settings.getSeed());
+            long started = System.nanoTime();
+            Dataset dataset = new DatasetGenerator(mongoTemplate, settings).generate(encodedPassword);
+            double seconds = (System.nanoTime() - started) / (double) TimeUnit.SECONDS.toNanos(1);
+
+            System.out.printf("Inserted %d users, %d locations, %d pictures and %d tags in %.1f s (%.0f documents/s)%n",
+                    dataset.getUsers(), dataset.getLocations(), dataset.getPictures(), dataset.getTags(), seconds, dataset.getDocuments() / seconds);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package de.neuefische.flooooooooooorian.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.neuefische.flooooooooooorian.backend.dto.login.google.GoogleAccessTokenDto;
+import de.neuefische.flooooooooooorian.backend.dto.login.google.GoogleProfileDto;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+public class GoogleStandInInterceptor implements ClientHttpRequestInterceptor {
+
+    public static final String TOKEN_PREFIX = "stand-in-";
+
+    private final Duration latency;
+    private final ObjectMapper objectMapper;
+
+    public GoogleStandInInterceptor(Duration latency, ObjectMapper objectMapper) {
+        this.latency = latency;
+        this.objectMapper = objectMapper;
+    }
+
+    public static String emailForCode(String code) {
+        return "google-" + code + "@loadtest.invalid";
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        String host = request.getURI().getHost();
+        if ("oauth2.googleapis.com".equals(host)) {
+            StandInLatency.sleep(latency);
+            String code = UriComponentsBuilder.newInstance()
+                    .query(new String(body, StandardCharsets.UTF_8))
+                    .build()
+                    .getQueryParams()
+                    .getFirst("code");
+            return json(GoogleAccessTokenDto.builder()
+                    .access_token(TOKEN_PREFIX + code)
+                    .expires_in("3599")
+                    .refresh_token("refresh-" + code)
+                    .scope("openid email profile")
+                    .token_type("Bearer")
+                    .build());
+        }
+        if ("www.googleapis.com".equals(host)) {
+            StandInLatency.sleep(latency);
+            String code = request.getHeaders().getFirst("Authorization").substring(("Bearer " + TOKEN_PREFIX).length());
+            return json(GoogleProfileDto.builder()
+                    .email(emailForCode(code))
+                    .verified_email(true)
+                    .name("Google " + code)
+                    .given_name("Google")
+                    .family_name(code)
+                    .build());
+        }
+        return execution.execute(request, body);
+    }
+
+    private ClientHttpResponse json(Object body) throws IOException {
+        MockClientHttpResponse response = new MockClientHttpResponse(objectMapper.writeValueAsBytes(body), HttpStatus.OK);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        return response;
+    }
+}
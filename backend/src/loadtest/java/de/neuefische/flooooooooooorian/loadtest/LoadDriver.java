@@ -0,0 +1,228 @@
+package de.neuefische.flooooooooooorian.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.neuefische.flooooooooooorian.backend.dto.location.LocationCreationDto;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class LoadDriver {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final String BOUNDARY = "loadtest-boundary";
+    private static final int BBOX_LIMIT = 50;
+    private static final int LIST_RADIUS_KM = 10;
+    private static final int THUMBNAIL_WIDTH = 512;
+
+    private final HttpClient httpClient;
+    private final URI baseUri;
+    private final LoadTestSettings settings;
+    private final Dataset dataset;
+    private final List<byte[]> images;
+    private final ObjectMapper objectMapper;
+    private final Scenario[] scenarios;
+    private final int[] cumulativeWeights;
+    private final Map<Scenario, EndpointStats> stats = new EnumMap<>(Scenario.class);
+
+    public LoadDriver(URI baseUri, LoadTestSettings settings, Dataset dataset, List<byte[]> images, ObjectMapper objectMapper) {
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.baseUri = baseUri;
+        this.settings = settings;
+        this.dataset = dataset;
+        this.images = images;
+        this.objectMapper = objectMapper;
+        this.scenarios = settings.getMix().keySet().toArray(new Scenario[0]);
+        this.cumulativeWeights = new int[scenarios.length];
+        int total = 0;
+        for (int i = 0; i < scenarios.length; i++) {
+            total += settings.getMix().get(scenarios[i]);
+            cumulativeWeights[i] = total;
+        }
+        for (Scenario scenario : scenarios) {
+            stats.put(scenario, new EndpointStats());
+        }
+    }
+
+    public LoadReport run() throws InterruptedException {
+        long start = System.nanoTime();
+        long measureFrom = start + settings.getWarmup().toNanos();
+        long end = measureFrom + settings.getDuration().toNanos();
+
+        ExecutorService virtualUsers = Executors.newFixedThreadPool(settings.getVirtualUsers(), new CustomizableThreadFactory("virtual-user-"));
+        for (int i = 0; i < settings.getVirtualUsers(); i++) {
+            int virtualUser = i;
+            virtualUsers.execute(() -> runVirtualUser(virtualUser, measureFrom, end));
+        }
+        virtualUsers.shutdown();
+        if (!virtualUsers.awaitTermination(end - System.nanoTime() + REQUEST_TIMEOUT.toNanos() * 2, TimeUnit.NANOSECONDS)) {
+            virtualUsers.shutdownNow();
+        }
+        return new LoadReport(stats, settings.getDuration());
+    }
+
+    private void runVirtualUser(int virtualUser, long measureFrom, long end) {
+        SplittableRandom random = new SplittableRandom(settings.getSeed() * 31 + virtualUser);
+        String jwt = null;
+        int requests = 0;
+        try {
+            if (stats.containsKey(Scenario.UPLOAD)) {
+                jwt = login(virtualUser % Math.max(dataset.getUsers(), 1));
+            }
+            while (System.nanoTime() < end) {
+                Scenario scenario = nextScenario(random);
+                HttpRequest request = request(scenario, random, virtualUser, requests++, jwt);
+                long started = System.nanoTime();
+                int status = send(request);
+                if (started >= measureFrom) {
+                    stats.get(scenario).record(System.nanoTime() - started, status);
+                }
+                if (!settings.getThinkTime().isZero()) {
+                    Thread.sleep(settings.getThinkTime().toMillis());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            throw new IllegalStateException("Virtual user " + virtualUser + " could not prepare a request", e);
+        }
+    }
+
+    private Scenario nextScenario(SplittableRandom random) {
+        int pick = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (pick < cumulativeWeights[i]) {
+                return scenarios[i];
+            }
+        }
+        return scenarios[scenarios.length - 1];
+    }
+
+    private HttpRequest request(Scenario scenario, SplittableRandom random, int virtualUser, int sequence, String jwt) throws IOException {
+        switch (scenario) {
+            case BBOX:
+                return get(boundingBoxQuery(random));
+            case DETAIL:
+                return get("api/location/" + dataset.locationIdOf(random.nextInt(Math.max(dataset.getLocations(), 1))) + "?width=" + THUMBNAIL_WIDTH);
+            case LIST:
+                return get(listQuery(random));
+            case LOGIN:
+                return postJson("user/login", Map.of(
+                        "email", dataset.emailOf(random.nextInt(Math.max(dataset.getUsers(), 1))),
+                        "password", dataset.getPassword()));
+            case UPLOAD:
+                return upload(random, virtualUser, sequence, jwt);
+            case GOOGLE_LOGIN:
+                return postJson("auth/google/login", Map.of("code", "code-" + random.nextInt(Math.max(dataset.getUsers(), 1))));
+            case REGISTER:
+                return postJson("user/register", Map.of(
+                        "email", "register-" + settings.getSeed() + "-" + virtualUser + "-" + sequence + "@loadtest.invalid",
+                        "password", dataset.getPassword(),
+                        "name", "Registered " + virtualUser));
+            default:
+                throw new IllegalArgumentException("Unsupported scenario: " + scenario);
+        }
+    }
+
+    private String boundingBoxQuery(SplittableRandom random) {
+        List<City> cities = dataset.getCities();
+        City city = cities.get(random.nextInt(cities.size()));
+        double height = 0.02 + random.nextDouble() * 0.3;
+        double width = height * 1.6;
+        double lat = city.getLat() + (random.nextDouble() - 0.5) * city.getSpread() * 2;
+        double lng = city.getLng() + (random.nextDouble() - 0.5) * city.getSpread() * 3;
+        return String.format(Locale.ROOT, "api/location?bbox=%.5f,%.5f,%.5f,%.5f&limit=%d&width=%d",
+                lng - width / 2, lat - height / 2, lng + width / 2, lat + height / 2, BBOX_LIMIT, THUMBNAIL_WIDTH);
+    }
+
+    private String listQuery(SplittableRandom random) {
+        List<City> cities = dataset.getCities();
+        City city = cities.get(random.nextInt(cities.size()));
+        return String.format(Locale.ROOT, "api/location?lat=%.5f&lng=%.5f&radius=%d&width=%d",
+                city.getLat(), city.getLng(), LIST_RADIUS_KM, THUMBNAIL_WIDTH);
+    }
+
+    private HttpRequest upload(SplittableRandom random, int virtualUser, int sequence, String jwt) throws IOException {
+        City city = dataset.getCities().get(random.nextInt(dataset.getCities().size()));
+        LocationCreationDto location = LocationCreationDto.builder()
+                .title("LT " + virtualUser + "-" + sequence % 1000)
+                .description("Uploaded during load test")
+                .lat(city.getLat() + (random.nextDouble() - 0.5) * city.getSpread())
+                .lng(city.getLng() + (random.nextDouble() - 0.5) * city.getSpread())
+                .build();
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        body.write(("--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"locationCreationDto\"\r\n"
+                + "Content-Type: application/json\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+        body.write(objectMapper.writeValueAsBytes(location));
+        body.write(("\r\n--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"load-test.jpg\"\r\n"
+                + "Content-Type: image/jpeg\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+        body.write(images.get(random.nextInt(images.size())));
+        body.write(("\r\n--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.UTF_8));
+
+        HttpRequest.Builder builder = HttpRequest.newBuilder(baseUri.resolve("api/location?async=true"))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "multipart/form-data; boundary=" + BOUNDARY)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray()));
+        if (jwt != null) {
+            builder.header("Authorization", "Bearer " + jwt);
+        }
+        return builder.build();
+    }
+
+    private String login(int user) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = httpClient.send(postJson("user/login", Map.of(
+                "email", dataset.emailOf(user),
+                "password", dataset.getPassword())), HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            return null;
+        }
+        JsonNode jwt = objectMapper.readTree(response.body()).get("jwt");
+        return jwt == null ? null : jwt.asText();
+    }
+
+    private int send(HttpRequest request) throws InterruptedException {
+        try {
+            return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(baseUri.resolve(path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+    }
+
+    private HttpRequest postJson(String path, Object body) throws JsonProcessingException {
+        return HttpRequest.newBuilder(baseUri.resolve(path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                .build();
+    }
+}
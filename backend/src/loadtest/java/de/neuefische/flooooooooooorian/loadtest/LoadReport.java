@@ -0,0 +1,83 @@
+package de.neuefische.flooooooooooorian.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoadReport {
+
+    private double durationSeconds;
+    private List<EndpointResult> endpoints;
+
+    public LoadReport(Map<Scenario, EndpointStats> stats, Duration duration) {
+        this.durationSeconds = duration.toMillis() / 1000.0;
+        this.endpoints = new ArrayList<>();
+        stats.forEach((scenario, endpointStats) -> endpoints.add(EndpointResult.builder()
+                .endpoint(scenario.getKey())
+                .requests(endpointStats.getRequests())
+                .errors(endpointStats.getErrors())
+                .rejected(endpointStats.getRejected())
+                .throughput(endpointStats.getRequests() / durationSeconds)
+                .p50(endpointStats.getPercentileMillis(50))
+                .p90(endpointStats.getPercentileMillis(90))
+                .p99(endpointStats.getPercentileMillis(99))
+                .p999(endpointStats.getPercentileMillis(99.9))
+                .max(endpointStats.getMaxMillis())
+                .errorRate(endpointStats.getErrorRate())
+                .build()));
+    }
+
+    public boolean exceedsErrorRate(double maxErrorRate) {
+        return endpoints.stream().anyMatch(endpoint -> endpoint.getErrorRate() > maxErrorRate);
+    }
+
+    public void print(PrintStream out) {
+        out.printf(Locale.ROOT, "%-8s %9s %7s %8s %9s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "rejected", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (EndpointResult endpoint : endpoints) {
+            out.printf(Locale.ROOT, "%-8s %9d %7d %8d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    endpoint.getEndpoint(), endpoint.getRequests(), endpoint.getErrors(), endpoint.getRejected(),
+                    endpoint.getThroughput(), endpoint.getP50(), endpoint.getP90(), endpoint.getP99(), endpoint.getP999(), endpoint.getMax());
+        }
+    }
+
+    public void write(Path path, ObjectMapper objectMapper) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(path.toFile(), this);
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class EndpointResult {
+        private String endpoint;
+        private long requests;
+        private long errors;
+        private long rejected;
+        private double throughput;
+        private double p50;
+        private double p90;
+        private double p99;
+        private double p999;
+        private double max;
+        private double errorRate;
+    }
+}
@@ -0,0 +1,56 @@
+package de.neuefische.flooooooooooorian.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.neuefische.flooooooooooorian.backend.BackendApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.net.URI;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.List;
+
+public class LoadTest {
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(BackendApplication.class, StandInConfig.class)
+                .properties(
+                        "server.port=0",
+                        "picture.storage.type=stand-in",
+                        "spring.data.mongodb.database=photohunter-loadtest",
+                        "jwt.secret=" + Base64.getEncoder().encodeToString(secret))
+                .run(args);
+
+        boolean failed;
+        try {
+            Environment environment = context.getEnvironment();
+            LoadTestSettings settings = LoadTestSettings.from(environment);
+            ObjectMapper objectMapper = context.getBean(ObjectMapper.class);
+
+            System.out.printf("Generating %d users and %d locations (seed %d)%n", settings.getUsers(), settings.getLocations(), settings.getSeed());
+            String encodedPassword = context.getBean(PasswordEncoder.class).encode(DatasetGenerator.PASSWORD);
+            Dataset dataset = new DatasetGenerator(context.getBean(MongoTemplate.class), settings).generate(encodedPassword);
+            List<byte[]> images = UploadImages.generate(settings.getUploadImages(), settings.getSeed());
+
+            URI baseUri = URI.create("http://localhost:" + environment.getProperty("local.server.port") + "/");
+            System.out.printf("Running %d virtual users for %s after %s warmup, mix %s%n",
+                    settings.getVirtualUsers(), settings.getDuration(), settings.getWarmup(), settings.getMix());
+            LoadReport report = new LoadDriver(baseUri, settings, dataset, images, objectMapper).run();
+
+            report.print(System.out);
+            report.write(settings.getReport(), objectMapper);
+            System.out.println("Report written to " + settings.getReport().toAbsolutePath());
+            failed = report.exceedsErrorRate(settings.getMaxErrorRate());
+        } finally {
+            context.close();
+        }
+        System.exit(failed ? 1 : 0);
+    }
+}
@@ -0,0 +1,77 @@
+package de.neuefische.flooooooooooorian.loadtest;
+
+import lombok.Builder;
+import lombok.Data;
+import org.springframework.core.env.Environment;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+@Data
+@Builder
+public class LoadTestSettings {
+
+    public static final String DEFAULT_MIX = "bbox=60,detail=25,login=8,upload=5,google=2";
+    public static final String LOGIN_STORM = "login-storm";
+    public static final String LOGIN_STORM_MIX = "login=80,list=20";
+
+    private int users;
+    private int locations;
+    private int tags;
+    private double picturesPerLocation;
+    private double ownerSkew;
+    private int hotspotsPerCity;
+    private int batchSize;
+    private int parallelism;
+    private int virtualUsers;
+    private int uploadImages;
+    private Duration warmup;
+    private Duration duration;
+    private Duration thinkTime;
+    private Map<Scenario, Integer> mix;
+    private long seed;
+    private double maxErrorRate;
+    private Path report;
+
+    public static LoadTestSettings from(Environment environment) {
+        return LoadTestSettings.builder()
+                .users(environment.getProperty("loadtest.users", Integer.class, 1000))
+                .locations(environment.getProperty("loadtest.locations", Integer.class, 50000))
+                .tags(environment.getProperty("loadtest.tags", Integer.class, 200))
+                .picturesPerLocation(environment.getProperty("loadtest.pictures-per-location", Double.class, 2.0))
+                .ownerSkew(environment.getProperty("loadtest.owner-skew", Double.class, 3.0))
+                .hotspotsPerCity(environment.getProperty("loadtest.hotspots-per-city", Integer.class, 12))
+                .batchSize(environment.getProperty("loadtest.batch-size", Integer.class, 1000))
+                .parallelism(environment.getProperty("loadtest.parallelism", Integer.class, Runtime.getRuntime().availableProcessors()))
+                .virtualUsers(environment.getProperty("loadtest.virtual-users", Integer.class, 32))
+                .uploadImages(environment.getProperty("loadtest.upload-images", Integer.class, 64))
+                .warmup(environment.getProperty("loadtest.warmup", Duration.class, Duration.ofSeconds(30)))
+                .duration(environment.getProperty("loadtest.duration", Duration.class, Duration.ofMinutes(2)))
+                .thinkTime(environment.getProperty("loadtest.think-time", Duration.class, Duration.ZERO))
+                .mix(parseMix(environment.getProperty("loadtest.mix", DEFAULT_MIX)))
+                .seed(environment.getProperty("loadtest.seed", Long.class, 42L))
+                .maxErrorRate(environment.getProperty("loadtest.max-error-rate", Double.class, 0.01))
+                .report(Path.of(environment.getProperty("loadtest.report", "target/loadtest-result.json")))
+                .build();
+    }
+
+    static Map<Scenario, Integer> parseMix(String mix) {
+        Map<Scenario, Integer> weights = new EnumMap<>(Scenario.class);
+        for (String entry : (LOGIN_STORM.equals(mix.trim()) ? LOGIN_STORM_MIX : mix).split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Mix entries must look like scenario=weight: " + entry);
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) {
+                weights.put(Scenario.fromKey(parts[0].trim()), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("Mix must contain at least one scenario with a positive weight");
+        }
+        return weights;
+    }
+}
@@ -0,0 +1,30 @@
+package de.neuefische.flooooooooooorian.loadtest;
+
+import java.util.Arrays;
+
+public enum Scenario {
+    BBOX("bbox"),
+    DETAIL("detail"),
+    LIST("list"),
+    LOGIN("login"),
+    UPLOAD("upload"),
+    GOOGLE_LOGIN("google"),
+    REGISTER("register");
+
+    private final String key;
+
+    Scenario(String key) {
+        this.key = key;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public static Scenario fromKey(String key) {
+        return Arrays.stream(values())
+                .filter(scenario -> scenario.key.equals(key))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown scenario: " + key));
+    }
+}
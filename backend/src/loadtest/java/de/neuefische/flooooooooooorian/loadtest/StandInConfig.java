@@ -0,0 +1,37 @@
+package de.neuefische.flooooooooooorian.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.neuefische.flooooooooooorian.backend.service.PictureStorage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+
+@Configuration
+public class StandInConfig {
+
+    @Bean
+    public PictureStorage standInPictureStorage(@Value("${loadtest.latency.cloudinary:150ms}") Duration latency) {
+        return new StandInPictureStorage(latency);
+    }
+
+    @Bean
+    @Primary
+    public StandInMailSender standInMailSender(@Value("${loadtest.latency.smtp:50ms}") Duration latency) {
+        return new StandInMailSender(latency);
+    }
+
+    @Bean
+    @Primary
+    public RestTemplate standInRestTemplate(RestTemplateBuilder restTemplateBuilder,
+                                            ObjectMapper objectMapper,
+                                            @Value("${loadtest.latency.google:120ms}") Duration latency) {
+        return restTemplateBuilder
+                .additionalInterceptors(new GoogleStandInInterceptor(latency, objectMapper))
+                .build();
+    }
+}
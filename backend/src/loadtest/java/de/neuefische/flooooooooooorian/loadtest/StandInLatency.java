@@ -0,0 +1,22 @@
+package de.neuefische.flooooooooooorian.loadtest;
+
+import java.io.InterruptedIOException;
+import java.time.Duration;
+
+final class StandInLatency {
+
+    private StandInLatency() {
+    }
+
+    static void sleep(Duration latency) throws InterruptedIOException {
+        if (latency.isZero() || latency.isNegative()) {
+            return;
+        }
+        try {
+            Thread.sleep(latency.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Stand-in call interrupted");
+        }
+    }
+}
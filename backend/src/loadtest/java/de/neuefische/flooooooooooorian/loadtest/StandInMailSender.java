@@ -0,0 +1,34 @@
+package de.neuefische.flooooooooooorian.loadtest;
+
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import javax.mail.internet.MimeMessage;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+
+public class StandInMailSender extends JavaMailSenderImpl {
+
+    private final Duration latency;
+    private final LongAdder sent = new LongAdder();
+
+    public StandInMailSender(Duration latency) {
+        this.latency = latency;
+    }
+
+    @Override
+    protected void doSend(MimeMessage[] mimeMessages, Object[] originalMessages) throws MailException {
+        try {
+            StandInLatency.sleep(latency);
+        } catch (InterruptedIOException e) {
+            throw new MailSendException("Stand-in SMTP delivery interrupted", e);
+        }
+        sent.add(mimeMessages.length);
+    }
+
+    public long getSent() {
+        return sent.sum();
+    }
+}
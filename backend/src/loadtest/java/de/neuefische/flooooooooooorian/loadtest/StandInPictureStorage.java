@@ -0,0 +1,38 @@
+package de.neuefische.flooooooooooorian.loadtest;
+
+import de.neuefische.flooooooooooorian.backend.model.Picture;
+import de.neuefische.flooooooooooorian.backend.service.PictureStorage;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.UUID;
+
+public class StandInPictureStorage implements PictureStorage {
+
+    private final Duration latency;
+
+    public StandInPictureStorage(Duration latency) {
+        this.latency = latency;
+    }
+
+    @Override
+    @Timed(value = PictureStorage.STORE_TIMER, extraTags = {"storage", "stand-in"}, histogram = true)
+    public Picture store(MultipartFile image) throws IOException {
+        return store(image.getBytes());
+    }
+
+    @Override
+    @Timed(value = PictureStorage.STORE_TIMER, extraTags = {"storage", "stand-in"}, histogram = true)
+    public Picture store(byte[] image) throws IOException {
+        StandInLatency.sleep(latency);
+        String id = "stand-in/" + UUID.randomUUID();
+        return Picture.builder().id(id).url("https://stand-in.invalid/image/upload/" + id + ".jpg").build();
+    }
+
+    @Override
+    public void delete(Picture picture) throws IOException {
+        StandInLatency.sleep(latency);
+    }
+}
@@ -0,0 +1,43 @@
+package de.neuefische.flooooooooooorian.loadtest;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+public final class UploadImages {
+
+    private static final int WIDTH = 1600;
+    private static final int HEIGHT = 1200;
+
+    private UploadImages() {
+    }
+
+    public static List<byte[]> generate(int count, long seed) throws IOException {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<byte[]> images = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = image.createGraphics();
+            graphics.setPaint(new GradientPaint(0, 0, color(random), WIDTH, HEIGHT, color(random)));
+            graphics.fillRect(0, 0, WIDTH, HEIGHT);
+            for (int shape = 0; shape < 40; shape++) {
+                graphics.setColor(color(random));
+                graphics.fillOval(random.nextInt(WIDTH), random.nextInt(HEIGHT), 20 + random.nextInt(400), 20 + random.nextInt(400));
+            }
+            graphics.dispose();
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            ImageIO.write(image, "jpg", outputStream);
+            images.add(outputStream.toByteArray());
+        }
+        return images;
+    }
+
+    private static Color color(SplittableRandom random) {
+        return new Color(random.nextInt(256), random.nextInt(256), random.nextInt(256));
+    }
+}
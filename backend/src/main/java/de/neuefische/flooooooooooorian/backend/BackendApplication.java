@@ -1,11 +1,14 @@
 package de.neuefische.flooooooooooorian.backend;
 
-import de.neuefische.flooooooooooorian.backend.config.EmailConfig;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
+
 @SpringBootApplication
 public class BackendApplication {
 
@@ -14,12 +17,12 @@ public class BackendApplication {
     }
 
     @Bean
-    public RestTemplate restTemplate(){
-        return new RestTemplate();
-    }
-
-    @Bean
-    public EmailConfig emailConfig() {
-        return new EmailConfig();
+    public RestTemplate restTemplate(RestTemplateBuilder restTemplateBuilder,
+                                     @Value("${rest.client.connect-timeout:5s}") Duration connectTimeout,
+                                     @Value("${rest.client.read-timeout:10s}") Duration readTimeout){
+        return restTemplateBuilder
+                .setConnectTimeout(connectTimeout)
+                .setReadTimeout(readTimeout)
+                .build();
     }
 }
@@ -0,0 +1,51 @@
+package de.neuefische.flooooooooooorian.backend.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import de.neuefische.flooooooooooorian.backend.dto.CursorPageDto;
+import de.neuefische.flooooooooooorian.backend.security.service.UserSecurityService;
+import de.neuefische.flooooooooooorian.backend.service.LocationService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    @Value("${security.principal-cache.max-size:10000}")
+    private long principalCacheMaxSize;
+    @Value("${security.principal-cache.ttl:60s}")
+    private Duration principalCacheTtl;
+    @Value("${location.box-cache.max-items:50000}")
+    private long boxCacheMaxItems;
+    @Value("${location.box-cache.ttl:10m}")
+    private Duration boxCacheTtl;
+
+    @Bean
+    public CacheManagerCustomizer<CaffeineCacheManager> principalCacheCustomizer() {
+        return cacheManager -> cacheManager.registerCustomCache(UserSecurityService.PRINCIPAL_CACHE, Caffeine.newBuilder()
+                .maximumSize(principalCacheMaxSize)
+                .expireAfterWrite(principalCacheTtl)
+                .recordStats()
+                .build());
+    }
+
+    @Bean
+    public CacheManagerCustomizer<CaffeineCacheManager> boxCacheCustomizer() {
+        return cacheManager -> cacheManager.registerCustomCache(LocationService.BOX_CACHE, Caffeine.newBuilder()
+                .maximumWeight(boxCacheMaxItems)
+                .weigher(CacheConfig::boxCacheWeight)
+                .expireAfterWrite(boxCacheTtl)
+                .recordStats()
+                .build());
+    }
+
+    static int boxCacheWeight(Object key, Object value) {
+        return value instanceof CursorPageDto ? ((CursorPageDto<?>) value).getItems().size() + 1 : 1;
+    }
+}
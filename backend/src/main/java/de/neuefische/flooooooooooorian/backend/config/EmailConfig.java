@@ -1,29 +1,38 @@
 package de.neuefische.flooooooooooorian.backend.config;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.JavaMailSenderImpl;
 
+import java.time.Duration;
 import java.util.Properties;
 
+@Configuration
 public class EmailConfig {
-    @Value("${email.password:}")
-    private String password;
 
-    public JavaMailSender getJavaMailSender() {
+    @Bean
+    public JavaMailSender javaMailSender(@Value("${email.host:smtp.gmail.com}") String host,
+                                         @Value("${email.port:587}") int port,
+                                         @Value("${email.username:info.photohunter@gmail.com}") String username,
+                                         @Value("${email.password:}") String password,
+                                         @Value("${email.timeout:10s}") Duration timeout) {
 
         JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
-        mailSender.setHost("smtp.gmail.com");
-        mailSender.setPort(587);
+        mailSender.setHost(host);
+        mailSender.setPort(port);
 
-        mailSender.setUsername("info.photohunter@gmail.com");
+        mailSender.setUsername(username);
         mailSender.setPassword(password);
 
         Properties props = mailSender.getJavaMailProperties();
         props.put("mail.transport.protocol", "smtp");
-        props.put("mail.smtp.auth", "true");
+        props.put("mail.smtp.auth", String.valueOf(!password.isBlank()));
         props.put("mail.smtp.starttls.enable", "true");
-        props.put("mail.debug", "true");
+        props.put("mail.smtp.connectiontimeout", String.valueOf(timeout.toMillis()));
+        props.put("mail.smtp.timeout", String.valueOf(timeout.toMillis()));
+        props.put("mail.smtp.writetimeout", String.valueOf(timeout.toMillis()));
 
         return mailSender;
     }
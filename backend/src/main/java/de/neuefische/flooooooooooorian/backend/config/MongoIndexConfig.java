@@ -0,0 +1,113 @@
+package de.neuefische.flooooooooooorian.backend.config;
+
+import de.neuefische.flooooooooooorian.backend.model.Location;
+import de.neuefische.flooooooooooorian.backend.model.OutboxEmail;
+import de.neuefische.flooooooooooorian.backend.model.Picture;
+import de.neuefische.flooooooooooorian.backend.model.ThumbnailState;
+import de.neuefische.flooooooooooorian.backend.security.model.TokenRevocation;
+import de.neuefische.flooooooooooorian.backend.security.service.JwtUtilsService;
+import org.bson.Document;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.index.GeoSpatialIndexType;
+import org.springframework.data.mongodb.core.index.GeospatialIndex;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.schema.JsonSchemaObject;
+
+import java.time.Duration;
+import java.util.List;
+
+@Configuration
+public class MongoIndexConfig implements InitializingBean {
+
+    private static final int BACKFILL_BATCH_SIZE = 1000;
+    private static final Duration SENT_EMAIL_RETENTION = Duration.ofDays(7);
+    private static final List<String> EMBEDDED_OWNER_FIELDS = List.of("joinedOn", "email", "password", "role", "enabled", "google_access_token", "google_refresh_token", "_class");
+
+    private final MongoTemplate mongoTemplate;
+
+    @Autowired
+    public MongoIndexConfig(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        mongoTemplate.indexOps(Location.class)
+                .ensureIndex(new GeospatialIndex("position").typed(GeoSpatialIndexType.GEO_2DSPHERE));
+        mongoTemplate.indexOps(Location.class)
+                .ensureIndex(new Index().on("ownerId", Sort.Direction.ASC).on("creationDate", Sort.Direction.DESC));
+        mongoTemplate.indexOps(Location.class)
+                .ensureIndex(new Index().on("rating", Sort.Direction.DESC));
+        mongoTemplate.indexOps(Location.class)
+                .ensureIndex(new Index().on("thumbnailState", Sort.Direction.ASC).on("creationDate", Sort.Direction.ASC)
+                        .partial(PartialIndexFilter.of(Criteria.where("thumbnailState").is(ThumbnailState.PENDING.name()))));
+        mongoTemplate.indexOps(Picture.class)
+                .ensureIndex(new Index().on("contentHash", Sort.Direction.ASC).unique().sparse());
+        mongoTemplate.indexOps(TokenRevocation.class)
+                .ensureIndex(new Index().on("revokedAt", Sort.Direction.ASC).expire(JwtUtilsService.TOKEN_LIFETIME));
+        mongoTemplate.indexOps(OutboxEmail.class)
+                .ensureIndex(new Index().on("status", Sort.Direction.ASC).on("nextAttemptAt", Sort.Direction.ASC));
+        mongoTemplate.indexOps(OutboxEmail.class)
+                .ensureIndex(new Index().on("sentAt", Sort.Direction.ASC).sparse().expire(SENT_EMAIL_RETENTION));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillLocations() {
+        backfillLocationPositions();
+        stripEmbeddedOwners();
+        backfillLocationOwnerIds();
+    }
+
+    private void backfillLocationOwnerIds() {
+        Query query = new Query(Criteria.where("ownerId").exists(false).and("owner._id").exists(true)).limit(BACKFILL_BATCH_SIZE);
+        query.fields().include("owner._id");
+
+        List<Document> batch = mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(Location.class));
+        while (!batch.isEmpty()) {
+            BulkOperations bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Location.class);
+            for (Document document : batch) {
+                String ownerId = document.get("owner", Document.class).get("_id").toString();
+                bulkOperations.updateOne(new Query(Criteria.where("_id").is(document.get("_id"))), new Update().set("ownerId", ownerId));
+            }
+            bulkOperations.execute();
+            batch = mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(Location.class));
+        }
+    }
+
+    private void stripEmbeddedOwners() {
+        Update update = new Update();
+        EMBEDDED_OWNER_FIELDS.forEach(field -> update.unset("owner." + field));
+        mongoTemplate.updateMulti(new Query(Criteria.where("owner.email").exists(true)), update, mongoTemplate.getCollectionName(Location.class));
+    }
+
+    private void backfillLocationPositions() {
+        Query query = new Query(Criteria.where("position").exists(false)
+                .and("lat").type(JsonSchemaObject.Type.numberType()).gte(-90).lte(90)
+                .and("lng").type(JsonSchemaObject.Type.numberType()).gte(-180).lte(180))
+                .limit(BACKFILL_BATCH_SIZE);
+        query.fields().include("lat").include("lng");
+
+        List<Document> batch = mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(Location.class));
+        while (!batch.isEmpty()) {
+            BulkOperations bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Location.class);
+            for (Document document : batch) {
+                GeoJsonPoint position = new GeoJsonPoint(document.get("lng", Number.class).doubleValue(), document.get("lat", Number.class).doubleValue());
+                bulkOperations.updateOne(new Query(Criteria.where("_id").is(document.get("_id"))), new Update().set("position", position));
+            }
+            bulkOperations.execute();
+            batch = mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(Location.class));
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package de.neuefische.flooooooooooorian.backend.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+@Component
+public class MultipartSizeFilter extends OncePerRequestFilter {
+
+    private static final Pattern GALLERY_UPLOAD_PATH = Pattern.compile("/api/location/[^/]+/pictures/?");
+
+    private final long maxRequestSize;
+    private final long galleryMaxRequestSize;
+
+    @Autowired
+    public MultipartSizeFilter(@Value("${picture.upload.max-request-size:50MB}") DataSize maxRequestSize,
+                               @Value("${gallery.upload.max-request-size:210MB}") DataSize galleryMaxRequestSize) {
+        this.maxRequestSize = maxRequestSize.toBytes();
+        this.galleryMaxRequestSize = galleryMaxRequestSize.toBytes();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        return contentType == null || !contentType.toLowerCase(Locale.ROOT).startsWith("multipart/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        long limit = GALLERY_UPLOAD_PATH.matcher(request.getRequestURI()).matches() ? galleryMaxRequestSize : maxRequestSize;
+        if (request.getContentLengthLong() > limit) {
+            response.sendError(HttpStatus.PAYLOAD_TOO_LARGE.value(), "Request must not exceed " + DataSize.ofBytes(limit).toMegabytes() + "MB");
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,32 @@
+package de.neuefische.flooooooooooorian.backend.config;
+
+import de.neuefische.flooooooooooorian.backend.service.LocalPictureStorage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+
+@Configuration
+@ConditionalOnProperty(name = "picture.storage.type", havingValue = "local")
+public class PictureStorageConfig implements WebMvcConfigurer {
+
+    public static final Duration PICTURE_MAX_AGE = Duration.ofDays(365);
+
+    private final LocalPictureStorage localPictureStorage;
+
+    @Autowired
+    public PictureStorageConfig(LocalPictureStorage localPictureStorage) {
+        this.localPictureStorage = localPictureStorage;
+    }
+
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        registry.addResourceHandler(localPictureStorage.getBaseUrl() + "**")
+                .addResourceLocations(localPictureStorage.getDirectory().toUri().toString())
+                .setCacheControl(CacheControl.maxAge(PICTURE_MAX_AGE).cachePublic());
+    }
+}
@@ -1,16 +1,22 @@
 package de.neuefische.flooooooooooorian.backend.controller;
 
+import de.neuefische.flooooooooooorian.backend.dto.CursorPageDto;
 import de.neuefische.flooooooooooorian.backend.dto.admin.AdminUserDto;
-import de.neuefische.flooooooooooorian.backend.model.Location;
+import de.neuefische.flooooooooooorian.backend.dto.admin.CacheStatsDto;
+import de.neuefische.flooooooooooorian.backend.dto.location.LocationDto;
+import de.neuefische.flooooooooooorian.backend.service.CacheStatsService;
 import de.neuefische.flooooooooooorian.backend.service.LocationService;
 import de.neuefische.flooooooooooorian.backend.service.UserService;
+import de.neuefische.flooooooooooorian.backend.utils.CursorMapper;
+import de.neuefische.flooooooooooorian.backend.utils.LocationMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/admin")
@@ -18,11 +24,13 @@ public class AdminPageController {
 
     private final UserService userService;
     private final LocationService locationService;
+    private final CacheStatsService cacheStatsService;
 
     @Autowired
-    public AdminPageController(UserService userService, LocationService locationService) {
+    public AdminPageController(UserService userService, LocationService locationService, CacheStatsService cacheStatsService) {
         this.userService = userService;
         this.locationService = locationService;
+        this.cacheStatsService = cacheStatsService;
     }
 
     @GetMapping()
@@ -30,25 +38,30 @@ public class AdminPageController {
         return List.of("users", "locations");
     }
 
+    @GetMapping("/caches")
+    public List<CacheStatsDto> getCacheStats() {
+        return cacheStatsService.getCacheStats();
+    }
+
     @GetMapping("/locations")
-    public List<Location> getLocations() {
-        return locationService.getLocations();
+    public CursorPageDto<LocationDto> getLocations(@RequestParam Optional<String> cursor, @RequestParam Optional<Integer> limit) {
+        return locationService.getLocationPage(cursor, limit.orElse(CursorMapper.DEFAULT_PAGE_SIZE))
+                .map(LocationMapper::toLocationDto);
     }
 
     @GetMapping("/users")
-    public List<AdminUserDto> getUsers() {
-        List<AdminUserDto> users = new ArrayList<>();
-        userService.getUsers().forEach(user -> users.add(AdminUserDto.builder()
-                .full_name(user.getFull_name())
-                .avatar_url(user.getAvatar_url())
-                .email(user.getEmail())
-                .joinedOn(user.getJoinedOn())
-                .enabled(user.isEnabled())
-                .id(user.getId())
-                .google_access_token(user.getGoogle_access_token())
-                .google_refresh_token(user.getGoogle_refresh_token())
-                .role(user.getRole())
-                .build()));
-        return users;
+    public CursorPageDto<AdminUserDto> getUsers(@RequestParam Optional<String> cursor, @RequestParam Optional<Integer> limit) {
+        return userService.getUserPage(cursor, limit.orElse(CursorMapper.DEFAULT_PAGE_SIZE))
+                .map(user -> AdminUserDto.builder()
+                        .full_name(user.getFull_name())
+                        .avatar_url(user.getAvatar_url())
+                        .email(user.getEmail())
+                        .joinedOn(user.getJoinedOn())
+                        .enabled(user.isEnabled())
+                        .id(user.getId())
+                        .google_access_token(user.getGoogle_access_token())
+                        .google_refresh_token(user.getGoogle_refresh_token())
+                        .role(user.getRole())
+                        .build());
     }
 }
@@ -1,63 +1,192 @@
 package de.neuefische.flooooooooooorian.backend.controller;
 
+import de.neuefische.flooooooooooorian.backend.dto.CursorPageDto;
+import de.neuefische.flooooooooooorian.backend.dto.location.LocationClusterDto;
 import de.neuefische.flooooooooooorian.backend.dto.location.LocationCreationDto;
 import de.neuefische.flooooooooooorian.backend.dto.location.LocationDto;
+import de.neuefische.flooooooooooorian.backend.dto.location.LocationSummaryDto;
+import de.neuefische.flooooooooooorian.backend.model.Location;
 import de.neuefische.flooooooooooorian.backend.model.Picture;
+import de.neuefische.flooooooooooorian.backend.model.ThumbnailState;
 import de.neuefische.flooooooooooorian.backend.security.model.User;
-import de.neuefische.flooooooooooorian.backend.service.CloudinaryService;
+import de.neuefische.flooooooooooorian.backend.service.PictureUploadService;
+import de.neuefische.flooooooooooorian.backend.service.LocationGalleryService;
 import de.neuefische.flooooooooooorian.backend.service.LocationService;
+import de.neuefische.flooooooooooorian.backend.service.ThumbnailUploadService;
 import de.neuefische.flooooooooooorian.backend.service.UserService;
 import de.neuefische.flooooooooooorian.backend.utils.LocationMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
 
 import javax.validation.Valid;
-import java.io.File;
 import java.io.IOException;
+import java.net.URI;
 import java.security.Principal;
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/location")
 public class LocationController {
 
+    public static final String VECTOR_TILE_MEDIA_TYPE = "application/vnd.mapbox-vector-tile";
+    public static final Duration TILE_MAX_AGE = Duration.ofMinutes(5);
+
     private final UserService userService;
     private final LocationService locationService;
-    private final CloudinaryService cloudinaryService;
+    private final PictureUploadService pictureUploadService;
+    private final ThumbnailUploadService thumbnailUploadService;
+    private final LocationGalleryService locationGalleryService;
 
     @Autowired
-    public LocationController(UserService userService, LocationService locationService, CloudinaryService cloudinaryService) {
+    public LocationController(UserService userService, LocationService locationService, PictureUploadService pictureUploadService, ThumbnailUploadService thumbnailUploadService, LocationGalleryService locationGalleryService) {
         this.userService = userService;
         this.locationService = locationService;
-        this.cloudinaryService = cloudinaryService;
+        this.pictureUploadService = pictureUploadService;
+        this.thumbnailUploadService = thumbnailUploadService;
+        this.locationGalleryService = locationGalleryService;
     }
 
     @GetMapping
-    public List<LocationDto> getLocations(@RequestParam Optional<Double> lat, @RequestParam Optional<Double> lng) {
-        return locationService.getLocations(lat, lng).stream()
-                .map((LocationMapper::toLocationDto))
-                .collect(Collectors.toList());
+    public CursorPageDto<LocationDto> getLocations(@RequestParam Optional<Double> lat,
+                                                   @RequestParam Optional<Double> lng,
+                                                   @RequestParam Optional<Double> radius,
+                                                   @RequestParam Optional<List<Double>> bbox,
+                                                   @RequestParam Optional<String> cursor,
+                                                   @RequestParam Optional<Integer> limit,
+                                                   @RequestParam Optional<Integer> width,
+                                                   @RequestParam(defaultValue = "near") String mode) {
+        int thumbnailWidth = width.orElse(LocationMapper.ORIGINAL_WIDTH);
+        return findLocations(lat, lng, radius, bbox, cursor, limit.orElse(LocationService.DEFAULT_LIMIT), mode)
+                .map(location -> LocationMapper.toLocationDto(location, thumbnailWidth));
+    }
+
+    private CursorPageDto<Location> findLocations(Optional<Double> lat, Optional<Double> lng, Optional<Double> radius, Optional<List<Double>> bbox, Optional<String> cursor, int limit, String mode) {
+        if (bbox.isPresent()) {
+            List<Double> box = validateBox(bbox.get());
+            return locationService.getLocationsWithinBox(box.get(1), box.get(0), box.get(3), box.get(2), cursor, limit);
+        }
+        if (lat.isPresent() && lng.isPresent()) {
+            double radiusKm = radius.orElse(LocationService.DEFAULT_RADIUS_KM);
+            switch (mode) {
+                case "near":
+                    return new CursorPageDto<>(locationService.getLocationsNear(lat.get(), lng.get(), radiusKm, limit), null);
+                case "radius":
+                    return locationService.getLocationsWithinRadius(lat.get(), lng.get(), radiusKm, cursor, limit);
+                default:
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "mode must be near or radius");
+            }
+        }
+        return locationService.getLocationPage(cursor, limit);
+    }
+
+    @GetMapping("/summaries")
+    public CursorPageDto<LocationSummaryDto> getLocationSummaries(@RequestParam Optional<Double> lat,
+                                                                  @RequestParam Optional<Double> lng,
+                                                                  @RequestParam Optional<Double> radius,
+                                                                  @RequestParam Optional<List<Double>> bbox,
+                                                                  @RequestParam Optional<String> cursor,
+                                                                  @RequestParam Optional<Integer> limit,
+                                                                  @RequestParam(defaultValue = "near") String mode) {
+        int pageLimit = limit.orElse(LocationService.DEFAULT_LIMIT);
+        if (bbox.isPresent()) {
+            List<Double> box = validateBox(bbox.get());
+            return locationService.getLocationSummariesWithinBox(box.get(1), box.get(0), box.get(3), box.get(2), cursor, pageLimit);
+        }
+        if (lat.isPresent() && lng.isPresent()) {
+            double radiusKm = radius.orElse(LocationService.DEFAULT_RADIUS_KM);
+            switch (mode) {
+                case "near":
+                    return new CursorPageDto<>(locationService.getLocationSummariesNear(lat.get(), lng.get(), radiusKm, pageLimit), null);
+                case "radius":
+                    return locationService.getLocationSummariesWithinRadius(lat.get(), lng.get(), radiusKm, cursor, pageLimit);
+                default:
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "mode must be near or radius");
+            }
+        }
+        return locationService.getLocationSummaryPage(cursor, pageLimit);
+    }
+
+    @GetMapping("/clusters")
+    public List<LocationClusterDto> getLocationClusters(@RequestParam List<Double> bbox, @RequestParam int zoom) {
+        List<Double> box = validateBox(bbox);
+        return locationService.getLocationClusters(box.get(1), box.get(0), box.get(3), box.get(2), zoom);
+    }
+
+    @GetMapping(value = "/tiles/{z}/{x}/{y}.mvt", produces = VECTOR_TILE_MEDIA_TYPE)
+    public ResponseEntity<byte[]> getLocationTile(@PathVariable int z, @PathVariable int x, @PathVariable int y, WebRequest request) {
+        byte[] tile = locationService.getLocationTile(z, x, y);
+        String eTag = "\"" + DigestUtils.md5DigestAsHex(tile) + "\"";
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(TILE_MAX_AGE).cachePublic())
+                .eTag(eTag)
+                .body(tile);
+    }
+
+    private List<Double> validateBox(List<Double> box) {
+        if (box.size() != 4 || box.contains(null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "bbox must be minLng,minLat,maxLng,maxLat");
+        }
+        double minLng = box.get(0);
+        double minLat = box.get(1);
+        double maxLng = box.get(2);
+        double maxLat = box.get(3);
+        if (!(minLat >= -90 && maxLat <= 90 && minLat <= maxLat)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "bbox latitudes must satisfy -90 <= minLat <= maxLat <= 90");
+        }
+        if (!(minLng >= -180 && maxLng <= 180)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "bbox longitudes must be between -180 and 180");
+        }
+        if (minLng > maxLng) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "bbox must not cross the antimeridian, split it at 180");
+        }
+        return box;
     }
 
     @PostMapping
     public LocationDto createLocation(Principal principal, @RequestPart @Valid LocationCreationDto locationCreationDto, @RequestPart(value = "file") Optional<MultipartFile> thumbnail) throws IOException {
         User user = userService.findUserByEmail(principal.getName()).orElseThrow(() -> new ResponseStatusException(HttpStatus.FORBIDDEN));
         if (thumbnail.isPresent()) {
-            File fileToUpload = File.createTempFile("photo", null);
-            thumbnail.get().transferTo(fileToUpload);
-            Picture photoToSave = cloudinaryService.uploadImage(fileToUpload);
+            Picture photoToSave = pictureUploadService.upload(thumbnail.get());
             return LocationMapper.toLocationDto(locationService.createLocation(locationCreationDto, photoToSave, user));
         }
         return LocationMapper.toLocationDto(locationService.createLocation(locationCreationDto, user));
     }
 
+    @PostMapping(params = "async=true")
+    public ResponseEntity<LocationDto> createLocationAsync(Principal principal, @RequestPart @Valid LocationCreationDto locationCreationDto, @RequestPart(value = "file") Optional<MultipartFile> thumbnail) throws IOException {
+        User user = userService.findUserByEmail(principal.getName()).orElseThrow(() -> new ResponseStatusException(HttpStatus.FORBIDDEN));
+        if (thumbnail.isEmpty()) {
+            return ResponseEntity.ok(LocationMapper.toLocationDto(locationService.createLocation(locationCreationDto, user)));
+        }
+        Location location = thumbnailUploadService.createLocation(locationCreationDto, thumbnail.get(), user);
+        if (location.getThumbnailState() == ThumbnailState.READY) {
+            return ResponseEntity.ok(LocationMapper.toLocationDto(location));
+        }
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/location/" + location.getId()))
+                .body(LocationMapper.toLocationDto(location));
+    }
+
+    @PostMapping("/{id}/pictures")
+    public LocationDto addPictures(Principal principal, @PathVariable String id, @RequestPart(value = "files") List<MultipartFile> pictures) throws IOException {
+        User user = userService.findUserByEmail(principal.getName()).orElseThrow(() -> new ResponseStatusException(HttpStatus.FORBIDDEN));
+        return LocationMapper.toLocationDto(locationGalleryService.addPictures(id, pictures, user));
+    }
+
     @GetMapping("/{id}")
-    public LocationDto getLocationById(@PathVariable String id) {
-        return LocationMapper.toLocationDto(locationService.getLocationById(id).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Id not valid!")));
+    public LocationDto getLocationById(@PathVariable String id, @RequestParam Optional<Integer> width) {
+        return LocationMapper.toLocationDto(locationService.getLocationById(id).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Id not valid!")), width.orElse(LocationMapper.ORIGINAL_WIDTH));
     }
 }
@@ -0,0 +1,23 @@
+package de.neuefische.flooooooooooorian.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class CursorPageDto<T> {
+    private List<T> items;
+    private String next;
+
+    public <R> CursorPageDto<R> map(Function<T, R> mapper) {
+        return new CursorPageDto<>(items.stream().map(mapper).collect(Collectors.toList()), next);
+    }
+}
@@ -0,0 +1,17 @@
+package de.neuefische.flooooooooooorian.backend.dto.location;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class LocationClusterDto {
+    private double lat;
+    private double lng;
+    private int count;
+    private String representativeId;
+}
@@ -3,6 +3,7 @@ package de.neuefische.flooooooooooorian.backend.dto.location;
 import de.neuefische.flooooooooooorian.backend.dto.PictureDto;
 import de.neuefische.flooooooooooorian.backend.dto.user.UserDto;
 import de.neuefische.flooooooooooorian.backend.model.Tag;
+import de.neuefische.flooooooooooorian.backend.model.ThumbnailState;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -16,12 +17,14 @@ import java.util.List;
 @NoArgsConstructor
 @Builder
 public class LocationDto {
+    private String id;
     private Instant creationDate;
     private UserDto owner;
     private double lat;
     private double lng;
     private String title;
     private PictureDto thumbnail;
+    private ThumbnailState thumbnailState;
     private String description;
     private List<String> pictures;
     private double rating;
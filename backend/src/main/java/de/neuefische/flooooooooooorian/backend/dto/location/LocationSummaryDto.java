@@ -0,0 +1,19 @@
+package de.neuefische.flooooooooooorian.backend.dto.location;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class LocationSummaryDto {
+    private String id;
+    private double lat;
+    private double lng;
+    private String title;
+    private double rating;
+    private String thumbnailUrl;
+}
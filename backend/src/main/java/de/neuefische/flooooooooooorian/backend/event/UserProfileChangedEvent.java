@@ -0,0 +1,11 @@
+package de.neuefische.flooooooooooorian.backend.event;
+
+import de.neuefische.flooooooooooorian.backend.model.OwnerSnapshot;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class UserProfileChangedEvent {
+    private OwnerSnapshot owner;
+}
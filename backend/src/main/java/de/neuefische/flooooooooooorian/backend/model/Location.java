@@ -1,11 +1,11 @@
 package de.neuefische.flooooooooooorian.backend.model;
 
-import de.neuefische.flooooooooooorian.backend.security.model.User;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
 import org.springframework.data.mongodb.core.mapping.DBRef;
 import org.springframework.data.mongodb.core.mapping.Document;
 
@@ -21,13 +21,16 @@ public class Location {
     @Id
     private String id;
     private Instant creationDate;
-    private User owner;
+    private OwnerSnapshot owner;
+    private String ownerId;
     private String g_placesId;
     private double lat;
     private double lng;
+    private GeoJsonPoint position;
     private String title;
     @DBRef
     private Picture thumbnail;
+    private ThumbnailState thumbnailState;
     private String description;
     private List<String> pictures;
     private double rating;
@@ -0,0 +1,31 @@
+package de.neuefische.flooooooooooorian.backend.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+@Document(collection = "email_outbox")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class OutboxEmail {
+
+    @Id
+    private String id;
+    private String to;
+    private String subject;
+    private String text;
+    private OutboxEmailStatus status;
+    private int attempts;
+    private Instant createdAt;
+    private Instant nextAttemptAt;
+    private Instant claimedAt;
+    private Instant sentAt;
+    private String lastError;
+}
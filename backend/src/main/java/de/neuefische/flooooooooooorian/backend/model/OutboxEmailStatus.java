@@ -0,0 +1,8 @@
+package de.neuefische.flooooooooooorian.backend.model;
+
+public enum OutboxEmailStatus {
+    PENDING,
+    SENDING,
+    SENT,
+    FAILED
+}
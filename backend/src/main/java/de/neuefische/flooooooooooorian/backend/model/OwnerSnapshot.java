@@ -0,0 +1,18 @@
+package de.neuefische.flooooooooooorian.backend.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OwnerSnapshot {
+    @Id
+    private String id;
+    private String full_name;
+    private String avatar_url;
+}
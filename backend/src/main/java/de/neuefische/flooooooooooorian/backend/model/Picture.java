@@ -10,6 +10,7 @@ import org.springframework.data.mongodb.core.mapping.DBRef;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.Instant;
+import java.util.List;
 
 @Data
 @NoArgsConstructor
@@ -20,7 +21,11 @@ public class Picture {
     @Id
     private String id;
     private String url;
+    private String contentHash;
     @DBRef
     private User owner;
     private Instant creationDate;
+    private Integer width;
+    private Integer height;
+    private List<PictureRendition> renditions;
 }
@@ -0,0 +1,17 @@
+package de.neuefische.flooooooooooorian.backend.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PictureRendition {
+    private int width;
+    private int height;
+    private String format;
+    private String url;
+}
@@ -0,0 +1,7 @@
+package de.neuefische.flooooooooooorian.backend.model;
+
+public enum ThumbnailState {
+    PENDING,
+    READY,
+    FAILED
+}
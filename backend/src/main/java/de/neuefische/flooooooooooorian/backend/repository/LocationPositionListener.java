@@ -0,0 +1,17 @@
+package de.neuefische.flooooooooooorian.backend.repository;
+
+import de.neuefische.flooooooooooorian.backend.model.Location;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertEvent;
+import org.springframework.stereotype.Component;
+
+@Component
+public class LocationPositionListener extends AbstractMongoEventListener<Location> {
+
+    @Override
+    public void onBeforeConvert(BeforeConvertEvent<Location> event) {
+        Location location = event.getSource();
+        location.setPosition(new GeoJsonPoint(location.getLng(), location.getLat()));
+    }
+}
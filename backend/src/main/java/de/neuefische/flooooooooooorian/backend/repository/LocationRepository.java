@@ -1,18 +1,30 @@
 package de.neuefische.flooooooooooorian.backend.repository;
 
 import de.neuefische.flooooooooooorian.backend.model.Location;
-import de.neuefische.flooooooooooorian.backend.security.model.User;
+import de.neuefische.flooooooooooorian.backend.model.ThumbnailState;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.Point;
+import org.springframework.data.mongodb.core.geo.Sphere;
 import org.springframework.data.repository.PagingAndSortingRepository;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
 import java.util.List;
 
 @Repository
-public interface LocationRepository extends PagingAndSortingRepository<Location, String> {
+public interface LocationRepository extends PagingAndSortingRepository<Location, String>, LocationRepositoryCustom {
 
     List<Location> findAll();
-    List<Location> findAllByLatBetweenAndLngBetween(double lat, double lat2, double lng, double lng2);
+    List<Location> findAllBy(Pageable pageable);
+    List<Location> findAllByIdGreaterThan(String id, Pageable pageable);
 
-    List<Location> findAllByOwner(User owner);
+    List<Location> findAllByPositionNear(Point point, Distance maxDistance, Pageable pageable);
+    List<Location> findAllByPositionWithin(Sphere sphere, Pageable pageable);
+    List<Location> findAllByPositionWithinAndIdGreaterThan(Sphere sphere, String id, Pageable pageable);
+
+    List<Location> findByOwnerId(String ownerId, Pageable pageable);
+    List<Location> findByThumbnailStateAndCreationDateBefore(ThumbnailState thumbnailState, Instant creationDate, Pageable pageable);
+    long countByOwnerId(String ownerId);
     Location findById();
 }
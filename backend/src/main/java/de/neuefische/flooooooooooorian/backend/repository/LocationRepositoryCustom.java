@@ -0,0 +1,27 @@
+package de.neuefische.flooooooooooorian.backend.repository;
+
+import de.neuefische.flooooooooooorian.backend.dto.location.LocationClusterDto;
+import de.neuefische.flooooooooooorian.backend.dto.location.LocationSummaryDto;
+import de.neuefische.flooooooooooorian.backend.model.Location;
+import de.neuefische.flooooooooooorian.backend.model.OwnerSnapshot;
+import de.neuefische.flooooooooooorian.backend.model.Picture;
+import de.neuefische.flooooooooooorian.backend.model.ThumbnailState;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.util.List;
+
+public interface LocationRepositoryCustom {
+
+    List<LocationClusterDto> findClustersWithin(Criteria criteria, double cellSize);
+
+    List<Location> findLocations(Criteria criteria, Pageable pageable);
+
+    List<LocationSummaryDto> findSummaries(Criteria criteria, Pageable pageable);
+
+    long updateOwnerSnapshots(OwnerSnapshot owner);
+
+    boolean updateThumbnail(String locationId, Picture thumbnail, ThumbnailState thumbnailState);
+
+    boolean addPictures(String locationId, List<String> pictureUrls);
+}
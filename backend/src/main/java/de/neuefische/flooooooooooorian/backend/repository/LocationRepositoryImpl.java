@@ -0,0 +1,131 @@
+package de.neuefische.flooooooooooorian.backend.repository;
+
+import com.mongodb.DBRef;
+import de.neuefische.flooooooooooorian.backend.dto.location.LocationClusterDto;
+import de.neuefische.flooooooooooorian.backend.dto.location.LocationSummaryDto;
+import de.neuefische.flooooooooooorian.backend.model.Location;
+import de.neuefische.flooooooooooorian.backend.model.OwnerSnapshot;
+import de.neuefische.flooooooooooorian.backend.model.Picture;
+import de.neuefische.flooooooooooorian.backend.model.ThumbnailState;
+import de.neuefische.flooooooooooorian.backend.utils.LocationMapper;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+public class LocationRepositoryImpl implements LocationRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Autowired
+    public LocationRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public List<LocationClusterDto> findClustersWithin(Criteria criteria, double cellSize) {
+        AggregationOperation groupByCell = context -> new Document("$group",
+                new Document("_id", new Document("x", "$cellX").append("y", "$cellY"))
+                        .append("count", new Document("$sum", 1))
+                        .append("lat", new Document("$avg", "$lat"))
+                        .append("lng", new Document("$avg", "$lng"))
+                        .append("top", new Document("$max", new Document("rating", "$rating").append("id", "$_id"))));
+
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(criteria),
+                Aggregation.project("lat", "lng", "rating")
+                        .and(ArithmeticOperators.Floor.floorValueOf(ArithmeticOperators.Divide.valueOf("lng").divideBy(cellSize))).as("cellX")
+                        .and(ArithmeticOperators.Floor.floorValueOf(ArithmeticOperators.Divide.valueOf("lat").divideBy(cellSize))).as("cellY"),
+                groupByCell
+        ).withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+
+        return mongoTemplate.aggregate(aggregation, Location.class, Document.class).getMappedResults().stream()
+                .map(cluster -> LocationClusterDto.builder()
+                        .lat(cluster.getDouble("lat"))
+                        .lng(cluster.getDouble("lng"))
+                        .count(cluster.getInteger("count"))
+                        .representativeId(cluster.get("top", Document.class).get("id").toString())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Location> findLocations(Criteria criteria, Pageable pageable) {
+        return mongoTemplate.find(Query.query(criteria).with(pageable), Location.class);
+    }
+
+    @Override
+    public List<LocationSummaryDto> findSummaries(Criteria criteria, Pageable pageable) {
+        Query query = Query.query(criteria).with(pageable);
+        query.fields().include("lat", "lng", "title", "rating", "thumbnail");
+        List<Document> locations = mongoTemplate.query(Location.class).as(Document.class).matching(query).all();
+
+        List<Object> thumbnailIds = locations.stream()
+                .map(location -> location.get("thumbnail", DBRef.class))
+                .filter(Objects::nonNull)
+                .map(DBRef::getId)
+                .collect(Collectors.toList());
+        Map<String, String> thumbnailUrls = new HashMap<>();
+        if (!thumbnailIds.isEmpty()) {
+            Query pictureQuery = Query.query(Criteria.where("id").in(thumbnailIds));
+            pictureQuery.fields().include("url", "renditions");
+            mongoTemplate.find(pictureQuery, Picture.class)
+                    .forEach(picture -> thumbnailUrls.put(picture.getId(), LocationMapper.urlForWidth(picture, LocationMapper.SUMMARY_THUMBNAIL_WIDTH)));
+        }
+
+        return locations.stream()
+                .map(location -> {
+                    DBRef thumbnail = location.get("thumbnail", DBRef.class);
+                    return LocationSummaryDto.builder()
+                            .id(location.get("_id").toString())
+                            .lat(toDouble(location.get("lat")))
+                            .lng(toDouble(location.get("lng")))
+                            .title(location.getString("title"))
+                            .rating(toDouble(location.get("rating")))
+                            .thumbnailUrl(thumbnail != null ? thumbnailUrls.get(thumbnail.getId().toString()) : null)
+                            .build();
+                })
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public long updateOwnerSnapshots(OwnerSnapshot owner) {
+        Update update = new Update()
+                .set("owner.full_name", owner.getFull_name())
+                .set("owner.avatar_url", owner.getAvatar_url());
+        return mongoTemplate.updateMulti(Query.query(Criteria.where("ownerId").is(owner.getId())), update, Location.class).getModifiedCount();
+    }
+
+    @Override
+    public boolean updateThumbnail(String locationId, Picture thumbnail, ThumbnailState thumbnailState) {
+        Update update = new Update().set("thumbnailState", thumbnailState);
+        if (thumbnail != null) {
+            update.set("thumbnail", thumbnail);
+        }
+        Query query = Query.query(Criteria.where("id").is(locationId).and("thumbnailState").is(ThumbnailState.PENDING));
+        return mongoTemplate.updateFirst(query, update, Location.class).getMatchedCount() > 0;
+    }
+
+    @Override
+    public boolean addPictures(String locationId, List<String> pictureUrls) {
+        Update update = new Update().push("pictures").each(pictureUrls.toArray());
+        return mongoTemplate.updateFirst(Query.query(Criteria.where("id").is(locationId)), update, Location.class).getMatchedCount() > 0;
+    }
+
+    private static double toDouble(Object value) {
+        return value instanceof Number ? ((Number) value).doubleValue() : 0;
+    }
+}
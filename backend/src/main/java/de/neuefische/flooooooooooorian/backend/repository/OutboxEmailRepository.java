@@ -0,0 +1,9 @@
+package de.neuefische.flooooooooooorian.backend.repository;
+
+import de.neuefische.flooooooooooorian.backend.model.OutboxEmail;
+import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OutboxEmailRepository extends PagingAndSortingRepository<OutboxEmail, String>, OutboxEmailRepositoryCustom {
+}
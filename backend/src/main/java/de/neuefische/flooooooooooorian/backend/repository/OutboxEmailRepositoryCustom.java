@@ -0,0 +1,11 @@
+package de.neuefische.flooooooooooorian.backend.repository;
+
+import de.neuefische.flooooooooooorian.backend.model.OutboxEmail;
+
+import java.time.Instant;
+import java.util.Optional;
+
+public interface OutboxEmailRepositoryCustom {
+
+    Optional<OutboxEmail> claimNext(Instant now, Instant staleClaimBefore);
+}
@@ -0,0 +1,36 @@
+package de.neuefische.flooooooooooorian.backend.repository;
+
+import de.neuefische.flooooooooooorian.backend.model.OutboxEmail;
+import de.neuefische.flooooooooooorian.backend.model.OutboxEmailStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+import java.util.Optional;
+
+public class OutboxEmailRepositoryImpl implements OutboxEmailRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Autowired
+    public OutboxEmailRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Optional<OutboxEmail> claimNext(Instant now, Instant staleClaimBefore) {
+        Query query = Query.query(new Criteria().orOperator(
+                        Criteria.where("status").is(OutboxEmailStatus.PENDING).and("nextAttemptAt").lte(now),
+                        Criteria.where("status").is(OutboxEmailStatus.SENDING).and("claimedAt").lt(staleClaimBefore)))
+                .with(Sort.by("nextAttemptAt"));
+        Update update = new Update()
+                .set("status", OutboxEmailStatus.SENDING)
+                .set("claimedAt", now);
+        return Optional.ofNullable(mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), OutboxEmail.class));
+    }
+}
@@ -4,7 +4,14 @@ import de.neuefische.flooooooooooorian.backend.model.Picture;
 import org.springframework.data.repository.PagingAndSortingRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
-public interface PictureRepository extends PagingAndSortingRepository<Picture, String> {
+public interface PictureRepository extends PagingAndSortingRepository<Picture, String>, PictureRepositoryCustom {
+
+    Optional<Picture> findByContentHash(String contentHash);
 
+    List<Picture> findAllByContentHashIn(Collection<String> contentHashes);
 }
@@ -0,0 +1,10 @@
+package de.neuefische.flooooooooooorian.backend.repository;
+
+import de.neuefische.flooooooooooorian.backend.model.Picture;
+
+import java.util.List;
+
+public interface PictureRepositoryCustom {
+
+    List<Picture> insertAll(List<Picture> pictures);
+}
@@ -3,6 +3,7 @@ package de.neuefische.flooooooooooorian.backend.security.config;
 import de.neuefische.flooooooooooorian.backend.security.filter.JwtAuthFilter;
 import de.neuefische.flooooooooooorian.backend.security.service.UserSecurityService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -11,7 +12,6 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
@@ -33,8 +33,8 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder(){
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${security.password.bcrypt-strength:10}") int strength){
+        return new CostAwareBCryptPasswordEncoder(strength);
     }
 
     @Override
@@ -42,7 +42,10 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
         http.csrf().disable().authorizeRequests()
                 .mvcMatchers("/api/admin/**").hasAuthority("Staff")
                 .mvcMatchers(HttpMethod.POST, "/api/location").authenticated()
+                .mvcMatchers(HttpMethod.POST, "/api/location/{id}/pictures").authenticated()
                 .mvcMatchers( "/user/profile").authenticated()
+                .mvcMatchers("/actuator/health").permitAll()
+                .mvcMatchers("/actuator/**").hasAuthority("Staff")
                 .mvcMatchers("/**").permitAll()
                 .and().addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
                 .sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS);
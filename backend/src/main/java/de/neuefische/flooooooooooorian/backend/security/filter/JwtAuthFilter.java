@@ -1,7 +1,8 @@
 package de.neuefische.flooooooooooorian.backend.security.filter;
 
-import de.neuefische.flooooooooooorian.backend.security.model.User;
+import de.neuefische.flooooooooooorian.backend.security.model.AuthenticatedPrincipal;
 import de.neuefische.flooooooooooorian.backend.security.service.JwtUtilsService;
+import de.neuefische.flooooooooooorian.backend.security.service.TokenRevocationService;
 import de.neuefische.flooooooooooorian.backend.security.service.UserSecurityService;
 import io.jsonwebtoken.Claims;
 import org.springframework.http.HttpStatus;
@@ -25,10 +26,12 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
     private final JwtUtilsService jwtUtilsService;
     private final UserSecurityService userSecurityService;
+    private final TokenRevocationService tokenRevocationService;
 
-    public JwtAuthFilter(JwtUtilsService jwtUtilsService, UserSecurityService userSecurityService) {
+    public JwtAuthFilter(JwtUtilsService jwtUtilsService, UserSecurityService userSecurityService, TokenRevocationService tokenRevocationService) {
         this.jwtUtilsService = jwtUtilsService;
         this.userSecurityService = userSecurityService;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     @Override
@@ -38,7 +41,11 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         if (token != null && !token.isBlank()) {
             try {
                 Claims claims = this.jwtUtilsService.parseClaim(token);
-                setSecurityContext(claims.getSubject());
+                if (claims.get(JwtUtilsService.ROLE_CLAIM) != null) {
+                    setSecurityContext(claims);
+                } else {
+                    setSecurityContext(claims.getSubject());
+                }
             }
             catch (Exception e) {
                 throw new ResponseStatusException(HttpStatus.FORBIDDEN, "invalid token");
@@ -47,11 +54,21 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    private void setSecurityContext(Claims claims) {
+        Number tokenVersion = claims.get(JwtUtilsService.VERSION_CLAIM, Number.class);
+        if (tokenRevocationService.isRevoked(claims.get(JwtUtilsService.USER_ID_CLAIM, String.class), tokenVersion != null ? tokenVersion.longValue() : 0)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "token revoked");
+        }
+
+        UsernamePasswordAuthenticationToken token = new UsernamePasswordAuthenticationToken(claims.getSubject(), "", List.of(new SimpleGrantedAuthority(claims.get(JwtUtilsService.ROLE_CLAIM, String.class))));
+        SecurityContextHolder.getContext().setAuthentication(token);
+    }
+
     private void setSecurityContext(String subject) {
-        Optional<User> userOptional = userSecurityService.findUserByEmail(subject);
-        User user = userOptional.orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST));
+        Optional<AuthenticatedPrincipal> principalOptional = userSecurityService.findPrincipalByEmail(subject);
+        AuthenticatedPrincipal principal = principalOptional.orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST));
 
-        UsernamePasswordAuthenticationToken token = new UsernamePasswordAuthenticationToken(user.getEmail(), "", List.of(new SimpleGrantedAuthority(user.getRole())));
+        UsernamePasswordAuthenticationToken token = new UsernamePasswordAuthenticationToken(principal.getEmail(), "", List.of(new SimpleGrantedAuthority(principal.getRole())));
         SecurityContextHolder.getContext().setAuthentication(token);
     }
 
@@ -0,0 +1,17 @@
+package de.neuefische.flooooooooooorian.backend.security.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class AuthenticatedPrincipal {
+    private String id;
+    private String email;
+    private String role;
+    private boolean enabled;
+}
@@ -8,6 +8,8 @@ import java.util.Objects;
 
 public class CustomUserDetails extends User {
     private String full_name;
+    private String id;
+    private long tokenVersion;
 
     public CustomUserDetails(String full_name, String username, String password, Collection<? extends GrantedAuthority> authorities) {
         super(username, password, authorities);
@@ -27,18 +29,34 @@ public class CustomUserDetails extends User {
         return this.full_name;
     }
 
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getId() {
+        return this.id;
+    }
+
+    public void setTokenVersion(long tokenVersion) {
+        this.tokenVersion = tokenVersion;
+    }
+
+    public long getTokenVersion() {
+        return this.tokenVersion;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         if (!super.equals(o)) return false;
         CustomUserDetails that = (CustomUserDetails) o;
-        return Objects.equals(full_name, that.full_name);
+        return tokenVersion == that.tokenVersion && Objects.equals(full_name, that.full_name) && Objects.equals(id, that.id);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(super.hashCode(), full_name);
+        return Objects.hash(super.hashCode(), full_name, id, tokenVersion);
     }
 }
 
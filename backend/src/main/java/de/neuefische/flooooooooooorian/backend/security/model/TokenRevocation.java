@@ -0,0 +1,23 @@
+package de.neuefische.flooooooooooorian.backend.security.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+@Document(collection = "token_revocations")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class TokenRevocation {
+
+    @Id
+    private String userId;
+    private long minimumVersion;
+    private Instant revokedAt;
+}
@@ -27,6 +27,7 @@ public class User {
 
     private String role;
     private boolean enabled;
+    private long tokenVersion;
 
     private String google_access_token;
     private String google_refresh_token;
@@ -0,0 +1,14 @@
+package de.neuefische.flooooooooooorian.backend.security.repository;
+
+import de.neuefische.flooooooooooorian.backend.security.model.TokenRevocation;
+import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface TokenRevocationRepository extends PagingAndSortingRepository<TokenRevocation, String> {
+
+    List<TokenRevocation> findAllByRevokedAtAfter(Instant revokedAt);
+}
@@ -1,9 +1,11 @@
 package de.neuefische.flooooooooooorian.backend.security.repository;
 
 import de.neuefische.flooooooooooorian.backend.security.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.repository.PagingAndSortingRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -11,4 +13,7 @@ public interface UserRepository extends PagingAndSortingRepository<User, String>
 
     boolean existsUserByEmail(String email);
     Optional<User> findUserByEmail(String email);
+
+    List<User> findAllBy(Pageable pageable);
+    List<User> findAllByIdGreaterThan(String id, Pageable pageable);
 }
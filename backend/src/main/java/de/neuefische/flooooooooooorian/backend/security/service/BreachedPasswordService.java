@@ -0,0 +1,123 @@
+package de.neuefische.flooooooooooorian.backend.security.service;
+
+import de.neuefische.flooooooooooorian.backend.utils.MappedBloomFilter;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+@Service
+public class BreachedPasswordService implements InitializingBean, DisposableBean {
+
+    public static final String HASH_ALGORITHM = "SHA-1";
+    private static final int HASH_HEX_LENGTH = 40;
+
+    private final String filterPath;
+    private final String sourcePath;
+    private final long expectedEntries;
+    private final double falsePositiveRate;
+    private volatile MappedBloomFilter filter;
+
+    @Autowired
+    public BreachedPasswordService(@Value("${security.password.breached.filter:}") String filterPath,
+                                   @Value("${security.password.breached.source:}") String sourcePath,
+                                   @Value("${security.password.breached.expected-entries:0}") long expectedEntries,
+                                   @Value("${security.password.breached.false-positive-rate:0.001}") double falsePositiveRate) {
+        this.filterPath = filterPath;
+        this.sourcePath = sourcePath;
+        this.expectedEntries = expectedEntries;
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws IOException {
+        if (filterPath.isBlank()) {
+            return;
+        }
+        Path filterFile = Path.of(filterPath);
+        if (Files.notExists(filterFile) && !sourcePath.isBlank()) {
+            build(Path.of(sourcePath), filterFile, expectedEntries, falsePositiveRate);
+        }
+        if (Files.exists(filterFile)) {
+            filter = MappedBloomFilter.open(filterFile);
+        }
+    }
+
+    public boolean isEnabled() {
+        return filter != null;
+    }
+
+    public boolean isBreached(String password) {
+        MappedBloomFilter current = filter;
+        return current != null && password != null && current.mightContain(newDigest().digest(password.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    public static void build(Path source, Path target, long expectedEntries, double falsePositiveRate) throws IOException {
+        long entries = expectedEntries > 0 ? expectedEntries : countLines(source);
+        Path temp = Files.createTempFile(target.toAbsolutePath().getParent(), "breached-", ".tmp");
+        try (MappedBloomFilter bloomFilter = MappedBloomFilter.create(temp, entries, falsePositiveRate);
+             BufferedReader reader = Files.newBufferedReader(source, StandardCharsets.US_ASCII)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                byte[] hash = parseHash(line);
+                if (hash != null) {
+                    bloomFilter.put(hash);
+                }
+            }
+            bloomFilter.force();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        MappedBloomFilter current = filter;
+        filter = null;
+        if (current != null) {
+            current.close();
+        }
+    }
+
+    private static byte[] parseHash(String line) {
+        if (line.length() < HASH_HEX_LENGTH) {
+            return null;
+        }
+        byte[] hash = new byte[HASH_HEX_LENGTH / 2];
+        for (int i = 0; i < hash.length; i++) {
+            int high = Character.digit(line.charAt(2 * i), 16);
+            int low = Character.digit(line.charAt(2 * i + 1), 16);
+            if (high < 0 || low < 0) {
+                return null;
+            }
+            hash[i] = (byte) ((high << 4) | low);
+        }
+        return hash;
+    }
+
+    private static long countLines(Path source) throws IOException {
+        try (var lines = Files.lines(source, StandardCharsets.US_ASCII)) {
+            return lines.count();
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(HASH_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
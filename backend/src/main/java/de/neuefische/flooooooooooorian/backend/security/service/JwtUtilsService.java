@@ -2,32 +2,79 @@ package de.neuefische.flooooooooooorian.backend.security.service;
 
 import de.neuefische.flooooooooooorian.backend.security.model.User;
 import io.jsonwebtoken.*;
+import io.jsonwebtoken.impl.TextCodec;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import javax.crypto.spec.SecretKeySpec;
+import java.security.Key;
 import java.time.Duration;
 import java.time.Instant;
-import java.util.Date;
-import java.util.HashMap;
+import java.util.*;
 
 @Service
 public class JwtUtilsService {
-    @Value("${jwt.secret:}")
-    private String secret;
 
-    public String createToken(HashMap<String, Object> claims, String subject) {
+    public static final String NAME_CLAIM = "name";
+    public static final String ROLE_CLAIM = "role";
+    public static final String USER_ID_CLAIM = "uid";
+    public static final String VERSION_CLAIM = "ver";
+    public static final Duration TOKEN_LIFETIME = Duration.ofDays(1);
+    public static final SignatureAlgorithm SIGNATURE_ALGORITHM = SignatureAlgorithm.HS256;
+
+    private final String activeKeyId;
+    private final Key signingKey;
+    private final Map<String, Key> verificationKeys;
+    private final JwtParser parser;
+
+    @Autowired
+    public JwtUtilsService(@Value("${jwt.secret:}") String secret,
+                           @Value("${jwt.key-id:primary}") String activeKeyId,
+                           @Value("${jwt.verification-keys:}") List<String> verificationKeys) {
+        this.activeKeyId = activeKeyId;
+        this.signingKey = toKey(secret);
 
+        Map<String, Key> keys = new HashMap<>();
+        for (String entry : verificationKeys) {
+            int separator = entry.indexOf(':');
+            if (separator <= 0) {
+                continue;
+            }
+            Key key = toKey(entry.substring(separator + 1).trim());
+            if (key != null) {
+                keys.put(entry.substring(0, separator).trim(), key);
+            }
+        }
+        if (signingKey != null) {
+            keys.put(activeKeyId, signingKey);
+        }
+        this.verificationKeys = Collections.unmodifiableMap(keys);
+        this.parser = Jwts.parser().setSigningKeyResolver(new SigningKeyResolverAdapter() {
+            @Override
+            public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                return resolveKey(header.getKeyId());
+            }
+        });
+    }
+
+    public String createToken(HashMap<String, Object> claims, String subject) {
+        if (signingKey == null) {
+            throw new IllegalStateException("jwt.secret is not configured");
+        }
+        Instant now = Instant.now();
         return Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, activeKeyId)
                 .addClaims(claims)
                 .setSubject(subject)
-                .setIssuedAt(Date.from(Instant.now()))
-                .setExpiration(Date.from(Instant.now().plus(Duration.ofDays(1))))
-                .signWith(SignatureAlgorithm.HS256, secret)
+                .setIssuedAt(Date.from(now))
+                .setExpiration(Date.from(now.plus(TOKEN_LIFETIME)))
+                .signWith(SIGNATURE_ALGORITHM, signingKey)
                 .compact();
     }
 
     public Claims parseClaim(String token) {
-        return Jwts.parser().setSigningKey(secret).parseClaimsJws(token).getBody();
+        return parser.parseClaimsJws(token).getBody();
     }
 
     public String createPasswordResetToken(HashMap<String, Object> claims, User user) {
@@ -52,4 +99,19 @@ public class JwtUtilsService {
 
         return Jwts.parser().setSigningKey(key).parseClaimsJws(token).getBody();
     }
+
+    private Key resolveKey(String keyId) {
+        Key key = keyId == null ? signingKey : verificationKeys.get(keyId);
+        if (key == null) {
+            throw new SignatureException("Unknown signing key: " + keyId);
+        }
+        return key;
+    }
+
+    private static Key toKey(String secret) {
+        if (secret == null || secret.isBlank()) {
+            return null;
+        }
+        return new SecretKeySpec(TextCodec.BASE64.decode(secret), SIGNATURE_ALGORITHM.getJcaName());
+    }
 }
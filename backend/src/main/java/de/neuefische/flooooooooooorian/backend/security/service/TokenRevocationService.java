@@ -0,0 +1,65 @@
+package de.neuefische.flooooooooooorian.backend.security.service;
+
+import de.neuefische.flooooooooooorian.backend.security.model.TokenRevocation;
+import de.neuefische.flooooooooooorian.backend.security.model.User;
+import de.neuefische.flooooooooooorian.backend.security.repository.TokenRevocationRepository;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+public class TokenRevocationService implements InitializingBean {
+
+    public static final Duration REFRESH_OVERLAP = Duration.ofSeconds(5);
+
+    private final TokenRevocationRepository tokenRevocationRepository;
+    private final Map<String, TokenRevocation> revocations = new ConcurrentHashMap<>();
+    private volatile Instant lastRefresh = Instant.EPOCH;
+
+    @Autowired
+    public TokenRevocationService(TokenRevocationRepository tokenRevocationRepository) {
+        this.tokenRevocationRepository = tokenRevocationRepository;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        refresh();
+    }
+
+    @Scheduled(fixedDelayString = "${security.revocation.refresh-interval:30000}")
+    public void refresh() {
+        Instant now = Instant.now();
+        Instant since = lastRefresh.equals(Instant.EPOCH) ? now.minus(JwtUtilsService.TOKEN_LIFETIME) : lastRefresh.minus(REFRESH_OVERLAP);
+        tokenRevocationRepository.findAllByRevokedAtAfter(since).forEach(this::remember);
+        revocations.values().removeIf(revocation -> revocation.getRevokedAt().isBefore(now.minus(JwtUtilsService.TOKEN_LIFETIME)));
+        lastRefresh = now;
+    }
+
+    public boolean isRevoked(String userId, long tokenVersion) {
+        if (userId == null) {
+            return false;
+        }
+        TokenRevocation revocation = revocations.get(userId);
+        return revocation != null && tokenVersion < revocation.getMinimumVersion();
+    }
+
+    public void revoke(User user) {
+        TokenRevocation revocation = TokenRevocation.builder()
+                .userId(user.getId())
+                .minimumVersion(user.getTokenVersion())
+                .revokedAt(Instant.now())
+                .build();
+        remember(revocation);
+        tokenRevocationRepository.save(revocation);
+    }
+
+    private void remember(TokenRevocation revocation) {
+        revocations.merge(revocation.getUserId(), revocation, (current, update) -> update.getMinimumVersion() >= current.getMinimumVersion() ? update : current);
+    }
+}
@@ -1,11 +1,15 @@
 package de.neuefische.flooooooooooorian.backend.security.service;
 
+import de.neuefische.flooooooooooorian.backend.security.model.AuthenticatedPrincipal;
 import de.neuefische.flooooooooooorian.backend.security.model.CustomUserDetails;
 import de.neuefische.flooooooooooorian.backend.security.model.User;
 import de.neuefische.flooooooooooorian.backend.security.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -14,23 +18,64 @@ import java.util.List;
 import java.util.Optional;
 
 @Service
-public class UserSecurityService implements UserDetailsService {
+public class UserSecurityService implements UserDetailsService, UserDetailsPasswordService {
+
+    public static final String PRINCIPAL_CACHE = "principals";
 
     private final UserRepository userRepository;
+    private final Cache principalCache;
 
     @Autowired
-    public UserSecurityService(UserRepository userRepository) {
+    public UserSecurityService(UserRepository userRepository, CacheManager cacheManager) {
         this.userRepository = userRepository;
+        this.principalCache = cacheManager.getCache(PRINCIPAL_CACHE);
     }
 
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
         return userRepository.findUserByEmail(email)
-                .map(user -> new CustomUserDetails(user.getFull_name(), user.getEmail(), user.getPassword(), user.isEnabled(), true, true, true, List.of(new SimpleGrantedAuthority(user.getRole()))))
+                .map(UserSecurityService::toUserDetails)
                 .orElseThrow(() -> new UsernameNotFoundException("User does not exist!"));
     }
 
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        return userRepository.findUserByEmail(userDetails.getUsername())
+                .<UserDetails>map(user -> {
+                    user.setPassword(newPassword);
+                    return toUserDetails(userRepository.save(user));
+                })
+                .orElse(userDetails);
+    }
+
     public Optional<User> findUserByEmail(String email) {
         return userRepository.findUserByEmail(email);
     }
+
+    public Optional<AuthenticatedPrincipal> findPrincipalByEmail(String email) {
+        AuthenticatedPrincipal cached = principalCache.get(email, AuthenticatedPrincipal.class);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<AuthenticatedPrincipal> principal = userRepository.findUserByEmail(email)
+                .map(user -> AuthenticatedPrincipal.builder()
+                        .id(user.getId())
+                        .email(user.getEmail())
+                        .role(user.getRole())
+                        .enabled(user.isEnabled())
+                        .build());
+        principal.ifPresent(found -> principalCache.put(email, found));
+        return principal;
+    }
+
+    public void evictPrincipal(String email) {
+        principalCache.evict(email);
+    }
+
+    private static CustomUserDetails toUserDetails(User user) {
+        CustomUserDetails userDetails = new CustomUserDetails(user.getFull_name(), user.getEmail(), user.getPassword(), user.isEnabled(), true, true, true, List.of(new SimpleGrantedAuthority(user.getRole())));
+        userDetails.setId(user.getId());
+        userDetails.setTokenVersion(user.getTokenVersion());
+        return userDetails;
+    }
 }
@@ -0,0 +1,28 @@
+package de.neuefische.flooooooooooorian.backend.security.validation;
+
+import de.neuefische.flooooooooooorian.backend.security.service.BreachedPasswordService;
+import org.passay.PasswordData;
+import org.passay.Rule;
+import org.passay.RuleResult;
+
+import java.util.Map;
+
+public class BreachedPasswordRule implements Rule {
+
+    public static final String ERROR_CODE = "BREACHED_PASSWORD";
+
+    private final BreachedPasswordService breachedPasswordService;
+
+    public BreachedPasswordRule(BreachedPasswordService breachedPasswordService) {
+        this.breachedPasswordService = breachedPasswordService;
+    }
+
+    @Override
+    public RuleResult validate(PasswordData passwordData) {
+        RuleResult result = new RuleResult(true);
+        if (breachedPasswordService.isBreached(passwordData.getPassword())) {
+            result.addError(ERROR_CODE, Map.of());
+        }
+        return result;
+    }
+}
@@ -1,29 +1,52 @@
 package de.neuefische.flooooooooooorian.backend.security.validation;
 
+import de.neuefische.flooooooooooorian.backend.security.service.BreachedPasswordService;
 import org.passay.*;
+import org.springframework.beans.factory.annotation.Autowired;
 
 import javax.validation.ConstraintValidator;
 import javax.validation.ConstraintValidatorContext;
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Properties;
 
 
 public class PasswordConstraintValidator implements ConstraintValidator<ValidPassword, String> {
 
+    private static final List<Rule> POLICY_RULES = List.of(
+            new LengthRule(8, 128),
+            new CharacterRule(EnglishCharacterData.UpperCase, 1),
+            new CharacterRule(EnglishCharacterData.LowerCase, 1),
+            new CharacterRule(EnglishCharacterData.Digit, 1),
+            new CharacterRule(EnglishCharacterData.Special, 1),
+            new WhitespaceRule()
+    );
+    private static final MessageResolver MESSAGE_RESOLVER = messageResolver();
+    private static final PasswordValidator POLICY = new PasswordValidator(MESSAGE_RESOLVER, POLICY_RULES);
+
+    private final PasswordValidator validator;
+
+    public PasswordConstraintValidator() {
+        this.validator = POLICY;
+    }
+
+    @Autowired
+    public PasswordConstraintValidator(BreachedPasswordService breachedPasswordService) {
+        if (breachedPasswordService.isEnabled()) {
+            List<Rule> rules = new ArrayList<>(POLICY_RULES);
+            rules.add(new BreachedPasswordRule(breachedPasswordService));
+            this.validator = new PasswordValidator(MESSAGE_RESOLVER, rules);
+        } else {
+            this.validator = POLICY;
+        }
+    }
+
     @Override
     public void initialize(ValidPassword arg0) {
     }
 
     @Override
     public boolean isValid(String password, ConstraintValidatorContext context) {
-        PasswordValidator validator = new PasswordValidator(Arrays.asList(
-                new LengthRule(8, 128),
-                new CharacterRule(EnglishCharacterData.UpperCase, 1),
-                new CharacterRule(EnglishCharacterData.LowerCase, 1),
-                new CharacterRule(EnglishCharacterData.Digit, 1),
-                new CharacterRule(EnglishCharacterData.Special, 1),
-                new WhitespaceRule()
-        ));
         RuleResult result = validator.validate(new PasswordData(password));
         if (result.isValid()) {
             return true;
@@ -36,4 +59,10 @@ public class PasswordConstraintValidator implements ConstraintValidator<ValidPas
                 .disableDefaultConstraintViolation();
         return false;
     }
+
+    private static MessageResolver messageResolver() {
+        Properties messages = PropertiesMessageResolver.getDefaultProperties();
+        messages.setProperty(BreachedPasswordRule.ERROR_CODE, "Password has appeared in a data breach, choose a different one.");
+        return new PropertiesMessageResolver(messages);
+    }
 }
@@ -0,0 +1,44 @@
+package de.neuefische.flooooooooooorian.backend.service;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import de.neuefische.flooooooooooorian.backend.dto.admin.CacheStatsDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+@Service
+public class CacheStatsService {
+
+    private final CacheManager cacheManager;
+
+    @Autowired
+    public CacheStatsService(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    public List<CacheStatsDto> getCacheStats() {
+        return cacheManager.getCacheNames().stream()
+                .map(cacheManager::getCache)
+                .filter(Objects::nonNull)
+                .filter(cache -> cache instanceof CaffeineCache)
+                .map(cache -> {
+                    com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache = ((CaffeineCache) cache).getNativeCache();
+                    CacheStats stats = nativeCache.stats();
+                    return CacheStatsDto.builder()
+                            .name(cache.getName())
+                            .size(nativeCache.estimatedSize())
+                            .hitCount(stats.hitCount())
+                            .missCount(stats.missCount())
+                            .evictionCount(stats.evictionCount())
+                            .hitRate(stats.hitRate())
+                            .build();
+                })
+                .sorted((a, b) -> a.getName().compareTo(b.getName()))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,93 @@
+package de.neuefische.flooooooooooorian.backend.service;
+
+import com.cloudinary.Cloudinary;
+import de.neuefische.flooooooooooorian.backend.model.Picture;
+import de.neuefische.flooooooooooorian.backend.model.PictureRendition;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+@Service
+@ConditionalOnProperty(name = "picture.storage.type", havingValue = "cloudinary", matchIfMissing = true)
+public class CloudinaryPictureStorage implements PictureStorage {
+
+    private static final Map<String, Object> UPLOAD_OPTIONS = Map.of("resource_type", "image");
+    private static final Map<String, Object> DESTROY_OPTIONS = Map.of("resource_type", "image", "invalidate", true);
+    private static final String UPLOAD_PATH = "/image/upload/";
+    private static final String AUTO_FORMAT = "auto";
+
+    private final Cloudinary cloudinary = new Cloudinary();
+    private final int chunkSize;
+
+    @Autowired
+    public CloudinaryPictureStorage(@Value("${cloudinary.upload.chunk-size:5MB}") DataSize chunkSize) {
+        this.chunkSize = (int) chunkSize.toBytes();
+    }
+
+    @Override
+    @Timed(value = PictureStorage.STORE_TIMER, extraTags = {"storage", "cloudinary"}, histogram = true)
+    public Picture store(MultipartFile image) throws IOException {
+        if (image.getSize() <= chunkSize) {
+            return store(image.getBytes());
+        }
+        try (InputStream inputStream = image.getInputStream()) {
+            return toPicture(cloudinary.uploader().uploadLarge(inputStream, UPLOAD_OPTIONS, chunkSize));
+        }
+    }
+
+    @Override
+    @Timed(value = PictureStorage.STORE_TIMER, extraTags = {"storage", "cloudinary"}, histogram = true)
+    public Picture store(byte[] image) throws IOException {
+        return toPicture(cloudinary.uploader().upload(image, UPLOAD_OPTIONS));
+    }
+
+    @Override
+    public void delete(Picture picture) throws IOException {
+        cloudinary.uploader().destroy(picture.getId(), DESTROY_OPTIONS);
+    }
+
+    @Override
+    public Optional<List<PictureRendition>> transformedRenditions(Picture picture, List<Integer> widths) {
+        if (picture.getWidth() == null || picture.getHeight() == null || !picture.getUrl().contains(UPLOAD_PATH)) {
+            return Optional.empty();
+        }
+        int originalWidth = picture.getWidth();
+        int originalHeight = picture.getHeight();
+        return Optional.of(widths.stream()
+                .filter(width -> width < originalWidth)
+                .sorted()
+                .map(width -> PictureRendition.builder()
+                        .width(width)
+                        .height(Math.max(1, Math.round((float) originalHeight * width / originalWidth)))
+                        .format(AUTO_FORMAT)
+                        .url(picture.getUrl().replaceFirst(UPLOAD_PATH, UPLOAD_PATH + "w_" + width + ",c_scale,f_" + AUTO_FORMAT + "/"))
+                        .build())
+                .collect(Collectors.toList()));
+    }
+
+    private static Picture toPicture(Map response) {
+        String url = response.get("url").toString();
+        String public_id = response.get("public_id").toString();
+        return Picture.builder()
+                .id(public_id)
+                .url(url)
+                .width(dimension(response.get("width")))
+                .height(dimension(response.get("height")))
+                .build();
+    }
+
+    private static Integer dimension(Object value) {
+        return value instanceof Number ? ((Number) value).intValue() : null;
+    }
+}
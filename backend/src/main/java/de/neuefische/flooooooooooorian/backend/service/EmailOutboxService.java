@@ -0,0 +1,153 @@
+package de.neuefische.flooooooooooorian.backend.service;
+
+import de.neuefische.flooooooooooorian.backend.model.OutboxEmail;
+import de.neuefische.flooooooooooorian.backend.model.OutboxEmailStatus;
+import de.neuefische.flooooooooooorian.backend.repository.OutboxEmailRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+@Service
+public class EmailOutboxService {
+
+    private final OutboxEmailRepository outboxEmailRepository;
+    private final JavaMailSender javaMailSender;
+    private final String from;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration backoff;
+    private final Duration maxBackoff;
+    private final Duration claimLease;
+    private final Timer sendTimer;
+    private final Counter sentCounter;
+    private final Counter failedCounter;
+
+    @Autowired
+    public EmailOutboxService(OutboxEmailRepository outboxEmailRepository,
+                              JavaMailSender javaMailSender,
+                              MeterRegistry meterRegistry,
+                              @Value("${email.from:info.photohunter@gmail.com}") String from,
+                              @Value("${email.outbox.batch-size:50}") int batchSize,
+                              @Value("${email.outbox.max-attempts:8}") int maxAttempts,
+                              @Value("${email.outbox.backoff:30s}") Duration backoff,
+                              @Value("${email.outbox.max-backoff:1h}") Duration maxBackoff,
+                              @Value("${email.outbox.claim-lease:5m}") Duration claimLease) {
+        this.outboxEmailRepository = outboxEmailRepository;
+        this.javaMailSender = javaMailSender;
+        this.from = from;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.backoff = backoff;
+        this.maxBackoff = maxBackoff;
+        this.claimLease = claimLease;
+        this.sendTimer = Timer.builder("email.smtp.send")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.sentCounter = meterRegistry.counter("email.outbox.delivered", "outcome", "sent");
+        this.failedCounter = meterRegistry.counter("email.outbox.delivered", "outcome", "failed");
+    }
+
+    public OutboxEmail enqueue(String to, String subject, String text) {
+        Instant now = Instant.now();
+        return outboxEmailRepository.save(OutboxEmail.builder()
+                .to(to)
+                .subject(subject)
+                .text(text)
+                .status(OutboxEmailStatus.PENDING)
+                .createdAt(now)
+                .nextAttemptAt(now)
+                .build());
+    }
+
+    @Scheduled(fixedDelayString = "${email.outbox.poll-interval:5000}")
+    public void dispatch() {
+        List<OutboxEmail> batch = claimBatch();
+        while (!batch.isEmpty()) {
+            send(batch);
+            if (batch.size() < batchSize) {
+                return;
+            }
+            batch = claimBatch();
+        }
+    }
+
+    private List<OutboxEmail> claimBatch() {
+        Instant now = Instant.now();
+        List<OutboxEmail> batch = new ArrayList<>();
+        while (batch.size() < batchSize) {
+            Optional<OutboxEmail> claimed = outboxEmailRepository.claimNext(now, now.minus(claimLease));
+            if (claimed.isEmpty()) {
+                break;
+            }
+            batch.add(claimed.get());
+        }
+        return batch;
+    }
+
+    private void send(List<OutboxEmail> batch) {
+        List<SimpleMailMessage> messages = new ArrayList<>();
+        batch.forEach(email -> messages.add(toMessage(email)));
+
+        Map<Object, Exception> failures = Map.of();
+        try {
+            sendTimer.record(() -> javaMailSender.send(messages.toArray(new SimpleMailMessage[0])));
+        } catch (MailSendException e) {
+            failures = e.getFailedMessages().isEmpty() ? allFailed(messages, e) : e.getFailedMessages();
+        } catch (MailException e) {
+            failures = allFailed(messages, e);
+        }
+
+        Instant now = Instant.now();
+        for (int i = 0; i < batch.size(); i++) {
+            OutboxEmail email = batch.get(i);
+            Exception failure = failures.get(messages.get(i));
+            if (failure == null) {
+                email.setStatus(OutboxEmailStatus.SENT);
+                email.setSentAt(now);
+                email.setLastError(null);
+                sentCounter.increment();
+            } else {
+                email.setAttempts(email.getAttempts() + 1);
+                email.setLastError(failure.getMessage());
+                email.setStatus(email.getAttempts() >= maxAttempts ? OutboxEmailStatus.FAILED : OutboxEmailStatus.PENDING);
+                email.setNextAttemptAt(now.plus(backoffWithJitter(email.getAttempts())));
+                failedCounter.increment();
+            }
+            email.setClaimedAt(null);
+        }
+        outboxEmailRepository.saveAll(batch);
+    }
+
+    Duration backoffWithJitter(int attempts) {
+        long ceiling = Math.min(maxBackoff.toMillis(), backoff.toMillis() << Math.min(attempts - 1, 20));
+        return Duration.ofMillis(ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling / 2 + 1));
+    }
+
+    private SimpleMailMessage toMessage(OutboxEmail email) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setFrom(from);
+        message.setTo(email.getTo());
+        message.setSubject(email.getSubject());
+        message.setText(email.getText());
+        return message;
+    }
+
+    private static Map<Object, Exception> allFailed(Collection<SimpleMailMessage> messages, Exception e) {
+        Map<Object, Exception> failures = new HashMap<>();
+        messages.forEach(message -> failures.put(message, e));
+        return failures;
+    }
+}
@@ -38,8 +38,10 @@ public class GoogleLoginService {
         User google_user = getUserWithGoogleProfile(profile, googleAccessTokenDto);
 
         HashMap<String, Object> claims = new HashMap<>();
-        claims.put("name", google_user.getFull_name());
-        System.out.println(google_user);
+        claims.put(JwtUtilsService.NAME_CLAIM, google_user.getFull_name());
+        claims.put(JwtUtilsService.ROLE_CLAIM, google_user.getRole());
+        claims.put(JwtUtilsService.USER_ID_CLAIM, google_user.getId());
+        claims.put(JwtUtilsService.VERSION_CLAIM, google_user.getTokenVersion());
 
         return LoginJWTDto.builder()
                 .authorities(new String[]{google_user.getRole()})
@@ -0,0 +1,128 @@
+package de.neuefische.flooooooooooorian.backend.service;
+
+import de.neuefische.flooooooooooorian.backend.model.Picture;
+import de.neuefische.flooooooooooorian.backend.model.PictureRendition;
+import de.neuefische.flooooooooooorian.backend.utils.ContentHash;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLConnection;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.*;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@ConditionalOnProperty(name = "picture.storage.type", havingValue = "local")
+public class LocalPictureStorage implements PictureStorage {
+
+    private static final long TRANSFER_CHUNK = 1 << 20;
+    private static final String DEFAULT_EXTENSION = ".bin";
+    private static final Map<String, String> EXTENSIONS = Map.of(
+            "image/jpeg", ".jpg",
+            "image/png", ".png",
+            "image/gif", ".gif",
+            "image/bmp", ".bmp");
+
+    private final Path directory;
+    private final String baseUrl;
+
+    @Autowired
+    public LocalPictureStorage(@Value("${picture.storage.local.directory:pictures}") Path directory,
+                               @Value("${picture.storage.local.base-url:/pictures/}") String baseUrl) throws IOException {
+        this.directory = directory.toAbsolutePath().normalize();
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl : baseUrl + "/";
+        Files.createDirectories(this.directory);
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    @Override
+    @Timed(value = PictureStorage.STORE_TIMER, extraTags = {"storage", "local"}, histogram = true)
+    public Picture store(MultipartFile image) throws IOException {
+        try (InputStream inputStream = image.getInputStream()) {
+            return store(inputStream);
+        }
+    }
+
+    @Override
+    @Timed(value = PictureStorage.STORE_TIMER, extraTags = {"storage", "local"}, histogram = true)
+    public Picture store(byte[] image) throws IOException {
+        return store(new ByteArrayInputStream(image));
+    }
+
+    @Override
+    public void delete(Picture picture) throws IOException {
+        List<String> urls = new ArrayList<>();
+        urls.add(picture.getUrl());
+        if (picture.getRenditions() != null) {
+            picture.getRenditions().stream().map(PictureRendition::getUrl).forEach(urls::add);
+        }
+        for (String url : urls) {
+            if (url == null || !url.startsWith(baseUrl)) {
+                continue;
+            }
+            Path stored = directory.resolve(url.substring(baseUrl.length())).normalize();
+            if (stored.startsWith(directory)) {
+                Files.deleteIfExists(stored);
+            }
+        }
+    }
+
+    private Picture store(InputStream inputStream) throws IOException {
+        MessageDigest digest = ContentHash.newDigest();
+        Path upload = Files.createTempFile(directory, "upload-", ".tmp");
+        try {
+            try (FileChannel target = FileChannel.open(upload, StandardOpenOption.WRITE);
+                 ReadableByteChannel source = Channels.newChannel(new DigestInputStream(inputStream, digest))) {
+                long position = 0;
+                long transferred;
+                while ((transferred = target.transferFrom(source, position, TRANSFER_CHUNK)) > 0) {
+                    position += transferred;
+                }
+                target.force(false);
+            }
+
+            String hash = ContentHash.toHex(digest);
+            String relativePath = hash.substring(0, 2) + "/" + hash + extensionOf(upload);
+            Path stored = directory.resolve(relativePath);
+            if (Files.notExists(stored)) {
+                Files.createDirectories(stored.getParent());
+                try {
+                    Files.move(upload, stored, StandardCopyOption.ATOMIC_MOVE);
+                } catch (FileAlreadyExistsException e) {
+                    Files.deleteIfExists(upload);
+                }
+            }
+            return Picture.builder().id(hash).url(baseUrl + relativePath).contentHash(hash).build();
+        } finally {
+            Files.deleteIfExists(upload);
+        }
+    }
+
+    private static String extensionOf(Path file) throws IOException {
+        try (InputStream inputStream = new BufferedInputStream(Files.newInputStream(file))) {
+            String contentType = URLConnection.guessContentTypeFromStream(inputStream);
+            return contentType != null ? EXTENSIONS.getOrDefault(contentType, DEFAULT_EXTENSION) : DEFAULT_EXTENSION;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package de.neuefische.flooooooooooorian.backend.service;
+
+import de.neuefische.flooooooooooorian.backend.model.Location;
+import de.neuefische.flooooooooooorian.backend.model.Picture;
+import de.neuefische.flooooooooooorian.backend.security.model.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Service
+public class LocationGalleryService {
+
+    private final PictureUploadService pictureUploadService;
+    private final LocationService locationService;
+    private final int maxFiles;
+    private final int perRequestParallelism;
+    private final Duration acquireTimeout;
+    private final Semaphore globalPermits;
+    private final ThreadPoolExecutor executor;
+
+    @Autowired
+    public LocationGalleryService(PictureUploadService pictureUploadService,
+                                  LocationService locationService,
+                                  @Value("${gallery.upload.max-files:20}") int maxFiles,
+                                  @Value("${gallery.upload.per-request-parallelism:4}") int perRequestParallelism,
+                                  @Value("${gallery.upload.max-concurrent:16}") int maxConcurrent,
+                                  @Value("${gallery.upload.acquire-timeout:5s}") Duration acquireTimeout) {
+        this.pictureUploadService = pictureUploadService;
+        this.locationService = locationService;
+        this.maxFiles = maxFiles;
+        this.perRequestParallelism = Math.max(perRequestParallelism, 1);
+        this.acquireTimeout = acquireTimeout;
+        this.globalPermits = new Semaphore(maxConcurrent);
+        this.executor = new ThreadPoolExecutor(maxConcurrent, maxConcurrent, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), new CustomizableThreadFactory("gallery-upload-"));
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    public Location addPictures(String locationId, List<MultipartFile> images, User user) throws IOException {
+        if (images.isEmpty() || images.size() > maxFiles) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Upload between 1 and " + maxFiles + " pictures");
+        }
+        locationService.getOwnedLocation(locationId, user);
+        List<Picture> pictures = uploadAll(images);
+        return locationService.addPictures(locationId, pictures, user)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Id not valid!"));
+    }
+
+    List<Picture> uploadAll(List<MultipartFile> images) throws IOException {
+        Semaphore requestPermits = new Semaphore(perRequestParallelism);
+        AtomicBoolean aborted = new AtomicBoolean();
+        List<Future<Picture>> uploads = new ArrayList<>();
+        try {
+            for (MultipartFile image : images) {
+                requestPermits.acquire();
+                if (!globalPermits.tryAcquire(acquireTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                    requestPermits.release();
+                    throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many uploads in progress, try again later");
+                }
+                uploads.add(executor.submit(() -> {
+                    try {
+                        if (aborted.get()) {
+                            throw new CancellationException("Upload aborted");
+                        }
+                        return pictureUploadService.upload(image);
+                    } finally {
+                        globalPermits.release();
+                        requestPermits.release();
+                    }
+                }));
+            }
+            List<Picture> pictures = new ArrayList<>();
+            for (Future<Picture> upload : uploads) {
+                pictures.add(upload.get());
+            }
+            return pictures;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Upload interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            aborted.set(true);
+            requestPermits.acquireUninterruptibly(perRequestParallelism);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -1,27 +1,78 @@
 package de.neuefische.flooooooooooorian.backend.service;
 
+import de.neuefische.flooooooooooorian.backend.dto.CursorPageDto;
+import de.neuefische.flooooooooooorian.backend.dto.location.LocationClusterDto;
 import de.neuefische.flooooooooooorian.backend.dto.location.LocationCreationDto;
+import de.neuefische.flooooooooooorian.backend.dto.location.LocationSummaryDto;
 import de.neuefische.flooooooooooorian.backend.model.Location;
 import de.neuefische.flooooooooooorian.backend.model.Picture;
+import de.neuefische.flooooooooooorian.backend.model.ThumbnailState;
 import de.neuefische.flooooooooooorian.backend.repository.LocationRepository;
 import de.neuefische.flooooooooooorian.backend.security.model.User;
+import de.neuefische.flooooooooooorian.backend.utils.CursorMapper;
+import de.neuefische.flooooooooooorian.backend.utils.LocationMapper;
+import de.neuefische.flooooooooooorian.backend.utils.TileMapper;
+import de.neuefische.flooooooooooorian.backend.utils.VectorTileEncoder;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.Metrics;
+import org.springframework.data.geo.Point;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.geo.GeoJsonPolygon;
+import org.springframework.data.mongodb.core.geo.Sphere;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.time.Instant;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collectors;
 
 @Service
 public class LocationService {
 
+    public static final double DEFAULT_RADIUS_KM = 555;
+    public static final double MAX_RADIUS_KM = 5000;
+    public static final int DEFAULT_LIMIT = 100;
+    public static final int MAX_LIMIT = 1000;
+    public static final int MAX_ZOOM = 22;
+    public static final int CLUSTER_CELLS_PER_TILE = 4;
+    public static final int MAX_CLUSTER_CELLS_PER_AXIS = 64;
+    public static final String TILE_LAYER = "locations";
+    public static final int TILE_EXTENT = 4096;
+    public static final int MAX_TILE_FEATURES = 2000;
+    public static final int MAX_TILE_FETCH = 10000;
+    public static final int FULL_DETAIL_ZOOM = 14;
+    public static final int MAX_SIMPLIFICATION_PIXELS = 16;
+    public static final String LOCATION_CACHE = "locationById";
+    public static final String BOX_CACHE = "locationBoxes";
+    public static final int VIEWPORT_STEPS_PER_AXIS = 8;
+    public static final double MIN_VIEWPORT_STEP = 1.0 / 1024;
+    public static final int VIEWPORT_OVERFETCH = 4;
+
     private final LocationRepository locationRepository;
     private final PictureService pictureService;
+    private final Optional<LocationSpatialIndex> spatialIndex;
+    private final LocationTileCache tileCache;
+    private final Cache locationCache;
+    private final Cache boxCache;
 
     @Autowired
-    public LocationService(LocationRepository locationRepository, PictureService pictureService) {
+    public LocationService(LocationRepository locationRepository, PictureService pictureService, Optional<LocationSpatialIndex> spatialIndex, LocationTileCache tileCache, CacheManager cacheManager) {
         this.locationRepository = locationRepository;
         this.pictureService = pictureService;
+        this.spatialIndex = spatialIndex;
+        this.tileCache = tileCache;
+        this.locationCache = cacheManager.getCache(LOCATION_CACHE);
+        this.boxCache = cacheManager.getCache(BOX_CACHE);
     }
 
     public List<Location> getLocations() {
@@ -30,11 +81,155 @@ public class LocationService {
 
     public List<Location> getLocations(Optional<Double> lat, Optional<Double> lng) {
         if (lat.isPresent() && lng.isPresent()) {
-            return locationRepository.findAllByLatBetweenAndLngBetween((lat.get() - 5), (lat.get() + 5), (lng.get() - 5), (lng.get() + 5));
+            return getLocationsNear(lat.get(), lng.get(), DEFAULT_RADIUS_KM, DEFAULT_LIMIT);
         }
         return this.getLocations();
     }
 
+    public List<Location> getLocationsNear(double lat, double lng, double radius, int limit) {
+        Distance distance = toDistance(radius);
+        PageRequest pageable = toPageable(limit);
+        if (spatialIndex.isPresent()) {
+            return findAllInOrder(spatialIndex.get().nearest(lat, lng, distance.getValue(), pageable.getPageSize()));
+        }
+        return locationRepository.findAllByPositionNear(new GeoJsonPoint(lng, lat), distance, pageable);
+    }
+
+    private List<Location> findAllInOrder(List<LocationSummaryDto> summaries) {
+        List<String> ids = summaries.stream()
+                .map(LocationSummaryDto::getId)
+                .collect(Collectors.toList());
+        Map<String, Location> locationsById = new HashMap<>();
+        locationRepository.findAllById(ids).forEach(location -> locationsById.put(location.getId(), location));
+        return ids.stream()
+                .map(locationsById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    public CursorPageDto<Location> getLocationPage(Optional<String> cursor, int limit) {
+        int pageSize = CursorMapper.toPageSize(limit);
+        PageRequest pageable = CursorMapper.toKeysetPageable(pageSize);
+        List<Location> locations = cursor.map(CursorMapper::decode)
+                .map(after -> locationRepository.findAllByIdGreaterThan(after, pageable))
+                .orElseGet(() -> locationRepository.findAllBy(pageable));
+        return CursorMapper.toPage(locations, pageSize, Location::getId);
+    }
+
+    public CursorPageDto<Location> getLocationsWithinRadius(double lat, double lng, double radius, Optional<String> cursor, int limit) {
+        Sphere sphere = new Sphere(new GeoJsonPoint(lng, lat), toDistance(radius));
+        int pageSize = CursorMapper.toPageSize(limit);
+        PageRequest pageable = CursorMapper.toKeysetPageable(pageSize);
+        List<Location> locations = cursor.map(CursorMapper::decode)
+                .map(after -> locationRepository.findAllByPositionWithinAndIdGreaterThan(sphere, after, pageable))
+                .orElseGet(() -> locationRepository.findAllByPositionWithin(sphere, pageable));
+        return CursorMapper.toPage(locations, pageSize, Location::getId);
+    }
+
+    public CursorPageDto<Location> getLocationsWithinBox(double minLat, double minLng, double maxLat, double maxLng, Optional<String> cursor, int limit) {
+        if (spatialIndex.isPresent()) {
+            int pageSize = CursorMapper.toPageSize(limit);
+            List<LocationSummaryDto> summaries = spatialIndex.get().withinBox(minLat, minLng, maxLat, maxLng, cursor.map(CursorMapper::decode), pageSize + 1);
+            CursorPageDto<LocationSummaryDto> page = CursorMapper.toPage(summaries, pageSize, LocationSummaryDto::getId);
+            return new CursorPageDto<>(findAllInOrder(page.getItems()), page.getNext());
+        }
+        double[] viewport = toViewport(minLat, minLng, maxLat, maxLng);
+        return pageWithinBox("full", viewport, new double[]{minLat, minLng, maxLat, maxLng}, cursor, limit,
+                (after, chunkSize) -> findLocationsWithinBox(viewport[0], viewport[1], viewport[2], viewport[3], after, chunkSize),
+                Location::getLat, Location::getLng, Location::getId);
+    }
+
+    private CursorPageDto<Location> findLocationsWithinBox(double minLat, double minLng, double maxLat, double maxLng, Optional<String> cursor, int limit) {
+        Criteria criteria = toBoxCriteria(minLat, minLng, maxLat, maxLng);
+        int pageSize = CursorMapper.toPageSize(limit);
+        cursor.map(CursorMapper::decode).ifPresent(after -> criteria.and("id").gt(after));
+        List<Location> locations = locationRepository.findLocations(criteria, CursorMapper.toKeysetPageable(pageSize));
+        return CursorMapper.toPage(locations, pageSize, Location::getId);
+    }
+
+    public List<LocationSummaryDto> getLocationSummariesNear(double lat, double lng, double radius, int limit) {
+        Distance distance = toDistance(radius);
+        PageRequest pageable = toPageable(limit);
+        if (spatialIndex.isPresent()) {
+            return spatialIndex.get().nearest(lat, lng, distance.getValue(), pageable.getPageSize());
+        }
+        Criteria near = Criteria.where("position").nearSphere(new GeoJsonPoint(lng, lat)).maxDistance(distance.getValue() * 1000);
+        return locationRepository.findSummaries(near, pageable);
+    }
+
+    public CursorPageDto<LocationSummaryDto> getLocationSummaryPage(Optional<String> cursor, int limit) {
+        return findSummaryPage(new Criteria(), cursor, limit);
+    }
+
+    public CursorPageDto<LocationSummaryDto> getLocationSummariesWithinRadius(double lat, double lng, double radius, Optional<String> cursor, int limit) {
+        return findSummaryPage(Criteria.where("position").within(new Sphere(new GeoJsonPoint(lng, lat), toDistance(radius))), cursor, limit);
+    }
+
+    public CursorPageDto<LocationSummaryDto> getLocationSummariesWithinBox(double minLat, double minLng, double maxLat, double maxLng, Optional<String> cursor, int limit) {
+        if (spatialIndex.isPresent()) {
+            int pageSize = CursorMapper.toPageSize(limit);
+            List<LocationSummaryDto> summaries = spatialIndex.get().withinBox(minLat, minLng, maxLat, maxLng, cursor.map(CursorMapper::decode), pageSize + 1);
+            return CursorMapper.toPage(summaries, pageSize, LocationSummaryDto::getId);
+        }
+        double[] viewport = toViewport(minLat, minLng, maxLat, maxLng);
+        return pageWithinBox("summary", viewport, new double[]{minLat, minLng, maxLat, maxLng}, cursor, limit,
+                (after, chunkSize) -> findSummaryPage(toBoxCriteria(viewport[0], viewport[1], viewport[2], viewport[3]), after, chunkSize),
+                LocationSummaryDto::getLat, LocationSummaryDto::getLng, LocationSummaryDto::getId);
+    }
+
+    private CursorPageDto<LocationSummaryDto> findSummaryPage(Criteria criteria, Optional<String> cursor, int limit) {
+        int pageSize = CursorMapper.toPageSize(limit);
+        cursor.map(CursorMapper::decode).ifPresent(after -> criteria.and("id").gt(after));
+        List<LocationSummaryDto> summaries = locationRepository.findSummaries(criteria, CursorMapper.toKeysetPageable(pageSize));
+        return CursorMapper.toPage(summaries, pageSize, LocationSummaryDto::getId);
+    }
+
+    public List<LocationClusterDto> getLocationClusters(double minLat, double minLng, double maxLat, double maxLng, int zoom) {
+        double tileCellSize = 360.0 / ((1L << Math.min(Math.max(zoom, 0), MAX_ZOOM)) * CLUSTER_CELLS_PER_TILE);
+        double boxCellSize = Math.max(maxLng - minLng, maxLat - minLat) / MAX_CLUSTER_CELLS_PER_AXIS;
+        return locationRepository.findClustersWithin(toBoxCriteria(minLat, minLng, maxLat, maxLng), Math.max(tileCellSize, boxCellSize));
+    }
+
+    public byte[] getLocationTile(int zoom, int x, int y) {
+        if (zoom < 0 || zoom > MAX_ZOOM || x < 0 || y < 0 || x >= (1L << zoom) || y >= (1L << zoom)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Tile not valid");
+        }
+        return tileCache.get(zoom, x, y, () -> encodeTile(zoom, x, y));
+    }
+
+    private byte[] encodeTile(int zoom, int x, int y) {
+        double minLng = TileMapper.tileToLng(x, zoom);
+        double maxLng = TileMapper.tileToLng(x + 1, zoom);
+        double minLat = TileMapper.tileToLat(y + 1, zoom);
+        double maxLat = TileMapper.tileToLat(y, zoom);
+        PageRequest pageable = PageRequest.of(0, MAX_TILE_FETCH, Sort.by(Sort.Direction.DESC, "rating"));
+        Criteria criteria = maxLng - minLng >= 180 ? new Criteria() : Criteria.where("position").within(toBox(minLat, minLng, maxLat, maxLng));
+        List<LocationSummaryDto> candidates = locationRepository.findSummaries(criteria, pageable);
+
+        int simplification = TILE_EXTENT / 256 * (int) Math.min(1L << Math.max(FULL_DETAIL_ZOOM - zoom, 0), MAX_SIMPLIFICATION_PIXELS);
+        Set<Long> occupied = new HashSet<>();
+        VectorTileEncoder encoder = new VectorTileEncoder(TILE_LAYER, TILE_EXTENT);
+        for (LocationSummaryDto location : candidates) {
+            int px = (int) Math.floor((TileMapper.lngToWorldX(location.getLng(), zoom) - x) * TILE_EXTENT);
+            int py = (int) Math.floor((TileMapper.latToWorldY(location.getLat(), zoom) - y) * TILE_EXTENT);
+            if (px < 0 || py < 0 || px >= TILE_EXTENT || py >= TILE_EXTENT) {
+                continue;
+            }
+            if (!occupied.add(((long) (px / simplification) << 32) | (py / simplification))) {
+                continue;
+            }
+            Map<String, Object> properties = new LinkedHashMap<>();
+            properties.put("id", location.getId());
+            properties.put("title", location.getTitle());
+            properties.put("rating", location.getRating());
+            encoder.addPoint(px, py, properties);
+            if (encoder.size() >= MAX_TILE_FEATURES) {
+                break;
+            }
+        }
+        return encoder.encode();
+    }
+
     public Location createLocation(LocationCreationDto locationCreationDto, User user) {
 
         return this.createLocation(locationCreationDto, null, user);
@@ -42,27 +237,179 @@ public class LocationService {
 
     public Location createLocation(LocationCreationDto locationCreationDto, Picture picture, User user) {
 
-        Location location = Location.builder()
+        Location location = newLocation(locationCreationDto, user);
+
+        if (picture != null) {
+            location.setThumbnail(pictureService.createPicture(picture, user));
+            location.setThumbnailState(ThumbnailState.READY);
+        }
+
+        return saveNewLocation(location);
+    }
+
+    public Location createPendingLocation(LocationCreationDto locationCreationDto, User user) {
+
+        Location location = newLocation(locationCreationDto, user);
+        location.setThumbnailState(ThumbnailState.PENDING);
+
+        return saveNewLocation(location);
+    }
+
+    public Optional<Location> attachThumbnail(String locationId, Picture picture, User user) {
+        Picture thumbnail = pictureService.createPicture(picture, user);
+        return updateThumbnail(locationId, thumbnail, ThumbnailState.READY);
+    }
+
+    public Optional<Location> markThumbnailFailed(String locationId) {
+        return updateThumbnail(locationId, null, ThumbnailState.FAILED);
+    }
+
+    public int failStalePendingThumbnails(Instant createdBefore, int limit) {
+        List<Location> stale = locationRepository.findByThumbnailStateAndCreationDateBefore(ThumbnailState.PENDING, createdBefore, PageRequest.of(0, limit));
+        stale.forEach(location -> markThumbnailFailed(location.getId()));
+        return stale.size();
+    }
+
+    public Location getOwnedLocation(String locationId, User user) {
+        Location location = getLocationById(locationId).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Id not valid!"));
+        if (!Objects.equals(location.getOwnerId(), user.getId())) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Only the owner can change this location");
+        }
+        return location;
+    }
+
+    public Optional<Location> addPictures(String locationId, List<Picture> pictures, User user) {
+        List<String> urls = pictureService.createPictures(pictures, user).stream()
+                .map(picture -> LocationMapper.urlForWidth(picture, LocationMapper.GALLERY_WIDTH))
+                .collect(Collectors.toList());
+        locationCache.evict(locationId);
+        if (!locationRepository.addPictures(locationId, urls)) {
+            return Optional.empty();
+        }
+        return reloadLocation(locationId);
+    }
+
+    public Optional<Location> getLocationById(String id) {
+        return Optional.ofNullable(locationCache.get(id, () -> locationRepository.findById(id).orElse(null)));
+    }
+
+    public List<Location> getLocationsFromUser(User user, int limit) {
+        return locationRepository.findByOwnerId(user.getId(), PageRequest.of(0, Math.min(Math.max(limit, 1), MAX_LIMIT), Sort.by(Sort.Direction.DESC, "creationDate")));
+    }
+
+    public long countLocationsFromUser(User user) {
+        return locationRepository.countByOwnerId(user.getId());
+    }
+
+    private Location newLocation(LocationCreationDto locationCreationDto, User user) {
+        return Location.builder()
                 .creationDate(Instant.now())
                 .lat(locationCreationDto.getLat())
                 .lng(locationCreationDto.getLng())
                 .title(locationCreationDto.getTitle())
                 .description(locationCreationDto.getDescription())
-                .owner(user)
+                .owner(LocationMapper.toOwnerSnapshot(user))
+                .ownerId(user.getId())
                 .build();
+    }
 
-        if (picture != null) {
-            location.setThumbnail(pictureService.createPicture(picture, user));
+    private Location saveNewLocation(Location location) {
+        Location savedLocation = locationRepository.save(location);
+        spatialIndex.ifPresent(index -> index.add(LocationMapper.toLocationSummaryDto(savedLocation)));
+        tileCache.evict(savedLocation.getLat(), savedLocation.getLng());
+        locationCache.put(savedLocation.getId(), savedLocation);
+        boxCache.clear();
+        return savedLocation;
+    }
+
+    private Optional<Location> updateThumbnail(String locationId, Picture thumbnail, ThumbnailState thumbnailState) {
+        locationCache.evict(locationId);
+        if (!locationRepository.updateThumbnail(locationId, thumbnail, thumbnailState)) {
+            return Optional.empty();
         }
+        return reloadLocation(locationId);
+    }
 
-        return locationRepository.save(location);
+    private Optional<Location> reloadLocation(String locationId) {
+        Optional<Location> location = locationRepository.findById(locationId);
+        location.ifPresent(updated -> {
+            spatialIndex.ifPresent(index -> index.add(LocationMapper.toLocationSummaryDto(updated)));
+            tileCache.evict(updated.getLat(), updated.getLng());
+            locationCache.put(updated.getId(), updated);
+        });
+        boxCache.clear();
+        return location;
     }
 
-    public Optional<Location> getLocationById(String id) {
-        return locationRepository.findById(id);
+    private static double[] toViewport(double minLat, double minLng, double maxLat, double maxLng) {
+        double span = Math.max(maxLat - minLat, maxLng - minLng) / VIEWPORT_STEPS_PER_AXIS;
+        double step = Math.max(Math.pow(2, Math.ceil(Math.log(span) / Math.log(2))), MIN_VIEWPORT_STEP);
+        return new double[]{
+                Math.max(Math.floor(minLat / step) * step, -90),
+                Math.max(Math.floor(minLng / step) * step, -180),
+                Math.min(Math.ceil(maxLat / step) * step, 90),
+                Math.min(Math.ceil(maxLng / step) * step, 180)};
+    }
+
+    private static String toViewportKey(String view, double[] viewport, Optional<String> cursor, int chunkSize) {
+        return view + ":" + viewport[0] + "," + viewport[1] + "," + viewport[2] + "," + viewport[3] + ":" + cursor.orElse("") + ":" + chunkSize;
+    }
+
+    private <T> CursorPageDto<T> pageWithinBox(String view, double[] viewport, double[] box, Optional<String> cursor, int limit,
+                                               BiFunction<Optional<String>, Integer, CursorPageDto<T>> fetchChunk,
+                                               ToDoubleFunction<T> lat, ToDoubleFunction<T> lng, Function<T, String> id) {
+        int pageSize = CursorMapper.toPageSize(limit);
+        int chunkSize = Math.min(pageSize * VIEWPORT_OVERFETCH, CursorMapper.MAX_PAGE_SIZE);
+        List<T> items = new ArrayList<>(pageSize + 1);
+        Optional<String> after = cursor;
+        while (true) {
+            Optional<String> chunkCursor = after;
+            CursorPageDto<T> chunk = boxCache.get(toViewportKey(view, viewport, chunkCursor, chunkSize), () -> fetchChunk.apply(chunkCursor, chunkSize));
+            for (T item : chunk.getItems()) {
+                double itemLat = lat.applyAsDouble(item);
+                double itemLng = lng.applyAsDouble(item);
+                if (itemLat >= box[0] && itemLng >= box[1] && itemLat <= box[2] && itemLng <= box[3]) {
+                    items.add(item);
+                    if (items.size() > pageSize) {
+                        return CursorMapper.toPage(items, pageSize, id);
+                    }
+                }
+            }
+            if (chunk.getNext() == null) {
+                return new CursorPageDto<>(items, null);
+            }
+            after = Optional.of(chunk.getNext());
+        }
+    }
+
+    private Criteria toBoxCriteria(double minLat, double minLng, double maxLat, double maxLng) {
+        if (maxLng - minLng >= 180) {
+            return Criteria.where("lat").gte(minLat).lte(maxLat).and("lng").gte(minLng).lte(maxLng);
+        }
+        return Criteria.where("position").within(toBox(minLat, minLng, maxLat, maxLng)).and("lat").gte(minLat).lte(maxLat);
+    }
+
+    private GeoJsonPolygon toBox(double minLat, double minLng, double maxLat, double maxLng) {
+        double halfSpan = Math.toRadians(maxLng - minLng) / 2;
+        double south = minLat > 0 ? toGeodesicEdgeLat(minLat, halfSpan) : minLat;
+        double north = maxLat < 0 ? toGeodesicEdgeLat(maxLat, halfSpan) : maxLat;
+        return new GeoJsonPolygon(
+                new Point(minLng, south),
+                new Point(maxLng, south),
+                new Point(maxLng, north),
+                new Point(minLng, north),
+                new Point(minLng, south));
+    }
+
+    private static double toGeodesicEdgeLat(double lat, double halfSpan) {
+        return Math.toDegrees(Math.atan(Math.tan(Math.toRadians(lat)) * Math.cos(halfSpan)));
+    }
+
+    private Distance toDistance(double radius) {
+        return new Distance(Math.min(Math.max(radius, 0), MAX_RADIUS_KM), Metrics.KILOMETERS);
     }
 
-    public List<Location> getLocationsFromUser(User user) {
-        return locationRepository.findAllByOwner(user);
+    private PageRequest toPageable(int limit) {
+        return PageRequest.of(0, Math.min(Math.max(limit, 1), MAX_LIMIT));
     }
 }
@@ -0,0 +1,600 @@
+package de.neuefische.flooooooooooorian.backend.service;
+
+import de.neuefische.flooooooooooorian.backend.dto.location.LocationSummaryDto;
+import de.neuefische.flooooooooooorian.backend.repository.LocationRepository;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Service
+@ConditionalOnProperty(name = "location.index.in-memory", havingValue = "true")
+public class LocationSpatialIndex implements InitializingBean {
+
+    private static final double CELL_SIZE = 0.5;
+    private static final int GRID_WIDTH = (int) (360 / CELL_SIZE);
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int INITIAL_TEXT_CAPACITY = INITIAL_CAPACITY * 64;
+    private static final int BUILD_BATCH_SIZE = 1000;
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+    private static final double KM_PER_DEGREE = Math.PI * EARTH_RADIUS_KM / 180;
+    private static final int EMPTY = -1;
+    private static final long NO_CELL = Long.MIN_VALUE;
+    private static final long NO_TEXT = -1L;
+
+    private final LocationRepository locationRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private double[] lats = new double[INITIAL_CAPACITY];
+    private double[] lngs = new double[INITIAL_CAPACITY];
+    private double[] ratings = new double[INITIAL_CAPACITY];
+    private long[] idRefs = new long[INITIAL_CAPACITY];
+    private long[] titleRefs = new long[INITIAL_CAPACITY];
+    private long[] thumbnailUrlRefs = new long[INITIAL_CAPACITY];
+    private int[] idHashes = new int[INITIAL_CAPACITY];
+    private int[] nextInCell = new int[INITIAL_CAPACITY];
+    private int[] previousInCell = new int[INITIAL_CAPACITY];
+    private int size;
+
+    private int[] slotTable = newSlotTable(INITIAL_CAPACITY * 2);
+
+    private long[] cellKeys = newCellKeys(INITIAL_CAPACITY);
+    private int[] cellHeads = new int[INITIAL_CAPACITY];
+    private int cellCount;
+
+    private char[] text = new char[INITIAL_TEXT_CAPACITY];
+    private int textLength;
+    private int textGarbage;
+
+    @Autowired
+    public LocationSpatialIndex(LocationRepository locationRepository) {
+        this.locationRepository = locationRepository;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        PageRequest pageable = PageRequest.of(0, BUILD_BATCH_SIZE, Sort.by("id"));
+        List<LocationSummaryDto> batch = locationRepository.findSummaries(new Criteria(), pageable);
+        while (!batch.isEmpty()) {
+            batch.forEach(this::add);
+            if (batch.size() < BUILD_BATCH_SIZE) {
+                break;
+            }
+            batch = locationRepository.findSummaries(Criteria.where("id").gt(batch.get(batch.size() - 1).getId()), pageable);
+        }
+    }
+
+    public void add(LocationSummaryDto location) {
+        lock.writeLock().lock();
+        try {
+            int hash = spread(location.getId().hashCode());
+            int slot = findSlot(location.getId(), hash);
+            if (slot != EMPTY) {
+                unlinkFromCell(slot);
+                releaseText(titleRefs[slot]);
+                releaseText(thumbnailUrlRefs[slot]);
+            } else {
+                slot = size++;
+                ensureCapacity(size);
+                idHashes[slot] = hash;
+                idRefs[slot] = appendText(location.getId());
+                insertSlot(slot);
+            }
+            lats[slot] = location.getLat();
+            lngs[slot] = location.getLng();
+            ratings[slot] = location.getRating();
+            titleRefs[slot] = appendText(location.getTitle());
+            thumbnailUrlRefs[slot] = appendText(location.getThumbnailUrl());
+            linkIntoCell(slot);
+            if (textGarbage > textLength / 2) {
+                compactText();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<LocationSummaryDto> withinBox(double minLat, double minLng, double maxLat, double maxLng, Optional<String> after, int limit) {
+        lock.readLock().lock();
+        try {
+            IdHeap first = new IdHeap(Math.max(limit, 1));
+            int firstX = cellIndex(minLng);
+            int lastX = Math.min(cellIndex(maxLng), firstX + GRID_WIDTH - 1);
+            for (int x = firstX; x <= lastX; x++) {
+                for (int y = cellIndex(minLat); y <= cellIndex(maxLat); y++) {
+                    int cell = findCell(cellKey(x, y));
+                    if (cell == EMPTY) {
+                        continue;
+                    }
+                    for (int slot = cellHeads[cell]; slot != EMPTY; slot = nextInCell[slot]) {
+                        if (lats[slot] >= minLat && lats[slot] <= maxLat && lngs[slot] >= minLng && lngs[slot] <= maxLng
+                                && (after.isEmpty() || compareText(idRefs[slot], after.get()) > 0)) {
+                            first.offer(slot);
+                        }
+                    }
+                }
+            }
+            return toSummaries(first.sortedSlots());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<LocationSummaryDto> nearest(double lat, double lng, double maxDistanceKm, int limit) {
+        lock.readLock().lock();
+        try {
+            double latRange = maxDistanceKm / KM_PER_DEGREE;
+            double minCos = Math.max(Math.cos(Math.toRadians(Math.min(Math.abs(lat) + latRange, 90))), 1e-6);
+            int latRings = (int) Math.ceil(latRange / CELL_SIZE);
+            int lngRings = (int) Math.ceil(Math.min(latRange / minCos, 180) / CELL_SIZE);
+            int centerX = cellIndex(lng);
+            int centerY = cellIndex(lat);
+
+            NeighbourHeap best = new NeighbourHeap(Math.max(limit, 1));
+            for (int ring = 0; ring <= Math.max(latRings, lngRings); ring++) {
+                double ringLowerBoundKm = (ring - 1) * CELL_SIZE * KM_PER_DEGREE * minCos;
+                if (ringLowerBoundKm > maxDistanceKm || (best.isFull() && ringLowerBoundKm > best.worst())) {
+                    break;
+                }
+                for (int d = -ring; d <= ring; d++) {
+                    scanCell(centerX, d, centerY - ring, lat, lng, maxDistanceKm, best);
+                    if (ring > 0) {
+                        scanCell(centerX, d, centerY + ring, lat, lng, maxDistanceKm, best);
+                    }
+                    if (Math.abs(d) < ring) {
+                        scanCell(centerX, -ring, centerY + d, lat, lng, maxDistanceKm, best);
+                        scanCell(centerX, ring, centerY + d, lat, lng, maxDistanceKm, best);
+                    }
+                }
+            }
+
+            return toSummaries(best.sortedSlots());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void scanCell(int centerX, int dx, int y, double lat, double lng, double maxDistanceKm, NeighbourHeap best) {
+        if (dx <= -GRID_WIDTH / 2 || dx > GRID_WIDTH / 2) {
+            return;
+        }
+        int cell = findCell(cellKey(centerX + dx, y));
+        if (cell == EMPTY) {
+            return;
+        }
+        for (int slot = cellHeads[cell]; slot != EMPTY; slot = nextInCell[slot]) {
+            double distance = distanceKm(lat, lng, lats[slot], lngs[slot]);
+            if (distance <= maxDistanceKm) {
+                best.offer(slot, distance);
+            }
+        }
+    }
+
+    private List<LocationSummaryDto> toSummaries(int[] slots) {
+        List<LocationSummaryDto> result = new ArrayList<>(slots.length);
+        for (int slot : slots) {
+            result.add(toSummary(slot));
+        }
+        return result;
+    }
+
+    private LocationSummaryDto toSummary(int slot) {
+        return LocationSummaryDto.builder()
+                .id(textOf(idRefs[slot]))
+                .lat(lats[slot])
+                .lng(lngs[slot])
+                .title(textOf(titleRefs[slot]))
+                .rating(ratings[slot])
+                .thumbnailUrl(textOf(thumbnailUrlRefs[slot]))
+                .build();
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= lats.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, lats.length * 2);
+        lats = Arrays.copyOf(lats, newCapacity);
+        lngs = Arrays.copyOf(lngs, newCapacity);
+        ratings = Arrays.copyOf(ratings, newCapacity);
+        idRefs = Arrays.copyOf(idRefs, newCapacity);
+        titleRefs = Arrays.copyOf(titleRefs, newCapacity);
+        thumbnailUrlRefs = Arrays.copyOf(thumbnailUrlRefs, newCapacity);
+        idHashes = Arrays.copyOf(idHashes, newCapacity);
+        nextInCell = Arrays.copyOf(nextInCell, newCapacity);
+        previousInCell = Arrays.copyOf(previousInCell, newCapacity);
+    }
+
+    private int findSlot(String id, int hash) {
+        int mask = slotTable.length - 1;
+        for (int i = hash & mask; slotTable[i] != EMPTY; i = (i + 1) & mask) {
+            int slot = slotTable[i];
+            if (idHashes[slot] == hash && textEquals(idRefs[slot], id)) {
+                return slot;
+            }
+        }
+        return EMPTY;
+    }
+
+    private void insertSlot(int slot) {
+        if (size * 2 <= slotTable.length) {
+            putSlot(slot);
+            return;
+        }
+        slotTable = newSlotTable(slotTable.length * 2);
+        for (int existing = 0; existing < size; existing++) {
+            putSlot(existing);
+        }
+    }
+
+    private void putSlot(int slot) {
+        int mask = slotTable.length - 1;
+        int i = idHashes[slot] & mask;
+        while (slotTable[i] != EMPTY) {
+            i = (i + 1) & mask;
+        }
+        slotTable[i] = slot;
+    }
+
+    private void linkIntoCell(int slot) {
+        int cell = findOrAddCell(cellKey(lats[slot], lngs[slot]));
+        int head = cellHeads[cell];
+        nextInCell[slot] = head;
+        previousInCell[slot] = EMPTY;
+        if (head != EMPTY) {
+            previousInCell[head] = slot;
+        }
+        cellHeads[cell] = slot;
+    }
+
+    private void unlinkFromCell(int slot) {
+        int next = nextInCell[slot];
+        int previous = previousInCell[slot];
+        if (previous == EMPTY) {
+            cellHeads[findCell(cellKey(lats[slot], lngs[slot]))] = next;
+        } else {
+            nextInCell[previous] = next;
+        }
+        if (next != EMPTY) {
+            previousInCell[next] = previous;
+        }
+    }
+
+    private int findCell(long key) {
+        int mask = cellKeys.length - 1;
+        for (int i = spread(key) & mask; cellKeys[i] != NO_CELL; i = (i + 1) & mask) {
+            if (cellKeys[i] == key) {
+                return i;
+            }
+        }
+        return EMPTY;
+    }
+
+    private int findOrAddCell(long key) {
+        int cell = findCell(key);
+        if (cell != EMPTY) {
+            return cell;
+        }
+        if ((cellCount + 1) * 2 > cellKeys.length) {
+            resizeCells();
+        }
+        cell = putCell(key, EMPTY);
+        cellCount++;
+        return cell;
+    }
+
+    private void resizeCells() {
+        long[] oldKeys = cellKeys;
+        int[] oldHeads = cellHeads;
+        cellKeys = newCellKeys(oldKeys.length * 2);
+        cellHeads = new int[oldKeys.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != NO_CELL) {
+                putCell(oldKeys[i], oldHeads[i]);
+            }
+        }
+    }
+
+    private int putCell(long key, int head) {
+        int mask = cellKeys.length - 1;
+        int i = spread(key) & mask;
+        while (cellKeys[i] != NO_CELL) {
+            i = (i + 1) & mask;
+        }
+        cellKeys[i] = key;
+        cellHeads[i] = head;
+        return i;
+    }
+
+    private long appendText(String value) {
+        if (value == null) {
+            return NO_TEXT;
+        }
+        int length = value.length();
+        if (textLength + length > text.length) {
+            text = Arrays.copyOf(text, Math.max(textLength + length, text.length * 2));
+        }
+        value.getChars(0, length, text, textLength);
+        long ref = toTextRef(textLength, length);
+        textLength += length;
+        return ref;
+    }
+
+    private String textOf(long ref) {
+        if (ref == NO_TEXT) {
+            return null;
+        }
+        return new String(text, textOffset(ref), textLength(ref));
+    }
+
+    private boolean textEquals(long ref, String value) {
+        int offset = textOffset(ref);
+        int length = textLength(ref);
+        if (length != value.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (text[offset + i] != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int compareText(long ref, String value) {
+        int offset = textOffset(ref);
+        int length = textLength(ref);
+        int common = Math.min(length, value.length());
+        for (int i = 0; i < common; i++) {
+            int difference = text[offset + i] - value.charAt(i);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return length - value.length();
+    }
+
+    private int compareText(long ref, long other) {
+        int offset = textOffset(ref);
+        int length = textLength(ref);
+        int otherOffset = textOffset(other);
+        int otherLength = textLength(other);
+        int common = Math.min(length, otherLength);
+        for (int i = 0; i < common; i++) {
+            int difference = text[offset + i] - text[otherOffset + i];
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return length - otherLength;
+    }
+
+    private void releaseText(long ref) {
+        if (ref != NO_TEXT) {
+            textGarbage += textLength(ref);
+        }
+    }
+
+    private void compactText() {
+        char[] previous = text;
+        text = new char[Math.max(textLength - textGarbage, INITIAL_TEXT_CAPACITY)];
+        textLength = 0;
+        textGarbage = 0;
+        for (int slot = 0; slot < size; slot++) {
+            idRefs[slot] = moveText(previous, idRefs[slot]);
+            titleRefs[slot] = moveText(previous, titleRefs[slot]);
+            thumbnailUrlRefs[slot] = moveText(previous, thumbnailUrlRefs[slot]);
+        }
+    }
+
+    private long moveText(char[] previous, long ref) {
+        if (ref == NO_TEXT) {
+            return NO_TEXT;
+        }
+        int length = textLength(ref);
+        System.arraycopy(previous, textOffset(ref), text, textLength, length);
+        long moved = toTextRef(textLength, length);
+        textLength += length;
+        return moved;
+    }
+
+    private static long toTextRef(int offset, int length) {
+        return ((long) offset << 32) | length;
+    }
+
+    private static int textOffset(long ref) {
+        return (int) (ref >>> 32);
+    }
+
+    private static int textLength(long ref) {
+        return (int) ref;
+    }
+
+    private static int[] newSlotTable(int capacity) {
+        int[] table = new int[capacity];
+        Arrays.fill(table, EMPTY);
+        return table;
+    }
+
+    private static long[] newCellKeys(int capacity) {
+        long[] keys = new long[capacity];
+        Arrays.fill(keys, NO_CELL);
+        return keys;
+    }
+
+    private static int spread(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static int spread(long key) {
+        return spread((int) (key ^ (key >>> 32)));
+    }
+
+    private static int cellIndex(double degrees) {
+        return (int) Math.floor(degrees / CELL_SIZE);
+    }
+
+    private static long cellKey(double lat, double lng) {
+        return cellKey(cellIndex(lng), cellIndex(lat));
+    }
+
+    private static long cellKey(int x, int y) {
+        return ((long) Math.floorMod(x, GRID_WIDTH) << 32) | (y & 0xffffffffL);
+    }
+
+    private static double distanceKm(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private static class NeighbourHeap {
+        private final int[] slots;
+        private final double[] distances;
+        private int size;
+
+        private NeighbourHeap(int capacity) {
+            this.slots = new int[capacity];
+            this.distances = new double[capacity];
+        }
+
+        private boolean isFull() {
+            return size == slots.length;
+        }
+
+        private double worst() {
+            return distances[0];
+        }
+
+        private void offer(int slot, double distance) {
+            if (size < slots.length) {
+                int i = size++;
+                while (i > 0) {
+                    int parent = (i - 1) / 2;
+                    if (distances[parent] >= distance) {
+                        break;
+                    }
+                    slots[i] = slots[parent];
+                    distances[i] = distances[parent];
+                    i = parent;
+                }
+                slots[i] = slot;
+                distances[i] = distance;
+            } else if (distance < distances[0]) {
+                replaceRoot(slot, distance);
+            }
+        }
+
+        private void replaceRoot(int slot, double distance) {
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && distances[child + 1] > distances[child]) {
+                    child++;
+                }
+                if (distances[child] <= distance) {
+                    break;
+                }
+                slots[i] = slots[child];
+                distances[i] = distances[child];
+                i = child;
+            }
+            slots[i] = slot;
+            distances[i] = distance;
+        }
+
+        private int[] sortedSlots() {
+            int[] sorted = new int[size];
+            for (int i = sorted.length - 1; i >= 0; i--) {
+                sorted[i] = slots[0];
+                size--;
+                if (size > 0) {
+                    replaceRoot(slots[size], distances[size]);
+                }
+            }
+            return sorted;
+        }
+    }
+
+    private class IdHeap {
+        private final int[] slots;
+        private int size;
+
+        private IdHeap(int capacity) {
+            this.slots = new int[capacity];
+        }
+
+        private void offer(int slot) {
+            if (size < slots.length) {
+                int i = size++;
+                while (i > 0) {
+                    int parent = (i - 1) / 2;
+                    if (compareText(idRefs[slots[parent]], idRefs[slot]) >= 0) {
+                        break;
+                    }
+                    slots[i] = slots[parent];
+                    i = parent;
+                }
+                slots[i] = slot;
+            } else if (compareText(idRefs[slot], idRefs[slots[0]]) < 0) {
+                replaceRoot(slot);
+            }
+        }
+
+        private void replaceRoot(int slot) {
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && compareText(idRefs[slots[child + 1]], idRefs[slots[child]]) > 0) {
+                    child++;
+                }
+                if (compareText(idRefs[slots[child]], idRefs[slot]) <= 0) {
+                    break;
+                }
+                slots[i] = slots[child];
+                i = child;
+            }
+            slots[i] = slot;
+        }
+
+        private int[] sortedSlots() {
+            int[] sorted = new int[size];
+            for (int i = sorted.length - 1; i >= 0; i--) {
+                sorted[i] = slots[0];
+                size--;
+                if (size > 0) {
+                    replaceRoot(slots[size]);
+                }
+            }
+            return sorted;
+        }
+    }
+}
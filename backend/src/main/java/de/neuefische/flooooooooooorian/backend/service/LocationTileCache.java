@@ -0,0 +1,60 @@
+package de.neuefische.flooooooooooorian.backend.service;
+
+import de.neuefische.flooooooooooorian.backend.utils.TileMapper;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+@Component
+public class LocationTileCache {
+
+    public static final int MAX_ENTRIES = 4096;
+
+    private final Map<String, byte[]> tiles = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+    private long generation;
+
+    public byte[] get(int zoom, int x, int y, Supplier<byte[]> loader) {
+        String key = toKey(zoom, x, y);
+        long loadedGeneration;
+        synchronized (tiles) {
+            byte[] cached = tiles.get(key);
+            if (cached != null) {
+                return cached;
+            }
+            loadedGeneration = generation;
+        }
+        byte[] tile = loader.get();
+        synchronized (tiles) {
+            if (loadedGeneration == generation) {
+                tiles.put(key, tile);
+            }
+        }
+        return tile;
+    }
+
+    public void evict(double lat, double lng) {
+        synchronized (tiles) {
+            generation++;
+            for (int zoom = 0; zoom <= LocationService.MAX_ZOOM; zoom++) {
+                tiles.remove(toKey(zoom, TileMapper.lngToTileX(lng, zoom), TileMapper.latToTileY(lat, zoom)));
+            }
+        }
+    }
+
+    public int size() {
+        synchronized (tiles) {
+            return tiles.size();
+        }
+    }
+
+    private static String toKey(int zoom, int x, int y) {
+        return zoom + "/" + x + "/" + y;
+    }
+}
@@ -0,0 +1,33 @@
+package de.neuefische.flooooooooooorian.backend.service;
+
+import de.neuefische.flooooooooooorian.backend.event.UserProfileChangedEvent;
+import de.neuefische.flooooooooooorian.backend.repository.LocationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+@Service
+public class OwnerSnapshotFanOutService {
+
+    private final LocationRepository locationRepository;
+    private final Cache locationCache;
+    private final Cache boxCache;
+
+    @Autowired
+    public OwnerSnapshotFanOutService(LocationRepository locationRepository, CacheManager cacheManager) {
+        this.locationRepository = locationRepository;
+        this.locationCache = cacheManager.getCache(LocationService.LOCATION_CACHE);
+        this.boxCache = cacheManager.getCache(LocationService.BOX_CACHE);
+    }
+
+    @Async
+    @EventListener
+    public void onUserProfileChanged(UserProfileChangedEvent event) {
+        locationRepository.updateOwnerSnapshots(event.getOwner());
+        locationCache.clear();
+        boxCache.clear();
+    }
+}
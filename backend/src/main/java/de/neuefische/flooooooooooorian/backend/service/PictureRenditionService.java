@@ -0,0 +1,201 @@
+package de.neuefische.flooooooooooorian.backend.service;
+
+import de.neuefische.flooooooooooorian.backend.model.Picture;
+import de.neuefische.flooooooooooorian.backend.model.PictureRendition;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+
+@Service
+public class PictureRenditionService {
+
+    public static final String WEBP_FORMAT = "webp";
+    public static final String JPEG_FORMAT = "jpg";
+    public static final String PNG_FORMAT = "png";
+
+    private final PictureStorage pictureStorage;
+    private final List<Integer> widths;
+    private final Duration timeout;
+    private final long maxPixels;
+    private final ThreadPoolExecutor executor;
+    private final boolean webpAvailable;
+    private final Counter saturatedCounter;
+    private final Counter timeoutCounter;
+    private final Counter interruptedCounter;
+    private final Counter errorCounter;
+
+    @Autowired
+    public PictureRenditionService(PictureStorage pictureStorage,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${picture.renditions.widths:128,512,1600}") List<Integer> widths,
+                                   @Value("${picture.renditions.workers:2}") int workers,
+                                   @Value("${picture.renditions.queue-capacity:64}") int queueCapacity,
+                                   @Value("${picture.renditions.timeout:30s}") Duration timeout,
+                                   @Value("${picture.renditions.max-pixels:100000000}") long maxPixels) {
+        this.pictureStorage = pictureStorage;
+        this.widths = widths.stream().sorted().distinct().collect(Collectors.toList());
+        this.timeout = timeout;
+        this.maxPixels = maxPixels;
+        this.executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(queueCapacity, 1)), new CustomizableThreadFactory("picture-rendition-"));
+        this.webpAvailable = ImageIO.getImageWritersByFormatName(WEBP_FORMAT).hasNext();
+        this.saturatedCounter = meterRegistry.counter("picture.renditions.saturated");
+        this.timeoutCounter = meterRegistry.counter("picture.renditions.failed", "reason", "timeout");
+        this.interruptedCounter = meterRegistry.counter("picture.renditions.failed", "reason", "interrupted");
+        this.errorCounter = meterRegistry.counter("picture.renditions.failed", "reason", "error");
+    }
+
+    public Picture withRenditions(Picture picture, InputStreamSource image) {
+        picture.setRenditions(pictureStorage.transformedRenditions(picture, widths)
+                .orElseGet(() -> createRenditions(image)));
+        return picture;
+    }
+
+    public List<PictureRendition> createRenditions(InputStreamSource image) {
+        Future<List<PictureRendition>> renditions;
+        try {
+            renditions = executor.submit(() -> render(image));
+        } catch (RejectedExecutionException e) {
+            saturatedCounter.increment();
+            return renderOnCaller(image);
+        }
+        try {
+            return renditions.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            renditions.cancel(true);
+            Thread.currentThread().interrupt();
+            interruptedCounter.increment();
+            return List.of();
+        } catch (TimeoutException e) {
+            renditions.cancel(true);
+            timeoutCounter.increment();
+            return List.of();
+        } catch (ExecutionException e) {
+            errorCounter.increment();
+            return List.of();
+        }
+    }
+
+    private List<PictureRendition> renderOnCaller(InputStreamSource image) {
+        try {
+            return render(image);
+        } catch (IOException | RuntimeException e) {
+            errorCounter.increment();
+            return List.of();
+        }
+    }
+
+    List<PictureRendition> render(InputStreamSource image) throws IOException {
+        try (InputStream inputStream = image.getInputStream();
+             ImageInputStream imageInputStream = ImageIO.createImageInputStream(inputStream)) {
+            if (imageInputStream == null) {
+                return List.of();
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(imageInputStream);
+            if (!readers.hasNext()) {
+                return List.of();
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(imageInputStream, true, true);
+                return render(reader);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private List<PictureRendition> render(ImageReader reader) throws IOException {
+        int originalWidth = reader.getWidth(0);
+        int originalHeight = reader.getHeight(0);
+        if ((long) originalWidth * originalHeight > maxPixels) {
+            return List.of();
+        }
+        List<Integer> targetWidths = widths.stream().filter(width -> width < originalWidth).collect(Collectors.toList());
+        if (targetWidths.isEmpty()) {
+            return List.of();
+        }
+
+        ImageReadParam param = reader.getDefaultReadParam();
+        int subsampling = Math.max(1, originalWidth / (2 * targetWidths.get(targetWidths.size() - 1)));
+        param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+        BufferedImage decoded = reader.read(0, param);
+
+        boolean alpha = decoded.getColorModel().hasAlpha();
+        String format = webpAvailable ? WEBP_FORMAT : alpha ? PNG_FORMAT : JPEG_FORMAT;
+        List<PictureRendition> renditions = new ArrayList<>();
+        BufferedImage source = decoded;
+        for (int i = targetWidths.size() - 1; i >= 0; i--) {
+            int width = targetWidths.get(i);
+            int height = Math.max(1, Math.round((float) originalHeight * width / originalWidth));
+            source = scale(source, width, height, alpha);
+            Picture stored = pictureStorage.store(encode(source, format));
+            renditions.add(PictureRendition.builder()
+                    .width(width)
+                    .height(height)
+                    .format(format)
+                    .url(stored.getUrl())
+                    .build());
+        }
+        renditions.sort(Comparator.comparingInt(PictureRendition::getWidth));
+        return renditions;
+    }
+
+    private static BufferedImage scale(BufferedImage image, int width, int height, boolean alpha) {
+        BufferedImage current = image;
+        do {
+            int stepWidth = Math.max(width, current.getWidth() / 2);
+            int stepHeight = stepWidth == width ? height : Math.max(height, current.getHeight() / 2);
+            BufferedImage step = new BufferedImage(stepWidth, stepHeight, alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = step.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graphics.drawImage(current, 0, 0, stepWidth, stepHeight, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = step;
+        } while (current.getWidth() > width);
+        return current;
+    }
+
+    private static byte[] encode(BufferedImage image, String format) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        if (!ImageIO.write(image, format, outputStream)) {
+            throw new IOException("No image writer for " + format);
+        }
+        return outputStream.toByteArray();
+    }
+
+    int queued() {
+        return executor.getQueue().size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -4,9 +4,12 @@ import de.neuefische.flooooooooooorian.backend.model.Picture;
 import de.neuefische.flooooooooooorian.backend.repository.PictureRepository;
 import de.neuefische.flooooooooooorian.backend.security.model.User;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
+import java.util.*;
+import java.util.stream.Collectors;
 
 @Service
 public class PictureService {
@@ -19,8 +22,63 @@ public class PictureService {
     }
 
     public Picture createPicture(Picture picture, User user) {
+        if (picture.getContentHash() != null) {
+            Optional<Picture> existing = findByContentHash(picture.getContentHash());
+            if (existing.isPresent()) {
+                return existing.get();
+            }
+        }
         picture.setOwner(user);
         picture.setCreationDate(Instant.now());
-        return pictureRepository.save(picture);
+        try {
+            return pictureRepository.save(picture);
+        } catch (DuplicateKeyException e) {
+            return findByContentHash(picture.getContentHash()).orElseThrow(() -> e);
+        }
+    }
+
+    public List<Picture> createPictures(List<Picture> pictures, User user) {
+        Set<String> contentHashes = pictures.stream()
+                .map(Picture::getContentHash)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<String, Picture> knownPictures = new HashMap<>();
+        if (!contentHashes.isEmpty()) {
+            pictureRepository.findAllByContentHashIn(contentHashes)
+                    .forEach(picture -> knownPictures.put(picture.getContentHash(), picture));
+        }
+
+        Instant now = Instant.now();
+        List<Picture> result = new ArrayList<>();
+        List<Picture> newPictures = new ArrayList<>();
+        for (Picture picture : pictures) {
+            Picture known = picture.getContentHash() != null ? knownPictures.get(picture.getContentHash()) : null;
+            if (known != null) {
+                result.add(known);
+                continue;
+            }
+            picture.setOwner(user);
+            picture.setCreationDate(now);
+            if (picture.getContentHash() != null) {
+                knownPictures.put(picture.getContentHash(), picture);
+            }
+            newPictures.add(picture);
+            result.add(picture);
+        }
+
+        if (!newPictures.isEmpty()) {
+            try {
+                pictureRepository.insertAll(newPictures);
+            } catch (DuplicateKeyException e) {
+                return result.stream()
+                        .map(picture -> createPicture(picture, user))
+                        .collect(Collectors.toList());
+            }
+        }
+        return result;
+    }
+
+    public Optional<Picture> findByContentHash(String contentHash) {
+        return pictureRepository.findByContentHash(contentHash);
     }
 }
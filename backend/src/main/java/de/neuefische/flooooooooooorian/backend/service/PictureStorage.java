@@ -0,0 +1,24 @@
+package de.neuefische.flooooooooooorian.backend.service;
+
+import de.neuefische.flooooooooooorian.backend.model.Picture;
+import de.neuefische.flooooooooooorian.backend.model.PictureRendition;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+
+public interface PictureStorage {
+
+    String STORE_TIMER = "picture.storage.store";
+
+    Picture store(MultipartFile image) throws IOException;
+
+    Picture store(byte[] image) throws IOException;
+
+    void delete(Picture picture) throws IOException;
+
+    default Optional<List<PictureRendition>> transformedRenditions(Picture picture, List<Integer> widths) {
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,50 @@
+package de.neuefische.flooooooooooorian.backend.service;
+
+import de.neuefische.flooooooooooorian.backend.model.Picture;
+import de.neuefische.flooooooooooorian.backend.utils.ContentHash;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+
+@Service
+public class PictureUploadService {
+
+    private final PictureStorage pictureStorage;
+    private final PictureService pictureService;
+    private final PictureRenditionService pictureRenditionService;
+
+    @Autowired
+    public PictureUploadService(PictureStorage pictureStorage, PictureService pictureService, PictureRenditionService pictureRenditionService) {
+        this.pictureStorage = pictureStorage;
+        this.pictureService = pictureService;
+        this.pictureRenditionService = pictureRenditionService;
+    }
+
+    public Picture upload(MultipartFile image) throws IOException {
+        String contentHash;
+        try (InputStream inputStream = image.getInputStream()) {
+            contentHash = ContentHash.sha256(inputStream);
+        }
+        Optional<Picture> existing = findDuplicate(contentHash);
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+        Picture picture = pictureStorage.store(image);
+        picture.setContentHash(contentHash);
+        return pictureRenditionService.withRenditions(picture, image);
+    }
+
+    public Optional<Picture> findDuplicate(String contentHash) {
+        return pictureService.findByContentHash(contentHash);
+    }
+
+    public void discard(Picture picture) throws IOException {
+        if (findDuplicate(picture.getContentHash()).isEmpty()) {
+            pictureStorage.delete(picture);
+        }
+    }
+}
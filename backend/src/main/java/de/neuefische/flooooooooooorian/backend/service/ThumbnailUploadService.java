@@ -0,0 +1,174 @@
+package de.neuefische.flooooooooooorian.backend.service;
+
+import de.neuefische.flooooooooooorian.backend.dto.location.LocationCreationDto;
+import de.neuefische.flooooooooooorian.backend.model.Location;
+import de.neuefische.flooooooooooorian.backend.model.Picture;
+import de.neuefische.flooooooooooorian.backend.security.model.User;
+import de.neuefische.flooooooooooorian.backend.utils.ContentHash;
+import de.neuefische.flooooooooooorian.backend.utils.FileMultipartFile;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.*;
+
+@Service
+public class ThumbnailUploadService {
+
+    private static final int STALE_BATCH_SIZE = 100;
+
+    private final PictureUploadService pictureUploadService;
+    private final LocationService locationService;
+    private final Semaphore permits;
+    private final ExecutorService executor;
+    private final int maxAttempts;
+    private final long backoffMillis;
+    private final long maxBackoffMillis;
+    private final Duration staleAfter;
+    private final Counter orphanedCounter;
+
+    @Autowired
+    public ThumbnailUploadService(PictureUploadService pictureUploadService,
+                                  LocationService locationService,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${thumbnail.upload.workers:4}") int workers,
+                                  @Value("${thumbnail.upload.queue-capacity:32}") int queueCapacity,
+                                  @Value("${thumbnail.upload.max-attempts:3}") int maxAttempts,
+                                  @Value("${thumbnail.upload.backoff:500ms}") Duration backoff,
+                                  @Value("${thumbnail.upload.max-backoff:10s}") Duration maxBackoff,
+                                  @Value("${thumbnail.upload.stale-after:10m}") Duration staleAfter) {
+        this.pictureUploadService = pictureUploadService;
+        this.locationService = locationService;
+        this.permits = new Semaphore(workers + queueCapacity);
+        this.executor = Executors.newFixedThreadPool(workers, new CustomizableThreadFactory("thumbnail-upload-"));
+        this.maxAttempts = Math.max(maxAttempts, 1);
+        this.backoffMillis = backoff.toMillis();
+        this.maxBackoffMillis = maxBackoff.toMillis();
+        this.staleAfter = staleAfter;
+        this.orphanedCounter = meterRegistry.counter("thumbnail.upload.orphaned");
+    }
+
+    public Location createLocation(LocationCreationDto locationCreationDto, MultipartFile thumbnail, User user) throws IOException {
+        String contentHash;
+        try (InputStream inputStream = thumbnail.getInputStream()) {
+            contentHash = ContentHash.sha256(inputStream);
+        }
+        Optional<Picture> duplicate = pictureUploadService.findDuplicate(contentHash);
+        if (duplicate.isPresent()) {
+            return locationService.createLocation(locationCreationDto, duplicate.get(), user);
+        }
+        if (!permits.tryAcquire()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Upload queue is full, try again later");
+        }
+        Path spooled = null;
+        try {
+            spooled = Files.createTempFile("thumbnail-", ".upload");
+            thumbnail.transferTo(spooled);
+            MultipartFile image = new FileMultipartFile(spooled, thumbnail.getName(), thumbnail.getOriginalFilename(), thumbnail.getContentType());
+            Location location = locationService.createPendingLocation(locationCreationDto, user);
+            Path file = spooled;
+            executor.execute(() -> {
+                try {
+                    upload(location.getId(), image, user);
+                } finally {
+                    deleteSpooled(file);
+                    permits.release();
+                }
+            });
+            return location;
+        } catch (IOException | RuntimeException e) {
+            deleteSpooled(spooled);
+            permits.release();
+            throw e;
+        }
+    }
+
+    public int availablePermits() {
+        return permits.availablePermits();
+    }
+
+    void upload(String locationId, MultipartFile image, User user) {
+        Picture picture = uploadWithRetry(image);
+        if (picture == null) {
+            locationService.markThumbnailFailed(locationId);
+            return;
+        }
+        try {
+            locationService.attachThumbnail(locationId, picture, user);
+        } catch (RuntimeException e) {
+            locationService.markThumbnailFailed(locationId);
+            discard(picture);
+        }
+    }
+
+    private void discard(Picture picture) {
+        try {
+            pictureUploadService.discard(picture);
+        } catch (IOException | RuntimeException e) {
+            orphanedCounter.increment();
+        }
+    }
+
+    private static void deleteSpooled(Path spooled) {
+        if (spooled == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(spooled);
+        } catch (IOException e) {
+            spooled.toFile().deleteOnExit();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${thumbnail.upload.stale-check-interval:60000}")
+    public void failStalePendingUploads() {
+        Instant createdBefore = Instant.now().minus(staleAfter);
+        int failed;
+        do {
+            failed = locationService.failStalePendingThumbnails(createdBefore, STALE_BATCH_SIZE);
+        } while (failed == STALE_BATCH_SIZE);
+    }
+
+    private Picture uploadWithRetry(MultipartFile image) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return pictureUploadService.upload(image);
+            } catch (IOException | RuntimeException e) {
+                if (attempt >= maxAttempts) {
+                    return null;
+                }
+            }
+            try {
+                Thread.sleep(backoffWithJitter(attempt));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+    }
+
+    long backoffWithJitter(int attempt) {
+        long ceiling = Math.min(maxBackoffMillis, backoffMillis << Math.min(attempt - 1, 20));
+        return ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling / 2 + 1);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
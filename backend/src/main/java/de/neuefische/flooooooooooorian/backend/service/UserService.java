@@ -1,6 +1,6 @@
 package de.neuefische.flooooooooooorian.backend.service;
 
-import de.neuefische.flooooooooooorian.backend.config.EmailConfig;
+import de.neuefische.flooooooooooorian.backend.dto.CursorPageDto;
 import de.neuefische.flooooooooooorian.backend.dto.login.EmailVerificationDto;
 import de.neuefische.flooooooooooorian.backend.dto.login.LoginJWTDto;
 import de.neuefische.flooooooooooorian.backend.dto.login.PasswordResetDto;
@@ -8,6 +8,7 @@ import de.neuefische.flooooooooooorian.backend.dto.login.google.GoogleAccessToke
 import de.neuefische.flooooooooooorian.backend.dto.login.google.GoogleProfileDto;
 import de.neuefische.flooooooooooorian.backend.dto.user.ProfileDto;
 import de.neuefische.flooooooooooorian.backend.dto.user.UserDto;
+import de.neuefische.flooooooooooorian.backend.event.UserProfileChangedEvent;
 import de.neuefische.flooooooooooorian.backend.model.Location;
 import de.neuefische.flooooooooooorian.backend.security.dto.UserCreationDto;
 import de.neuefische.flooooooooooorian.backend.security.dto.UserLoginDto;
@@ -15,18 +16,22 @@ import de.neuefische.flooooooooooorian.backend.security.model.CustomUserDetails;
 import de.neuefische.flooooooooooorian.backend.security.model.User;
 import de.neuefische.flooooooooooorian.backend.security.repository.UserRepository;
 import de.neuefische.flooooooooooorian.backend.security.service.JwtUtilsService;
+import de.neuefische.flooooooooooorian.backend.security.service.PasswordHashingService;
+import de.neuefische.flooooooooooorian.backend.security.service.TokenRevocationService;
+import de.neuefische.flooooooooooorian.backend.security.service.UserSecurityService;
+import de.neuefische.flooooooooooorian.backend.utils.CursorMapper;
 import de.neuefische.flooooooooooorian.backend.utils.LocationMapper;
 import io.jsonwebtoken.Claims;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
-import org.springframework.mail.SimpleMailMessage;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.DisabledException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
@@ -34,28 +39,38 @@ import java.time.Instant;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
 public class UserService {
+
+    public static final int PROFILE_LOCATION_LIMIT = 20;
+
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
     private final JwtUtilsService jwtUtilsService;
     private final AuthenticationManager authenticationManager;
     private final LocationService locationService;
-    private final EmailConfig emailConfig;
+    private final EmailOutboxService emailOutboxService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UserSecurityService userSecurityService;
+    private final TokenRevocationService tokenRevocationService;
     @Value("${domain_name:}")
     private String domain_name;
 
     @Autowired
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, JwtUtilsService jwtUtilsService, AuthenticationManager authenticationManager, LocationService locationService, EmailConfig emailConfig) {
+    public UserService(UserRepository userRepository, PasswordHashingService passwordHashingService, JwtUtilsService jwtUtilsService, AuthenticationManager authenticationManager, LocationService locationService, EmailOutboxService emailOutboxService, ApplicationEventPublisher eventPublisher, UserSecurityService userSecurityService, TokenRevocationService tokenRevocationService) {
         this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHashingService = passwordHashingService;
         this.jwtUtilsService = jwtUtilsService;
         this.authenticationManager = authenticationManager;
         this.locationService = locationService;
-        this.emailConfig = emailConfig;
+        this.emailOutboxService = emailOutboxService;
+        this.eventPublisher = eventPublisher;
+        this.userSecurityService = userSecurityService;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     public User registerUserByEmail(UserCreationDto userCreationDto) {
@@ -66,7 +81,7 @@ public class UserService {
                     .full_name(userCreationDto.getName())
                     .role("User")
                     .joinedOn(Instant.now())
-                    .password(passwordEncoder.encode(userCreationDto.getPassword()))
+                    .password(passwordHashingService.encode(userCreationDto.getPassword()))
                     .build();
 
             return userRepository.save(emailUser);
@@ -76,8 +91,14 @@ public class UserService {
 
     public User loginUserWithGoogle(GoogleProfileDto googleProfileDto, GoogleAccessTokenDto googleAccessTokenDto) {
         if (userRepository.existsUserByEmail(googleProfileDto.getEmail())) {
-            Optional<User> google_user = userRepository.findUserByEmail(googleProfileDto.getEmail());
-            return google_user.get();
+            User google_user = userRepository.findUserByEmail(googleProfileDto.getEmail()).get();
+            if (!Objects.equals(google_user.getFull_name(), googleProfileDto.getName()) || !Objects.equals(google_user.getAvatar_url(), googleProfileDto.getPicture())) {
+                google_user.setFull_name(googleProfileDto.getName());
+                google_user.setAvatar_url(googleProfileDto.getPicture());
+                google_user = userRepository.save(google_user);
+                eventPublisher.publishEvent(new UserProfileChangedEvent(LocationMapper.toOwnerSnapshot(google_user)));
+            }
+            return google_user;
         } else {
             User google_user = User.builder()
                     .google_access_token(googleAccessTokenDto.getAccess_token())
@@ -97,32 +118,35 @@ public class UserService {
         Authentication auth;
         try {
             UsernamePasswordAuthenticationToken usernamePasswordData = new UsernamePasswordAuthenticationToken(userLoginDto.getEmail(), userLoginDto.getPassword());
-            auth = authenticationManager.authenticate(usernamePasswordData);
+            auth = passwordHashingService.execute(() -> authenticationManager.authenticate(usernamePasswordData));
 
         }
+        catch (ResponseStatusException e) {
+            throw e;
+        }
         catch (DisabledException e) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Email not verified");
         }
         catch (Exception e) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Bad Credentials");
         }
+        CustomUserDetails userDetails = (CustomUserDetails) auth.getPrincipal();
+        String[] authorities = auth.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toArray(String[]::new);
         HashMap<String, Object> claims = new HashMap<>();
-        claims.put("name", ((CustomUserDetails)auth.getPrincipal()).getFullName());
+        claims.put(JwtUtilsService.NAME_CLAIM, userDetails.getFullName());
+        claims.put(JwtUtilsService.ROLE_CLAIM, authorities.length > 0 ? authorities[0] : null);
+        claims.put(JwtUtilsService.USER_ID_CLAIM, userDetails.getId());
+        claims.put(JwtUtilsService.VERSION_CLAIM, userDetails.getTokenVersion());
         return LoginJWTDto.builder()
-                .authorities(auth.getAuthorities().stream()
-                        .map(GrantedAuthority::getAuthority)
-                        .toArray(String[]::new))
+                .authorities(authorities)
                 .jwt(jwtUtilsService.createToken(claims, auth.getName()))
                 .build();
     }
 
     public void startEmailVerification(String email) {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setFrom("info.photohunter@gmail.com");
-            message.setTo(email);
-            message.setSubject("Email Verification PhotoHunter");
-            message.setText("Hallo \n" + domain_name + "/email/?token=" + jwtUtilsService.createToken(new HashMap<>(), email));
-            emailConfig.getJavaMailSender().send(message);
+        emailOutboxService.enqueue(email, "Email Verification PhotoHunter", "Hallo \n" + domain_name + "/email/?token=" + jwtUtilsService.createToken(new HashMap<>(), email));
     }
 
     public boolean verificateEmailToken(EmailVerificationDto emailVerificationDto) {
@@ -135,18 +159,14 @@ public class UserService {
         }
         user.setEnabled(true);
         userRepository.save(user);
+        userSecurityService.evictPrincipal(user.getEmail());
         return true;
     }
 
     public void sendPasswordResetEmail(String email) {
         Optional<User> userOptional = userRepository.findUserByEmail(email);
         User user = userOptional.orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST));
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setFrom("info.photohunter@gmail.com");
-        message.setTo(email);
-        message.setSubject("Password Reset PhotoHunter");
-        message.setText("Hallo \n" + domain_name + "/password/?token=" + jwtUtilsService.createPasswordResetToken(new HashMap<>(), user));
-        emailConfig.getJavaMailSender().send(message);
+        emailOutboxService.enqueue(email, "Password Reset PhotoHunter", "Hallo \n" + domain_name + "/password/?token=" + jwtUtilsService.createPasswordResetToken(new HashMap<>(), user));
     }
 
     public boolean resetPassword(PasswordResetDto passwordResetDto) {
@@ -154,8 +174,11 @@ public class UserService {
         User user = optionalUser.orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST));
         jwtUtilsService.parseClaimsForPasswordResetToken(passwordResetDto.getToken(), user);
 
-        user.setPassword(passwordEncoder.encode(passwordResetDto.getPassword()));
+        user.setPassword(passwordHashingService.encode(passwordResetDto.getPassword()));
+        user.setTokenVersion(user.getTokenVersion() + 1);
         userRepository.save(user);
+        userSecurityService.evictPrincipal(user.getEmail());
+        tokenRevocationService.revoke(user);
         return true;
     }
 
@@ -166,7 +189,7 @@ public class UserService {
     public ProfileDto getProfile(String email) {
         Optional<User> optionalUser = userRepository.findUserByEmail(email);
         User user = optionalUser.orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST));
-        List<Location> locations = locationService.getLocationsFromUser(user);
+        List<Location> locations = locationService.getLocationsFromUser(user, PROFILE_LOCATION_LIMIT);
 
         return ProfileDto.builder()
                 .user(UserDto.builder()
@@ -174,10 +197,16 @@ public class UserService {
                         .full_name(user.getFull_name())
                         .build())
                 .locations(locations.stream().map(LocationMapper::toLocationDto).collect(Collectors.toList()))
+                .locationCount(locationService.countLocationsFromUser(user))
                 .build();
     }
 
-    public Iterable<User> getUsers() {
-        return userRepository.findAll();
+    public CursorPageDto<User> getUserPage(Optional<String> cursor, int limit) {
+        int pageSize = CursorMapper.toPageSize(limit);
+        PageRequest pageable = CursorMapper.toKeysetPageable(pageSize);
+        List<User> users = cursor.map(CursorMapper::decode)
+                .map(after -> userRepository.findAllByIdGreaterThan(after, pageable))
+                .orElseGet(() -> userRepository.findAllBy(pageable));
+        return CursorMapper.toPage(users, pageSize, User::getId);
     }
 }
@@ -0,0 +1,43 @@
+package de.neuefische.flooooooooooorian.backend.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+public class ContentHash {
+
+    public static final String ALGORITHM = "SHA-256";
+    private static final int BUFFER_SIZE = 8192;
+
+    public static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static String sha256(InputStream inputStream) throws IOException {
+        MessageDigest digest = newDigest();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+        while ((read = inputStream.read(buffer)) != -1) {
+            digest.update(buffer, 0, read);
+        }
+        return toHex(digest);
+    }
+
+    public static String sha256(byte[] content) {
+        return toHex(newDigest().digest(content));
+    }
+
+    public static String toHex(MessageDigest digest) {
+        return toHex(digest.digest());
+    }
+
+    private static String toHex(byte[] hash) {
+        return String.format("%0" + hash.length * 2 + "x", new BigInteger(1, hash));
+    }
+}
@@ -0,0 +1,47 @@
+package de.neuefische.flooooooooooorian.backend.utils;
+
+import de.neuefische.flooooooooooorian.backend.dto.CursorPageDto;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+public class CursorMapper {
+
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    public static String encode(String id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(id.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String decode(String cursor) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cursor not valid");
+        }
+    }
+
+    public static int toPageSize(int limit) {
+        return Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+    }
+
+    public static PageRequest toKeysetPageable(int pageSize) {
+        return PageRequest.of(0, pageSize + 1, Sort.by("id"));
+    }
+
+    public static <T> CursorPageDto<T> toPage(List<T> fetched, int pageSize, Function<T, String> idGetter) {
+        if (fetched.size() <= pageSize) {
+            return new CursorPageDto<>(fetched, null);
+        }
+        List<T> items = new ArrayList<>(fetched.subList(0, pageSize));
+        return new CursorPageDto<>(items, encode(idGetter.apply(items.get(pageSize - 1))));
+    }
+}
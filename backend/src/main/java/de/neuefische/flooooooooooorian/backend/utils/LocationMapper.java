@@ -1,18 +1,35 @@
 package de.neuefische.flooooooooooorian.backend.utils;
 
 import de.neuefische.flooooooooooorian.backend.dto.location.LocationDto;
+import de.neuefische.flooooooooooorian.backend.dto.location.LocationSummaryDto;
 import de.neuefische.flooooooooooorian.backend.dto.PictureDto;
 import de.neuefische.flooooooooooorian.backend.dto.user.UserDto;
 import de.neuefische.flooooooooooorian.backend.model.Location;
+import de.neuefische.flooooooooooorian.backend.model.OwnerSnapshot;
+import de.neuefische.flooooooooooorian.backend.model.Picture;
+import de.neuefische.flooooooooooorian.backend.model.PictureRendition;
+import de.neuefische.flooooooooooorian.backend.security.model.User;
+
+import java.util.Comparator;
 
 public class LocationMapper {
 
+    public static final int ORIGINAL_WIDTH = Integer.MAX_VALUE;
+    public static final int SUMMARY_THUMBNAIL_WIDTH = 512;
+    public static final int GALLERY_WIDTH = 1600;
+
     public static LocationDto toLocationDto(Location location) {
+        return toLocationDto(location, ORIGINAL_WIDTH);
+    }
+
+    public static LocationDto toLocationDto(Location location, int width) {
+        UserDto owner = location.getOwner() != null ? UserDto.builder()
+                .avatar_url(location.getOwner().getAvatar_url())
+                .full_name(location.getOwner().getFull_name())
+                .build() : null;
         return LocationDto.builder()
-                .owner(UserDto.builder()
-                        .avatar_url(location.getOwner().getAvatar_url())
-                        .full_name(location.getOwner().getFull_name())
-                        .build())
+                .id(location.getId())
+                .owner(owner)
                 .creationDate(location.getCreationDate())
                 .description(location.getDescription())
                 .lat(location.getLat())
@@ -23,12 +40,40 @@ public class LocationMapper {
                 .title(location.getTitle())
                 .thumbnail(location.getThumbnail() != null ? PictureDto.builder()
                         .creationDate(location.getThumbnail().getCreationDate())
-                        .url(location.getThumbnail().getUrl())
-                        .owner(UserDto.builder()
-                                .avatar_url(location.getOwner().getAvatar_url())
-                                .full_name(location.getOwner().getFull_name())
-                                .build())
+                        .url(urlForWidth(location.getThumbnail(), width))
+                        .owner(owner)
                         .build() : null)
+                .thumbnailState(location.getThumbnailState())
+                .build();
+    }
+
+    public static OwnerSnapshot toOwnerSnapshot(User user) {
+        return OwnerSnapshot.builder()
+                .id(user.getId())
+                .full_name(user.getFull_name())
+                .avatar_url(user.getAvatar_url())
+                .build();
+    }
+
+    public static LocationSummaryDto toLocationSummaryDto(Location location) {
+        return LocationSummaryDto.builder()
+                .id(location.getId())
+                .lat(location.getLat())
+                .lng(location.getLng())
+                .title(location.getTitle())
+                .rating(location.getRating())
+                .thumbnailUrl(location.getThumbnail() != null ? urlForWidth(location.getThumbnail(), SUMMARY_THUMBNAIL_WIDTH) : null)
                 .build();
     }
+
+    public static String urlForWidth(Picture picture, int width) {
+        if (picture.getRenditions() == null) {
+            return picture.getUrl();
+        }
+        return picture.getRenditions().stream()
+                .filter(rendition -> rendition.getWidth() >= width)
+                .min(Comparator.comparingInt(PictureRendition::getWidth))
+                .map(PictureRendition::getUrl)
+                .orElse(picture.getUrl());
+    }
 }
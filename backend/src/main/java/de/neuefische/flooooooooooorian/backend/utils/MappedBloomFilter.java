@@ -0,0 +1,115 @@
+package de.neuefische.flooooooooooorian.backend.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class MappedBloomFilter implements Closeable {
+
+    private static final int MAGIC = 0x50484246;
+    private static final int HEADER_SIZE = 16;
+    private static final int SEGMENT_SHIFT = 30;
+    private static final long SEGMENT_SIZE = 1L << SEGMENT_SHIFT;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] segments;
+    private final long numBits;
+    private final int numHashes;
+
+    private MappedBloomFilter(FileChannel channel, FileChannel.MapMode mode, long numBits, int numHashes) throws IOException {
+        this.channel = channel;
+        this.numBits = numBits;
+        this.numHashes = numHashes;
+        long numBytes = numBits / 8;
+        this.segments = new MappedByteBuffer[(int) ((numBytes + SEGMENT_SIZE - 1) >>> SEGMENT_SHIFT)];
+        for (int i = 0; i < segments.length; i++) {
+            long offset = (long) i << SEGMENT_SHIFT;
+            segments[i] = channel.map(mode, HEADER_SIZE + offset, Math.min(SEGMENT_SIZE, numBytes - offset));
+        }
+    }
+
+    public static MappedBloomFilter create(Path path, long expectedInsertions, double falsePositiveRate) throws IOException {
+        long insertions = Math.max(expectedInsertions, 1);
+        long numBits = (long) Math.ceil(-insertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        numBits = Math.max(64, (numBits + 63) / 64 * 64);
+        int numHashes = Math.max(1, (int) Math.round((double) numBits / insertions * Math.log(2)));
+
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putLong(numBits).putInt(numHashes).flip();
+        channel.write(header, 0);
+        return new MappedBloomFilter(channel, FileChannel.MapMode.READ_WRITE, numBits, numHashes);
+    }
+
+    public static MappedBloomFilter open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        channel.read(header, 0);
+        header.flip();
+        if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC) {
+            channel.close();
+            throw new IOException("Not a bloom filter file: " + path);
+        }
+        long numBits = header.getLong();
+        int numHashes = header.getInt();
+        if (channel.size() < HEADER_SIZE + numBits / 8) {
+            channel.close();
+            throw new IOException("Truncated bloom filter file: " + path);
+        }
+        return new MappedBloomFilter(channel, FileChannel.MapMode.READ_ONLY, numBits, numHashes);
+    }
+
+    public void put(byte[] hash) {
+        long h1 = toLong(hash, 0);
+        long h2 = toLong(hash, 8);
+        for (int i = 0; i < numHashes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, numBits);
+            MappedByteBuffer segment = segments[(int) (bit >>> (SEGMENT_SHIFT + 3))];
+            int index = (int) ((bit >>> 3) & (SEGMENT_SIZE - 1));
+            segment.put(index, (byte) (segment.get(index) | (1 << (bit & 7))));
+        }
+    }
+
+    public boolean mightContain(byte[] hash) {
+        long h1 = toLong(hash, 0);
+        long h2 = toLong(hash, 8);
+        for (int i = 0; i < numHashes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, numBits);
+            MappedByteBuffer segment = segments[(int) (bit >>> (SEGMENT_SHIFT + 3))];
+            if ((segment.get((int) ((bit >>> 3) & (SEGMENT_SIZE - 1))) & (1 << (bit & 7))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long getNumBits() {
+        return numBits;
+    }
+
+    public int getNumHashes() {
+        return numHashes;
+    }
+
+    public void force() {
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private static long toLong(byte[] bytes, int offset) {
+        long value = 0;
+        for (int i = offset; i < offset + 8; i++) {
+            value = (value << 8) | (bytes[i] & 0xff);
+        }
+        return value;
+    }
+}
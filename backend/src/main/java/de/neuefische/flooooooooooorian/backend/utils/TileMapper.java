@@ -0,0 +1,36 @@
+package de.neuefische.flooooooooooorian.backend.utils;
+
+public class TileMapper {
+
+    public static final double MAX_MERCATOR_LAT = 85.05112878;
+
+    public static double tileToLng(int x, int zoom) {
+        return x / (double) (1L << zoom) * 360.0 - 180.0;
+    }
+
+    public static double tileToLat(int y, int zoom) {
+        double n = Math.PI - 2.0 * Math.PI * y / (1L << zoom);
+        return Math.toDegrees(Math.atan(Math.sinh(n)));
+    }
+
+    public static double lngToWorldX(double lng, int zoom) {
+        return (lng + 180.0) / 360.0 * (1L << zoom);
+    }
+
+    public static double latToWorldY(double lat, int zoom) {
+        double clamped = Math.toRadians(Math.min(Math.max(lat, -MAX_MERCATOR_LAT), MAX_MERCATOR_LAT));
+        return (1 - Math.log(Math.tan(clamped) + 1 / Math.cos(clamped)) / Math.PI) / 2 * (1L << zoom);
+    }
+
+    public static int lngToTileX(double lng, int zoom) {
+        return clampTile((int) Math.floor(lngToWorldX(lng, zoom)), zoom);
+    }
+
+    public static int latToTileY(double lat, int zoom) {
+        return clampTile((int) Math.floor(latToWorldY(lat, zoom)), zoom);
+    }
+
+    private static int clampTile(int tile, int zoom) {
+        return (int) Math.min(Math.max(tile, 0), (1L << zoom) - 1);
+    }
+}
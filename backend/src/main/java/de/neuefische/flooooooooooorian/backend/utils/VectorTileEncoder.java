@@ -0,0 +1,128 @@
+package de.neuefische.flooooooooooorian.backend.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class VectorTileEncoder {
+
+    private static final int LAYER = 3;
+    private static final int LAYER_NAME = 1;
+    private static final int LAYER_FEATURES = 2;
+    private static final int LAYER_KEYS = 3;
+    private static final int LAYER_VALUES = 4;
+    private static final int LAYER_EXTENT = 5;
+    private static final int LAYER_VERSION = 15;
+    private static final int FEATURE_TAGS = 2;
+    private static final int FEATURE_TYPE = 3;
+    private static final int FEATURE_GEOMETRY = 4;
+    private static final int VALUE_STRING = 1;
+    private static final int VALUE_DOUBLE = 3;
+    private static final int VALUE_SINT = 6;
+    private static final int GEOM_TYPE_POINT = 1;
+    private static final int COMMAND_MOVE_TO = 1;
+    private static final int WIRE_VARINT = 0;
+    private static final int WIRE_64BIT = 1;
+    private static final int WIRE_LENGTH_DELIMITED = 2;
+
+    private final String layerName;
+    private final int extent;
+    private final Map<String, Integer> keys = new LinkedHashMap<>();
+    private final Map<Object, Integer> values = new LinkedHashMap<>();
+    private final List<byte[]> features = new ArrayList<>();
+
+    public VectorTileEncoder(String layerName, int extent) {
+        this.layerName = layerName;
+        this.extent = extent;
+    }
+
+    public void addPoint(int x, int y, Map<String, Object> properties) {
+        ByteArrayOutputStream tags = new ByteArrayOutputStream();
+        properties.forEach((key, value) -> {
+            if (value != null) {
+                writeVarint(tags, keys.computeIfAbsent(key, k -> keys.size()));
+                writeVarint(tags, values.computeIfAbsent(value, v -> values.size()));
+            }
+        });
+
+        ByteArrayOutputStream geometry = new ByteArrayOutputStream();
+        writeVarint(geometry, (COMMAND_MOVE_TO & 0x7) | (1 << 3));
+        writeVarint(geometry, zigZag(x));
+        writeVarint(geometry, zigZag(y));
+
+        ByteArrayOutputStream feature = new ByteArrayOutputStream();
+        writeBytes(feature, FEATURE_TAGS, tags.toByteArray());
+        writeTag(feature, FEATURE_TYPE, WIRE_VARINT);
+        writeVarint(feature, GEOM_TYPE_POINT);
+        writeBytes(feature, FEATURE_GEOMETRY, geometry.toByteArray());
+        features.add(feature.toByteArray());
+    }
+
+    public int size() {
+        return features.size();
+    }
+
+    public byte[] encode() {
+        ByteArrayOutputStream layer = new ByteArrayOutputStream();
+        writeTag(layer, LAYER_VERSION, WIRE_VARINT);
+        writeVarint(layer, 2);
+        writeBytes(layer, LAYER_NAME, layerName.getBytes(StandardCharsets.UTF_8));
+        for (byte[] feature : features) {
+            writeBytes(layer, LAYER_FEATURES, feature);
+        }
+        for (String key : keys.keySet()) {
+            writeBytes(layer, LAYER_KEYS, key.getBytes(StandardCharsets.UTF_8));
+        }
+        for (Object value : values.keySet()) {
+            writeBytes(layer, LAYER_VALUES, encodeValue(value));
+        }
+        writeTag(layer, LAYER_EXTENT, WIRE_VARINT);
+        writeVarint(layer, extent);
+
+        ByteArrayOutputStream tile = new ByteArrayOutputStream();
+        writeBytes(tile, LAYER, layer.toByteArray());
+        return tile.toByteArray();
+    }
+
+    private static byte[] encodeValue(Object value) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        if (value instanceof Double || value instanceof Float) {
+            writeTag(out, VALUE_DOUBLE, WIRE_64BIT);
+            long bits = Double.doubleToLongBits(((Number) value).doubleValue());
+            for (int i = 0; i < 8; i++) {
+                out.write((int) (bits >>> (8 * i)) & 0xff);
+            }
+        } else if (value instanceof Number) {
+            writeTag(out, VALUE_SINT, WIRE_VARINT);
+            writeVarint(out, zigZag(((Number) value).longValue()));
+        } else {
+            writeBytes(out, VALUE_STRING, value.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        return out.toByteArray();
+    }
+
+    private static void writeBytes(ByteArrayOutputStream out, int field, byte[] bytes) {
+        writeTag(out, field, WIRE_LENGTH_DELIMITED);
+        writeVarint(out, bytes.length);
+        out.writeBytes(bytes);
+    }
+
+    private static void writeTag(ByteArrayOutputStream out, int field, int wireType) {
+        writeVarint(out, ((long) field << 3) | wireType);
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7fL) != 0) {
+            out.write((int) ((value & 0x7f) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+}
@@ -0,0 +1,19 @@
+package de.neuefische.flooooooooooorian.backend.config;
+
+import de.neuefische.flooooooooooorian.backend.dto.CursorPageDto;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+class CacheConfigTest {
+
+    @Test
+    void boxCacheWeighsPagesByItemCount() {
+        assertThat(CacheConfig.boxCacheWeight("viewport", new CursorPageDto<>(List.of("a", "b", "c"), "next")), is(4));
+        assertThat(CacheConfig.boxCacheWeight("viewport", new CursorPageDto<>(List.of(), null)), is(1));
+        assertThat(CacheConfig.boxCacheWeight("viewport", "other"), is(1));
+    }
+}
@@ -0,0 +1,59 @@
+package de.neuefische.flooooooooooorian.backend.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+
+import javax.servlet.ServletException;
+import java.io.IOException;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+class MultipartSizeFilterTest {
+
+    private final MultipartSizeFilter multipartSizeFilter = new MultipartSizeFilter(DataSize.ofBytes(50), DataSize.ofBytes(210));
+
+    @Test
+    void rejectsLargeMultipartOutsideGallery() throws ServletException, IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain filterChain = new MockFilterChain();
+
+        multipartSizeFilter.doFilter(multipartRequest("/api/location", DataSize.ofBytes(60)), response, filterChain);
+
+        assertThat(response.getStatus(), is(HttpStatus.PAYLOAD_TOO_LARGE.value()));
+        assertThat(filterChain.getRequest(), nullValue());
+    }
+
+    @Test
+    void allowsGalleryBudgetOnGalleryUpload() throws ServletException, IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain filterChain = new MockFilterChain();
+
+        multipartSizeFilter.doFilter(multipartRequest("/api/location/location_id/pictures", DataSize.ofBytes(200)), response, filterChain);
+
+        assertThat(response.getStatus(), is(HttpStatus.OK.value()));
+        assertThat(filterChain.getRequest(), notNullValue());
+    }
+
+    @Test
+    void rejectsGalleryUploadAboveGalleryBudget() throws ServletException, IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        multipartSizeFilter.doFilter(multipartRequest("/api/location/location_id/pictures", DataSize.ofBytes(220)), response, new MockFilterChain());
+
+        assertThat(response.getStatus(), is(HttpStatus.PAYLOAD_TOO_LARGE.value()));
+    }
+
+    private static MockHttpServletRequest multipartRequest(String uri, DataSize size) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", uri);
+        request.setContentType("multipart/form-data; boundary=boundary");
+        request.setContent(new byte[(int) size.toBytes()]);
+        return request;
+    }
+}
@@ -1,27 +1,35 @@
 package de.neuefische.flooooooooooorian.backend.controller;
 
-import de.neuefische.flooooooooooorian.backend.dto.admin.AdminUserDto;
+import de.neuefische.flooooooooooorian.backend.dto.CursorPageDto;
+import de.neuefische.flooooooooooorian.backend.dto.admin.CacheStatsDto;
 import de.neuefische.flooooooooooorian.backend.dto.login.LoginJWTDto;
 import de.neuefische.flooooooooooorian.backend.model.Location;
 import de.neuefische.flooooooooooorian.backend.repository.LocationRepository;
 import de.neuefische.flooooooooooorian.backend.security.dto.UserLoginDto;
 import de.neuefische.flooooooooooorian.backend.security.model.User;
 import de.neuefische.flooooooooooorian.backend.security.repository.UserRepository;
+import de.neuefische.flooooooooooorian.backend.security.service.UserSecurityService;
+import de.neuefische.flooooooooooorian.backend.service.LocationService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.cache.CacheManager;
 import org.springframework.http.*;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.util.MultiValueMap;
 
+import java.util.Arrays;
 import java.util.Objects;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.arrayContaining;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 import static org.junit.jupiter.api.Assertions.*;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
@@ -43,10 +51,14 @@ class AdminPageControllerTest {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private CacheManager cacheManager;
+
     @BeforeEach
     public void clearDb() {
         locationRepository.deleteAll();
         userRepository.deleteAll();
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
     }
 
     @Test
@@ -65,10 +77,13 @@ class AdminPageControllerTest {
         HttpHeaders headers = getHttpHeaderWithStaffAuthToken();
 
         HttpEntity<MultiValueMap<String, Object>> requestEntity = new HttpEntity<>(headers);
+        locationRepository.save(Location.builder().title("admin location").ownerId("owner_id").build());
 
-        ResponseEntity<Location[]> response = testRestTemplate.exchange("http://localhost:" + port + "/api/admin/locations/", HttpMethod.GET, requestEntity, Location[].class);
+        ResponseEntity<String> response = testRestTemplate.exchange("http://localhost:" + port + "/api/admin/locations/", HttpMethod.GET, requestEntity, String.class);
 
         assertThat(response.getStatusCode(), is(HttpStatus.OK));
+        assertThat(response.getBody(), containsString("admin location"));
+        assertThat(response.getBody(), not(containsString("ownerId")));
     }
 
     @Test
@@ -88,9 +103,21 @@ class AdminPageControllerTest {
 
         HttpEntity<MultiValueMap<String, Object>> requestEntity = new HttpEntity<>(headers);
 
-        ResponseEntity<AdminUserDto[]> response = testRestTemplate.exchange("http://localhost:" + port + "/api/admin/users/", HttpMethod.GET, requestEntity, AdminUserDto[].class);
+        ResponseEntity<CursorPageDto> response = testRestTemplate.exchange("http://localhost:" + port + "/api/admin/users/", HttpMethod.GET, requestEntity, CursorPageDto.class);
+
+        assertThat(response.getStatusCode(), is(HttpStatus.OK));
+    }
+
+    @Test
+    void getCacheStatsStaffUser() {
+        HttpHeaders headers = getHttpHeaderWithStaffAuthToken();
+
+        HttpEntity<MultiValueMap<String, Object>> requestEntity = new HttpEntity<>(headers);
+
+        ResponseEntity<CacheStatsDto[]> response = testRestTemplate.exchange("http://localhost:" + port + "/api/admin/caches", HttpMethod.GET, requestEntity, CacheStatsDto[].class);
 
         assertThat(response.getStatusCode(), is(HttpStatus.OK));
+        assertThat(Arrays.stream(response.getBody()).map(CacheStatsDto::getName).toArray(), arrayContaining(LocationService.BOX_CACHE, LocationService.LOCATION_CACHE, UserSecurityService.PRINCIPAL_CACHE));
     }
 
     private HttpHeaders getHttpHeaderWithUserAuthToken() {
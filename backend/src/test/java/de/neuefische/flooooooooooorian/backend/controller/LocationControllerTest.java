@@ -1,18 +1,22 @@
 package de.neuefische.flooooooooooorian.backend.controller;
 
+import de.neuefische.flooooooooooorian.backend.dto.CursorPageDto;
+import de.neuefische.flooooooooooorian.backend.dto.location.LocationClusterDto;
 import de.neuefische.flooooooooooorian.backend.dto.location.LocationCreationDto;
 import de.neuefische.flooooooooooorian.backend.dto.location.LocationDto;
+import de.neuefische.flooooooooooorian.backend.dto.location.LocationSummaryDto;
 import de.neuefische.flooooooooooorian.backend.dto.PictureDto;
 import de.neuefische.flooooooooooorian.backend.dto.login.LoginJWTDto;
 import de.neuefische.flooooooooooorian.backend.dto.user.UserDto;
 import de.neuefische.flooooooooooorian.backend.model.Location;
 import de.neuefische.flooooooooooorian.backend.model.Picture;
+import de.neuefische.flooooooooooorian.backend.model.ThumbnailState;
 import de.neuefische.flooooooooooorian.backend.repository.LocationRepository;
 import de.neuefische.flooooooooooorian.backend.repository.PictureRepository;
 import de.neuefische.flooooooooooorian.backend.security.dto.UserLoginDto;
 import de.neuefische.flooooooooooorian.backend.security.model.User;
 import de.neuefische.flooooooooooorian.backend.security.repository.UserRepository;
-import de.neuefische.flooooooooooorian.backend.service.CloudinaryService;
+import de.neuefische.flooooooooooorian.backend.service.PictureStorage;
 import de.neuefische.flooooooooooorian.backend.utils.LocationMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -22,25 +26,35 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.http.*;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
+import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
 import java.io.IOException;
 import java.time.Instant;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 @TestPropertySource(properties = "jwt.secret=testSecret")
 class LocationControllerTest {
 
+    private static final ParameterizedTypeReference<CursorPageDto<LocationDto>> LOCATION_PAGE = new ParameterizedTypeReference<>() {
+    };
+    private static final ParameterizedTypeReference<CursorPageDto<LocationSummaryDto>> LOCATION_SUMMARY_PAGE = new ParameterizedTypeReference<>() {
+    };
+
     @LocalServerPort
     private int port;
 
@@ -59,13 +73,18 @@ class LocationControllerTest {
     @Autowired
     private PictureRepository pictureRepository;
 
+    @Autowired
+    private CacheManager cacheManager;
+
     @MockBean
-    private CloudinaryService cloudinaryService;
+    private PictureStorage pictureStorage;
 
     @BeforeEach
     public void clearDb() {
         locationRepository.deleteAll();
         userRepository.deleteAll();
+        pictureRepository.deleteAll();
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
     }
 
     @Test
@@ -98,7 +117,7 @@ class LocationControllerTest {
                 .description("description l1")
                 .title("title")
                 .thumbnail(p1)
-                .owner(user)
+                .owner(LocationMapper.toOwnerSnapshot(user))
                 .build();
 
         Location l2 = Location.builder()
@@ -108,7 +127,7 @@ class LocationControllerTest {
                 .description("description l2")
                 .title("title")
                 .thumbnail(p2)
-                .owner(user)
+                .owner(LocationMapper.toOwnerSnapshot(user))
                 .build();
 
         userRepository.save(user);
@@ -117,11 +136,12 @@ class LocationControllerTest {
         locationRepository.save(l1);
         locationRepository.save(l2);
 
-        ResponseEntity<LocationDto[]> response = testRestTemplate.getForEntity("http://localhost:" + port + "/api/location", LocationDto[].class);
+        ResponseEntity<CursorPageDto<LocationDto>> response = testRestTemplate.exchange("http://localhost:" + port + "/api/location", HttpMethod.GET, null, LOCATION_PAGE);
 
         assertThat(response.getStatusCode(), is(HttpStatus.OK));
         assertThat(response.getBody(), notNullValue());
-        assertThat(response.getBody(), arrayContainingInAnyOrder(LocationMapper.toLocationDto(l1), LocationMapper.toLocationDto(l2)));
+        assertThat(response.getBody().getItems(), containsInAnyOrder(LocationMapper.toLocationDto(l1), LocationMapper.toLocationDto(l2)));
+        assertThat(response.getBody().getNext(), nullValue());
     }
 
     @Test
@@ -153,7 +173,7 @@ class LocationControllerTest {
                 .description("description l1")
                 .title("title")
                 .thumbnail(p1)
-                .owner(user)
+                .owner(LocationMapper.toOwnerSnapshot(user))
                 .build();
 
         Location l2 = Location.builder()
@@ -162,7 +182,7 @@ class LocationControllerTest {
                 .id("fsdfnaldgadgd")
                 .description("description l2")
                 .title("title")
-                .owner(user)
+                .owner(LocationMapper.toOwnerSnapshot(user))
                 .thumbnail(p2)
                 .build();
 
@@ -208,7 +228,7 @@ class LocationControllerTest {
                 .description("description l1")
                 .title("title")
                 .thumbnail(p1)
-                .owner(user)
+                .owner(LocationMapper.toOwnerSnapshot(user))
                 .build();
 
         Location l2 = Location.builder()
@@ -218,7 +238,7 @@ class LocationControllerTest {
                 .description("description l2")
                 .title("title")
                 .thumbnail(p2)
-                .owner(user)
+                .owner(LocationMapper.toOwnerSnapshot(user))
                 .build();
 
         userRepository.save(user);
@@ -227,17 +247,169 @@ class LocationControllerTest {
         locationRepository.save(l1);
         locationRepository.save(l2);
 
-        ResponseEntity<LocationDto[]> response = testRestTemplate.getForEntity("http://localhost:" + port + "/api/location?lat=50&lng=50", LocationDto[].class);
+        ResponseEntity<CursorPageDto<LocationDto>> response = testRestTemplate.exchange("http://localhost:" + port + "/api/location?lat=50&lng=50", HttpMethod.GET, null, LOCATION_PAGE);
+
+        assertThat(response.getStatusCode(), is(HttpStatus.OK));
+        assertThat(response.getBody().getItems(), containsInAnyOrder(LocationMapper.toLocationDto(l1)));
+    }
+
+    @Test
+    void getLocationsWithinBox() {
+        User user = User.builder()
+                .enabled(true)
+                .full_name("test")
+                .avatar_url("avatar")
+                .email("test_email")
+                .role("User")
+                .build();
+
+        Location l1 = Location.builder()
+                .lat(50.0)
+                .lng(48)
+                .id("dsfdsfg4eyt")
+                .description("description l1")
+                .title("title")
+                .owner(LocationMapper.toOwnerSnapshot(user))
+                .build();
+
+        Location l2 = Location.builder()
+                .lat(10.46484)
+                .lng(1.648)
+                .id("fsdfnaldgadgd")
+                .description("description l2")
+                .title("title")
+                .owner(LocationMapper.toOwnerSnapshot(user))
+                .build();
+
+        userRepository.save(user);
+        locationRepository.save(l1);
+        locationRepository.save(l2);
+
+        ResponseEntity<CursorPageDto<LocationDto>> response = testRestTemplate.exchange("http://localhost:" + port + "/api/location?bbox=0,0,10,20&limit=10", HttpMethod.GET, null, LOCATION_PAGE);
 
         assertThat(response.getStatusCode(), is(HttpStatus.OK));
-        assertThat(response.getBody(), arrayContainingInAnyOrder(LocationMapper.toLocationDto(l1)));
+        assertThat(response.getBody().getItems(), containsInAnyOrder(LocationMapper.toLocationDto(l2)));
+    }
+
+    @Test
+    void getLocationsRejectsInvalidBox() {
+        String[] boxes = {"0,20,10,0", "170,0,-170,10", "0,0,10,95", "-190,0,10,20", "0,0,10"};
+
+        for (String box : boxes) {
+            ResponseEntity<String> response = testRestTemplate.getForEntity("http://localhost:" + port + "/api/location?bbox=" + box, String.class);
+
+            assertThat(box, response.getStatusCode(), is(HttpStatus.BAD_REQUEST));
+        }
+    }
+
+    @Test
+    void getLocationSummariesWithThumbnail() {
+        Picture picture = pictureRepository.save(Picture.builder().url("www.url1.com").build());
+        Location l1 = Location.builder().lat(50.0).lng(15.0).title("title l1").rating(3).thumbnail(picture).build();
+        Location l2 = Location.builder().lat(10.0).lng(1.0).title("title l2").build();
+
+        l1 = locationRepository.save(l1);
+        l2 = locationRepository.save(l2);
+
+        ResponseEntity<CursorPageDto<LocationSummaryDto>> response = testRestTemplate.exchange("http://localhost:" + port + "/api/location/summaries?limit=10", HttpMethod.GET, null, LOCATION_SUMMARY_PAGE);
+
+        assertThat(response.getStatusCode(), is(HttpStatus.OK));
+        assertThat(response.getBody().getItems(), containsInAnyOrder(
+                LocationSummaryDto.builder().id(l1.getId()).lat(50.0).lng(15.0).title("title l1").rating(3).thumbnailUrl("www.url1.com").build(),
+                LocationSummaryDto.builder().id(l2.getId()).lat(10.0).lng(1.0).title("title l2").build()));
+    }
+
+    @Test
+    void getLocationsPagedWithCursor() {
+        User user = User.builder()
+                .enabled(true)
+                .full_name("test")
+                .email("test_email")
+                .role("User")
+                .build();
+
+        Location l1 = Location.builder().id("a").lat(50.0).lng(15).title("title").owner(LocationMapper.toOwnerSnapshot(user)).build();
+        Location l2 = Location.builder().id("b").lat(51.0).lng(16).title("title").owner(LocationMapper.toOwnerSnapshot(user)).build();
+
+        userRepository.save(user);
+        locationRepository.save(l1);
+        locationRepository.save(l2);
+
+        ResponseEntity<CursorPageDto<LocationDto>> first = testRestTemplate.exchange("http://localhost:" + port + "/api/location?limit=1", HttpMethod.GET, null, LOCATION_PAGE);
+
+        assertThat(first.getStatusCode(), is(HttpStatus.OK));
+        assertThat(first.getBody().getItems(), contains(LocationMapper.toLocationDto(l1)));
+        assertThat(first.getBody().getNext(), notNullValue());
+
+        ResponseEntity<CursorPageDto<LocationDto>> second = testRestTemplate.exchange("http://localhost:" + port + "/api/location?limit=1&cursor=" + first.getBody().getNext(), HttpMethod.GET, null, LOCATION_PAGE);
+
+        assertThat(second.getBody().getItems(), contains(LocationMapper.toLocationDto(l2)));
+        assertThat(second.getBody().getNext(), nullValue());
+    }
+
+    @Test
+    void getLocationClusters() {
+        User user = User.builder()
+                .enabled(true)
+                .full_name("test")
+                .email("test_email")
+                .role("User")
+                .build();
+
+        Location l1 = Location.builder().id("a").lat(50.0).lng(15.0).rating(2).title("title").owner(LocationMapper.toOwnerSnapshot(user)).build();
+        Location l2 = Location.builder().id("b").lat(50.5).lng(15.5).rating(4).title("title").owner(LocationMapper.toOwnerSnapshot(user)).build();
+        Location l3 = Location.builder().id("c").lat(10.0).lng(1.0).rating(1).title("title").owner(LocationMapper.toOwnerSnapshot(user)).build();
+
+        userRepository.save(user);
+        locationRepository.save(l1);
+        locationRepository.save(l2);
+        locationRepository.save(l3);
+
+        ResponseEntity<LocationClusterDto[]> response = testRestTemplate.getForEntity("http://localhost:" + port + "/api/location/clusters?bbox=0,0,20,60&zoom=2", LocationClusterDto[].class);
+
+        assertThat(response.getStatusCode(), is(HttpStatus.OK));
+        assertThat(response.getBody(), arrayContainingInAnyOrder(
+                LocationClusterDto.builder().lat(50.25).lng(15.25).count(2).representativeId("b").build(),
+                LocationClusterDto.builder().lat(10.0).lng(1.0).count(1).representativeId("c").build()));
+    }
+
+    @Test
+    void getLocationTileWithETag() {
+        Location l1 = Location.builder().id("a").lat(50.0).lng(15.0).rating(2).title("title").build();
+        locationRepository.save(l1);
+
+        ResponseEntity<byte[]> response = testRestTemplate.getForEntity("http://localhost:" + port + "/api/location/tiles/4/8/5.mvt", byte[].class);
+
+        assertThat(response.getStatusCode(), is(HttpStatus.OK));
+        assertThat(response.getHeaders().getContentType().toString(), is("application/vnd.mapbox-vector-tile"));
+        assertThat(response.getHeaders().getCacheControl(), containsString("max-age"));
+        assertThat(response.getBody().length, greaterThan(0));
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(response.getHeaders().getETag());
+        ResponseEntity<byte[]> cached = testRestTemplate.exchange("http://localhost:" + port + "/api/location/tiles/4/8/5.mvt", HttpMethod.GET, new HttpEntity<>(headers), byte[].class);
+
+        assertThat(cached.getStatusCode(), is(HttpStatus.NOT_MODIFIED));
+    }
+
+    @Test
+    void getLocationByIdServedFromCacheAfterCreate() {
+        Location l1 = locationRepository.save(Location.builder().lat(50.0).lng(15.0).title("title").build());
+
+        ResponseEntity<LocationDto> first = testRestTemplate.getForEntity("http://localhost:" + port + "/api/location/" + l1.getId(), LocationDto.class);
+        locationRepository.deleteAll();
+        ResponseEntity<LocationDto> second = testRestTemplate.getForEntity("http://localhost:" + port + "/api/location/" + l1.getId(), LocationDto.class);
+
+        assertThat(first.getStatusCode(), is(HttpStatus.OK));
+        assertThat(second.getStatusCode(), is(HttpStatus.OK));
+        assertThat(second.getBody(), is(first.getBody()));
     }
 
     @Test
     void createBasicLocationControllerIntegrationTest() throws IOException {
         Picture picture = Picture.builder().url("testurl").id("fsfsdf").build();
 
-        when(cloudinaryService.uploadImage(Mockito.any(File.class))).thenReturn(picture);
+        when(pictureStorage.store(Mockito.any(MultipartFile.class))).thenReturn(picture);
 
         LocationCreationDto dto = LocationCreationDto.builder()
                 .lat(50.0)
@@ -266,12 +438,14 @@ class LocationControllerTest {
         assertThat(response.getBody().getThumbnail().getCreationDate().isAfter(Instant.now().minusSeconds(1)), is(true));
         assertThat(response.getBody(), is(LocationDto
                 .builder()
+                .id(response.getBody().getId())
                 .creationDate(response.getBody().getCreationDate())
                 .lat(dto.getLat())
                 .lng(dto.getLng())
                 .title(dto.getTitle())
                 .owner(response.getBody().getOwner())
                 .thumbnail(PictureDto.builder().creationDate(response.getBody().getThumbnail().getCreationDate()).owner(response.getBody().getThumbnail().getOwner()).url("testurl").build())
+                .thumbnailState(ThumbnailState.READY)
                 .description(dto.getDescription())
                 .build()));
     }
@@ -301,6 +475,7 @@ class LocationControllerTest {
         assertThat(response.getBody().getCreationDate().isBefore(Instant.now()), is(true));
         assertThat(response.getBody().getCreationDate().isAfter(Instant.now().minusSeconds(1)), is(true));
         assertThat(response.getBody(), is(LocationDto.builder()
+                .id(response.getBody().getId())
                 .lng(dto.getLng())
                 .lat(dto.getLat())
                 .creationDate(response.getBody().getCreationDate())
@@ -311,6 +486,112 @@ class LocationControllerTest {
                 .build()));
     }
 
+    @Test
+    void createLocationAsyncAcceptsAndAttachesThumbnailLater() throws IOException, InterruptedException {
+        Picture picture = Picture.builder().url("testurl").id("fsfsdf").build();
+
+        when(pictureStorage.store(Mockito.any(byte[].class))).thenReturn(picture);
+
+        LocationCreationDto dto = LocationCreationDto.builder()
+                .lat(50.0)
+                .lng(15)
+                .description("description l1")
+                .title("title")
+                .build();
+
+        HttpHeaders headers = getHttpHeaderWithAuthToken();
+        headers.setContentType(MediaType.MULTIPART_MIXED);
+
+        MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
+        body.add("locationCreationDto", dto);
+        body.add("file", new ClassPathResource("test_img.jpg"));
+
+        HttpEntity<MultiValueMap<String, Object>> requestEntity = new HttpEntity<>(body, headers);
+
+        ResponseEntity<LocationDto> response = testRestTemplate.exchange("http://localhost:" + port + "/api/location?async=true", HttpMethod.POST, requestEntity, LocationDto.class);
+
+        assertThat(response.getStatusCode(), is(HttpStatus.ACCEPTED));
+        assertThat(response.getBody(), notNullValue());
+        assertThat(response.getBody().getThumbnailState(), is(ThumbnailState.PENDING));
+        assertThat(response.getHeaders().getLocation().getPath(), is("/api/location/" + response.getBody().getId()));
+
+        LocationDto polled = response.getBody();
+        for (int i = 0; i < 50 && polled.getThumbnailState() == ThumbnailState.PENDING; i++) {
+            Thread.sleep(100);
+            polled = testRestTemplate.getForObject("http://localhost:" + port + "/api/location/" + response.getBody().getId(), LocationDto.class);
+        }
+
+        assertThat(polled.getThumbnailState(), is(ThumbnailState.READY));
+        assertThat(polled.getThumbnail().getUrl(), is("testurl"));
+    }
+
+    @Test
+    void createLocationTwiceWithSameImageReusesPicture() throws IOException {
+        Picture picture = Picture.builder().url("testurl").id("fsfsdf").build();
+
+        when(pictureStorage.store(Mockito.any(MultipartFile.class))).thenReturn(picture);
+
+        LocationCreationDto dto = LocationCreationDto.builder()
+                .lat(50.0)
+                .lng(15)
+                .description("description l1")
+                .title("title")
+                .build();
+
+        HttpHeaders headers = getHttpHeaderWithAuthToken();
+        headers.setContentType(MediaType.MULTIPART_MIXED);
+
+        MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
+        body.add("locationCreationDto", dto);
+        body.add("file", new ClassPathResource("test_img.jpg"));
+
+        HttpEntity<MultiValueMap<String, Object>> requestEntity = new HttpEntity<>(body, headers);
+
+        ResponseEntity<LocationDto> first = testRestTemplate.exchange("http://localhost:" + port + "/api/location/", HttpMethod.POST, requestEntity, LocationDto.class);
+        ResponseEntity<LocationDto> second = testRestTemplate.exchange("http://localhost:" + port + "/api/location/", HttpMethod.POST, requestEntity, LocationDto.class);
+
+        assertThat(first.getStatusCode(), is(HttpStatus.OK));
+        assertThat(second.getStatusCode(), is(HttpStatus.OK));
+        assertThat(second.getBody().getThumbnail().getUrl(), is("testurl"));
+        assertThat(pictureRepository.count(), is(1L));
+        verify(pictureStorage, times(1)).store(Mockito.any(MultipartFile.class));
+    }
+
+    @Test
+    void addPicturesToLocationGallery() throws IOException {
+        when(pictureStorage.store(Mockito.any(MultipartFile.class)))
+                .thenReturn(Picture.builder().url("url1").id("picture1").build(), Picture.builder().url("url2").id("picture2").build());
+
+        LocationCreationDto dto = LocationCreationDto.builder()
+                .lat(50.0)
+                .lng(15)
+                .description("description l1")
+                .title("title")
+                .build();
+
+        HttpHeaders headers = getHttpHeaderWithAuthToken();
+        headers.setContentType(MediaType.MULTIPART_MIXED);
+
+        MultiValueMap<String, Object> createBody = new LinkedMultiValueMap<>();
+        createBody.add("locationCreationDto", dto);
+        LocationDto created = testRestTemplate.exchange("http://localhost:" + port + "/api/location/", HttpMethod.POST, new HttpEntity<>(createBody, headers), LocationDto.class).getBody();
+
+        MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
+        body.add("files", new ClassPathResource("test_img.jpg"));
+        body.add("files", new ByteArrayResource(new byte[]{1, 2, 3}) {
+            @Override
+            public String getFilename() {
+                return "second.bin";
+            }
+        });
+
+        ResponseEntity<LocationDto> response = testRestTemplate.exchange("http://localhost:" + port + "/api/location/" + created.getId() + "/pictures", HttpMethod.POST, new HttpEntity<>(body, headers), LocationDto.class);
+
+        assertThat(response.getStatusCode(), is(HttpStatus.OK));
+        assertThat(response.getBody().getPictures(), containsInAnyOrder("url1", "url2"));
+        assertThat(pictureRepository.count(), is(2L));
+    }
+
     private HttpHeaders getHttpHeaderWithAuthToken() {
         userRepository.save(User.builder().enabled(true).email("test_email").role("User").password(passwordEncoder.encode("test_password")).build());
         UserLoginDto loginData = new UserLoginDto("test_email", "test_password");
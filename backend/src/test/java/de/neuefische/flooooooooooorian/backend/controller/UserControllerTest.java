@@ -1,6 +1,5 @@
 package de.neuefische.flooooooooooorian.backend.controller;
 
-import de.neuefische.flooooooooooorian.backend.config.EmailConfig;
 import de.neuefische.flooooooooooorian.backend.dto.login.LoginJWTDto;
 import de.neuefische.flooooooooooorian.backend.dto.user.UserDto;
 import de.neuefische.flooooooooooorian.backend.security.dto.UserCreationDto;
@@ -18,17 +17,18 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.cache.CacheManager;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.TestPropertySource;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
-import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
@@ -51,13 +51,15 @@ class UserControllerTest {
     private PasswordEncoder passwordEncoder;
 
     @MockBean
-    private EmailConfig emailConfig;
+    private JavaMailSender javaMailSender;
 
-    private JavaMailSenderImpl javaMailSender = mock(JavaMailSenderImpl.class);
+    @Autowired
+    private CacheManager cacheManager;
 
     @BeforeEach
     public void clearDb() {
         userRepository.deleteAll();
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
     }
 
     @Test
@@ -87,6 +89,26 @@ class UserControllerTest {
         }
     }
 
+    @Test
+    void loginRehashesPasswordWithOutdatedCost() {
+        User user = User.builder()
+                .email("test@test.com")
+                .enabled(true)
+                .full_name("fullname")
+                .role("User")
+                .password(new BCryptPasswordEncoder(4).encode("test"))
+                .build();
+        userRepository.save(user);
+
+        ResponseEntity<LoginJWTDto> response = testRestTemplate.exchange("http://localhost:" + port + "/user/login", HttpMethod.POST, new HttpEntity<>(new UserLoginDto(user.getEmail(), "test")), LoginJWTDto.class);
+
+        String rehashed = userRepository.findUserByEmail(user.getEmail()).get().getPassword();
+        assertThat(response.getStatusCode(), is(HttpStatus.OK));
+        assertThat(rehashed, not(user.getPassword()));
+        assertThat(passwordEncoder.upgradeEncoding(rehashed), is(false));
+        assertThat(passwordEncoder.matches("test", rehashed), is(true));
+    }
+
     @Test
     void notValidPasswordLogin() {
         User user = User.builder()
@@ -159,8 +181,6 @@ class UserControllerTest {
                 .role("User")
                 .build();
 
-        when(emailConfig.getJavaMailSender()).thenReturn(javaMailSender);
-
         ResponseEntity<UserDto> response = testRestTemplate.exchange("http://localhost:" + port + "/user/register", HttpMethod.POST, new HttpEntity<>(userCreationDto), UserDto.class);
 
         assertThat(response.getStatusCode() == HttpStatus.OK, is(result));
@@ -181,8 +201,6 @@ class UserControllerTest {
                 .role("User")
                 .build();
 
-        when(emailConfig.getJavaMailSender()).thenReturn(javaMailSender);
-
         ResponseEntity<UserDto> response = testRestTemplate.exchange("http://localhost:" + port + "/user/register", HttpMethod.POST, new HttpEntity<>(userCreationDto), UserDto.class);
 
 
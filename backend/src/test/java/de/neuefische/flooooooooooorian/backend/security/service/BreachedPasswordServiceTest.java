@@ -0,0 +1,84 @@
+package de.neuefische.flooooooooooorian.backend.security.service;
+
+import de.neuefische.flooooooooooorian.backend.security.validation.PasswordConstraintValidator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.validation.ConstraintValidatorContext;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.*;
+
+class BreachedPasswordServiceTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void isBreachedForPasswordsFromSourceList() throws Exception {
+        BreachedPasswordService breachedPasswordService = serviceWith(List.of("password", "T3s!PA7sw0rd", "123456"));
+
+        assertThat(breachedPasswordService.isEnabled(), is(true));
+        assertThat(breachedPasswordService.isBreached("T3s!PA7sw0rd"), is(true));
+        assertThat(breachedPasswordService.isBreached("password"), is(true));
+        assertThat(breachedPasswordService.isBreached("Un1que!Passw0rd"), is(false));
+        assertThat(Files.exists(directory.resolve("breached.bloom")), is(true));
+        breachedPasswordService.destroy();
+    }
+
+    @Test
+    void filterIsReusedWithoutSourceList() throws Exception {
+        serviceWith(List.of("T3s!PA7sw0rd")).destroy();
+        BreachedPasswordService breachedPasswordService = new BreachedPasswordService(directory.resolve("breached.bloom").toString(), "", 0, 0.001);
+        breachedPasswordService.afterPropertiesSet();
+
+        assertThat(breachedPasswordService.isBreached("T3s!PA7sw0rd"), is(true));
+        breachedPasswordService.destroy();
+    }
+
+    @Test
+    void isNotEnabledWithoutFilter() throws IOException {
+        BreachedPasswordService breachedPasswordService = new BreachedPasswordService("", "", 0, 0.001);
+        breachedPasswordService.afterPropertiesSet();
+
+        assertThat(breachedPasswordService.isEnabled(), is(false));
+        assertThat(breachedPasswordService.isBreached("password"), is(false));
+    }
+
+    @Test
+    void passwordValidatorRejectsBreachedPassword() throws Exception {
+        BreachedPasswordService breachedPasswordService = serviceWith(List.of("T3s!PA7sw0rd"));
+        PasswordConstraintValidator validator = new PasswordConstraintValidator(breachedPasswordService);
+        ConstraintValidatorContext context = mock(ConstraintValidatorContext.class);
+        ConstraintValidatorContext.ConstraintViolationBuilder builder = mock(ConstraintValidatorContext.ConstraintViolationBuilder.class);
+        when(context.buildConstraintViolationWithTemplate("Password has appeared in a data breach, choose a different one.")).thenReturn(builder);
+        when(builder.addConstraintViolation()).thenReturn(context);
+
+        assertThat(validator.isValid("T3s!PA7sw0rd", context), is(false));
+        assertThat(validator.isValid("Un1que!Passw0rd", context), is(true));
+        verify(context).buildConstraintViolationWithTemplate("Password has appeared in a data breach, choose a different one.");
+        breachedPasswordService.destroy();
+    }
+
+    private BreachedPasswordService serviceWith(List<String> passwords) throws IOException, NoSuchAlgorithmException {
+        List<String> lines = new ArrayList<>();
+        for (String password : passwords) {
+            byte[] hash = MessageDigest.getInstance(BreachedPasswordService.HASH_ALGORITHM).digest(password.getBytes(StandardCharsets.UTF_8));
+            lines.add(String.format("%040X", new BigInteger(1, hash)) + ":42");
+        }
+        Path source = Files.write(directory.resolve("breached.txt"), lines);
+        BreachedPasswordService breachedPasswordService = new BreachedPasswordService(directory.resolve("breached.bloom").toString(), source.toString(), 0, 0.001);
+        breachedPasswordService.afterPropertiesSet();
+        return breachedPasswordService;
+    }
+}
@@ -0,0 +1,66 @@
+package de.neuefische.flooooooooooorian.backend.security.service;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SignatureException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JwtUtilsServiceTest {
+
+    private static final String OLD_SECRET = Base64.getEncoder().encodeToString("old-secret".getBytes());
+    private static final String NEW_SECRET = Base64.getEncoder().encodeToString("new-secret".getBytes());
+
+    @Test
+    void parseClaimTokenFromCreateToken() {
+        JwtUtilsService jwtUtilsService = new JwtUtilsService(NEW_SECRET, "new", List.of());
+        HashMap<String, Object> claims = new HashMap<>();
+        claims.put(JwtUtilsService.ROLE_CLAIM, "ROLE_USER");
+
+        String token = jwtUtilsService.createToken(claims, "test@test.com");
+        Claims result = jwtUtilsService.parseClaim(token);
+
+        assertThat(result.getSubject(), is("test@test.com"));
+        assertThat(result.get(JwtUtilsService.ROLE_CLAIM), is("ROLE_USER"));
+        assertThat(Jwts.parser().setSigningKey(NEW_SECRET).parseClaimsJws(token).getHeader().getKeyId(), is("new"));
+    }
+
+    @Test
+    void parseClaimTokenSignedWithRotatedKey() {
+        JwtUtilsService before = new JwtUtilsService(OLD_SECRET, "old", List.of());
+        JwtUtilsService after = new JwtUtilsService(NEW_SECRET, "new", List.of("old:" + OLD_SECRET));
+
+        String token = before.createToken(new HashMap<>(), "test@test.com");
+
+        assertThat(after.parseClaim(token).getSubject(), is("test@test.com"));
+    }
+
+    @Test
+    void parseClaimTokenWithoutKeyIdUsesActiveKey() {
+        JwtUtilsService jwtUtilsService = new JwtUtilsService(NEW_SECRET, "new", List.of());
+        String token = Jwts.builder()
+                .setSubject("test@test.com")
+                .signWith(SignatureAlgorithm.HS256, NEW_SECRET)
+                .compact();
+
+        assertThat(jwtUtilsService.parseClaim(token).getSubject(), is("test@test.com"));
+    }
+
+    @Test
+    void parseClaimTokenWithUnknownKeyId() {
+        JwtUtilsService before = new JwtUtilsService(OLD_SECRET, "old", List.of());
+        JwtUtilsService after = new JwtUtilsService(NEW_SECRET, "new", List.of());
+
+        String token = before.createToken(new HashMap<>(), "test@test.com");
+
+        assertThrows(SignatureException.class, () -> after.parseClaim(token));
+    }
+}
@@ -0,0 +1,97 @@
+package de.neuefische.flooooooooooorian.backend.security.service;
+
+import de.neuefische.flooooooooooorian.backend.security.config.CostAwareBCryptPasswordEncoder;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PasswordHashingServiceTest {
+
+    private final CostAwareBCryptPasswordEncoder passwordEncoder = new CostAwareBCryptPasswordEncoder(4);
+
+    @Test
+    void encodeAndMatchOnHashingExecutor() {
+        PasswordHashingService passwordHashingService = new PasswordHashingService(passwordEncoder, 1, 1, Duration.ofSeconds(5));
+
+        String encoded = passwordHashingService.encode("password");
+
+        assertThat(passwordHashingService.matches("password", encoded), is(true));
+        assertThat(passwordHashingService.matches("wrong", encoded), is(false));
+        passwordHashingService.shutdown();
+    }
+
+    @Test
+    void executeRethrowsTaskException() {
+        PasswordHashingService passwordHashingService = new PasswordHashingService(passwordEncoder, 1, 1, Duration.ofSeconds(5));
+
+        assertThrows(BadCredentialsException.class, () -> passwordHashingService.execute(() -> {
+            throw new BadCredentialsException("bad");
+        }));
+        passwordHashingService.shutdown();
+    }
+
+    @Test
+    void executeFailsFastWhenSaturated() throws Exception {
+        PasswordHashingService passwordHashingService = new PasswordHashingService(passwordEncoder, 1, 1, Duration.ofMillis(100));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+
+        Future<Boolean> blocker = callers.submit(() -> passwordHashingService.execute(() -> {
+            started.countDown();
+            awaitUninterruptibly(release);
+            return true;
+        }));
+        assertThat(started.await(5, TimeUnit.SECONDS), is(true));
+        Future<String> queued = callers.submit(() -> passwordHashingService.encode("password"));
+
+        ExecutionException timedOut = assertThrows(ExecutionException.class, () -> queued.get(5, TimeUnit.SECONDS));
+        ResponseStatusException rejected = assertThrows(ResponseStatusException.class, () -> passwordHashingService.encode("password"));
+
+        assertThat(timedOut.getCause(), instanceOf(ResponseStatusException.class));
+        assertThat(((ResponseStatusException) timedOut.getCause()).getStatus(), is(HttpStatus.SERVICE_UNAVAILABLE));
+        assertThat(rejected.getStatus(), is(HttpStatus.SERVICE_UNAVAILABLE));
+        assertThrows(ExecutionException.class, () -> blocker.get(5, TimeUnit.SECONDS));
+        release.countDown();
+        callers.shutdown();
+        passwordHashingService.shutdown();
+    }
+
+    @Test
+    void upgradeEncodingWhenConfiguredCostChanges() {
+        String encoded = passwordEncoder.encode("password");
+
+        assertThat(passwordEncoder.upgradeEncoding(encoded), is(false));
+        assertThat(new CostAwareBCryptPasswordEncoder(5).upgradeEncoding(encoded), is(true));
+        assertThat(new CostAwareBCryptPasswordEncoder(4).upgradeEncoding(new CostAwareBCryptPasswordEncoder(5).encode("password")), is(true));
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                latch.await(5, TimeUnit.SECONDS);
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package de.neuefische.flooooooooooorian.backend.security.service;
+
+import de.neuefische.flooooooooooorian.backend.security.model.TokenRevocation;
+import de.neuefische.flooooooooooorian.backend.security.model.User;
+import de.neuefische.flooooooooooorian.backend.security.repository.TokenRevocationRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class TokenRevocationServiceTest {
+
+    private final TokenRevocationRepository tokenRevocationRepository = mock(TokenRevocationRepository.class);
+    private final TokenRevocationService tokenRevocationService = new TokenRevocationService(tokenRevocationRepository);
+
+    @Test
+    void tokensBelowRevokedVersionAreRejected() {
+        User user = User.builder().id("user_id").tokenVersion(2).build();
+
+        tokenRevocationService.revoke(user);
+
+        assertThat(tokenRevocationService.isRevoked("user_id", 1), is(true));
+        assertThat(tokenRevocationService.isRevoked("user_id", 2), is(false));
+        assertThat(tokenRevocationService.isRevoked("other_user_id", 0), is(false));
+        verify(tokenRevocationRepository).save(any(TokenRevocation.class));
+    }
+
+    @Test
+    void refreshLoadsRevocationsFromOtherInstances() {
+        when(tokenRevocationRepository.findAllByRevokedAtAfter(any())).thenReturn(List.of(TokenRevocation.builder()
+                .userId("user_id")
+                .minimumVersion(5)
+                .revokedAt(Instant.now())
+                .build()));
+
+        tokenRevocationService.refresh();
+
+        assertThat(tokenRevocationService.isRevoked("user_id", 4), is(true));
+        assertThat(tokenRevocationService.isRevoked("user_id", 5), is(false));
+    }
+
+    @Test
+    void refreshDropsRevocationsOlderThanTokenLifetime() {
+        when(tokenRevocationRepository.findAllByRevokedAtAfter(any())).thenReturn(List.of(TokenRevocation.builder()
+                .userId("user_id")
+                .minimumVersion(5)
+                .revokedAt(Instant.now().minus(JwtUtilsService.TOKEN_LIFETIME).minusSeconds(60))
+                .build()));
+
+        tokenRevocationService.refresh();
+
+        assertThat(tokenRevocationService.isRevoked("user_id", 4), is(false));
+    }
+}
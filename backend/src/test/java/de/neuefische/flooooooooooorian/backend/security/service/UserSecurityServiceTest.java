@@ -0,0 +1,42 @@
+package de.neuefische.flooooooooooorian.backend.security.service;
+
+import de.neuefische.flooooooooooorian.backend.security.model.AuthenticatedPrincipal;
+import de.neuefische.flooooooooooorian.backend.security.model.User;
+import de.neuefische.flooooooooooorian.backend.security.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.*;
+
+class UserSecurityServiceTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final UserSecurityService userSecurityService = new UserSecurityService(userRepository, new CaffeineCacheManager(UserSecurityService.PRINCIPAL_CACHE));
+
+    @Test
+    void findPrincipalByEmailCachesKnownUsers() {
+        User user = User.builder().id("user_id").email("test@test.de").role("User").enabled(true).build();
+
+        when(userRepository.findUserByEmail("test@test.de")).thenReturn(Optional.of(user));
+
+        userSecurityService.findPrincipalByEmail("test@test.de");
+        Optional<AuthenticatedPrincipal> actual = userSecurityService.findPrincipalByEmail("test@test.de");
+
+        assertThat(actual.map(AuthenticatedPrincipal::getId), is(Optional.of("user_id")));
+        verify(userRepository, times(1)).findUserByEmail("test@test.de");
+    }
+
+    @Test
+    void findPrincipalByEmailDoesNotCacheUnknownUsers() {
+        User user = User.builder().id("user_id").email("new@test.de").role("User").enabled(true).build();
+
+        when(userRepository.findUserByEmail("new@test.de")).thenReturn(Optional.empty()).thenReturn(Optional.of(user));
+
+        assertThat(userSecurityService.findPrincipalByEmail("new@test.de"), is(Optional.empty()));
+        assertThat(userSecurityService.findPrincipalByEmail("new@test.de").map(AuthenticatedPrincipal::getId), is(Optional.of("user_id")));
+    }
+}
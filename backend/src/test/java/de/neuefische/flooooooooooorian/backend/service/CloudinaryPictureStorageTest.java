@@ -0,0 +1,47 @@
+package de.neuefische.flooooooooooorian.backend.service;
+
+import de.neuefische.flooooooooooorian.backend.model.Picture;
+import de.neuefische.flooooooooooorian.backend.model.PictureRendition;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class CloudinaryPictureStorageTest {
+
+    private final CloudinaryPictureStorage cloudinaryPictureStorage = new CloudinaryPictureStorage(DataSize.ofMegabytes(5));
+
+    @Test
+    void transformedRenditionsForSmallerWidths() {
+        Picture picture = Picture.builder()
+                .id("picture_id")
+                .url("http://res.cloudinary.com/demo/image/upload/v1/picture_id.jpg")
+                .width(1000)
+                .height(500)
+                .build();
+
+        Optional<List<PictureRendition>> actual = cloudinaryPictureStorage.transformedRenditions(picture, List.of(512, 128, 1600));
+
+        assertThat(actual.isPresent(), is(true));
+        assertThat(actual.get(), hasSize(2));
+        assertThat(actual.get().get(0).getWidth(), is(128));
+        assertThat(actual.get().get(0).getHeight(), is(64));
+        assertThat(actual.get().get(0).getUrl(), is("http://res.cloudinary.com/demo/image/upload/w_128,c_scale,f_auto/v1/picture_id.jpg"));
+        assertThat(actual.get().get(1).getWidth(), is(512));
+        assertThat(actual.get().get(1).getUrl(), is("http://res.cloudinary.com/demo/image/upload/w_512,c_scale,f_auto/v1/picture_id.jpg"));
+    }
+
+    @Test
+    void transformedRenditionsWithoutDimensions() {
+        Picture picture = Picture.builder()
+                .id("picture_id")
+                .url("http://res.cloudinary.com/demo/image/upload/v1/picture_id.jpg")
+                .build();
+
+        assertThat(cloudinaryPictureStorage.transformedRenditions(picture, List.of(128)), is(Optional.empty()));
+    }
+}
@@ -0,0 +1,119 @@
+package de.neuefische.flooooooooooorian.backend.service;
+
+import de.neuefische.flooooooooooorian.backend.model.OutboxEmail;
+import de.neuefische.flooooooooooorian.backend.model.OutboxEmailStatus;
+import de.neuefische.flooooooooooorian.backend.repository.OutboxEmailRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.*;
+
+class EmailOutboxServiceTest {
+
+    private final OutboxEmailRepository outboxEmailRepository = mock(OutboxEmailRepository.class);
+    private final JavaMailSender javaMailSender = mock(JavaMailSender.class);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final EmailOutboxService emailOutboxService = new EmailOutboxService(outboxEmailRepository, javaMailSender, meterRegistry, "info@test.com", 10, 2, Duration.ofSeconds(30), Duration.ofHours(1), Duration.ofMinutes(5));
+
+    @Test
+    void enqueueStoresPendingEmailWithoutSending() {
+        when(outboxEmailRepository.save(Mockito.any(OutboxEmail.class))).then(invocation -> invocation.getArgument(0));
+
+        OutboxEmail email = emailOutboxService.enqueue("test@test.com", "subject", "text");
+
+        assertThat(email.getStatus(), is(OutboxEmailStatus.PENDING));
+        assertThat(email.getTo(), is("test@test.com"));
+        assertThat(email.getNextAttemptAt(), notNullValue());
+        verifyNoInteractions(javaMailSender);
+    }
+
+    @Test
+    void dispatchSendsClaimedEmailsInOneBatch() {
+        OutboxEmail first = claimed("first@test.com");
+        OutboxEmail second = claimed("second@test.com");
+        when(outboxEmailRepository.claimNext(Mockito.any(Instant.class), Mockito.any(Instant.class)))
+                .thenReturn(Optional.of(first), Optional.of(second), Optional.empty());
+
+        emailOutboxService.dispatch();
+
+        ArgumentCaptor<SimpleMailMessage> captor = ArgumentCaptor.forClass(SimpleMailMessage.class);
+        verify(javaMailSender, times(1)).send(captor.capture(), captor.capture());
+        assertThat(captor.getAllValues(), hasSize(2));
+        assertThat(captor.getAllValues().get(0).getFrom(), is("info@test.com"));
+        assertThat(first.getStatus(), is(OutboxEmailStatus.SENT));
+        assertThat(second.getStatus(), is(OutboxEmailStatus.SENT));
+        verify(outboxEmailRepository).saveAll(List.of(first, second));
+        assertThat(meterRegistry.timer("email.smtp.send").count(), is(1L));
+        assertThat(meterRegistry.counter("email.outbox.delivered", "outcome", "sent").count(), is(2.0));
+    }
+
+    @Test
+    void dispatchReschedulesOnlyFailedEmails() {
+        OutboxEmail first = claimed("first@test.com");
+        OutboxEmail second = claimed("second@test.com");
+        when(outboxEmailRepository.claimNext(Mockito.any(Instant.class), Mockito.any(Instant.class)))
+                .thenReturn(Optional.of(first), Optional.of(second), Optional.empty());
+        doAnswer(invocation -> {
+            SimpleMailMessage failed = invocation.getArgument(1);
+            throw new MailSendException(Map.of(failed, new RuntimeException("rejected")));
+        }).when(javaMailSender).send((SimpleMailMessage[]) Mockito.any());
+
+        emailOutboxService.dispatch();
+
+        assertThat(first.getStatus(), is(OutboxEmailStatus.SENT));
+        assertThat(second.getStatus(), is(OutboxEmailStatus.PENDING));
+        assertThat(second.getAttempts(), is(1));
+        assertThat(second.getLastError(), is("rejected"));
+        assertThat(second.getNextAttemptAt(), greaterThan(Instant.now()));
+        assertThat(meterRegistry.counter("email.outbox.delivered", "outcome", "failed").count(), is(1.0));
+    }
+
+    @Test
+    void dispatchMarksEmailFailedAfterMaxAttempts() {
+        OutboxEmail email = claimed("test@test.com");
+        email.setAttempts(1);
+        when(outboxEmailRepository.claimNext(Mockito.any(Instant.class), Mockito.any(Instant.class)))
+                .thenReturn(Optional.of(email), Optional.empty());
+        doThrow(new MailSendException("connection refused")).when(javaMailSender).send((SimpleMailMessage[]) Mockito.any());
+
+        emailOutboxService.dispatch();
+
+        assertThat(email.getStatus(), is(OutboxEmailStatus.FAILED));
+        assertThat(email.getAttempts(), is(2));
+    }
+
+    @Test
+    void backoffWithJitterStaysWithinBounds() {
+        for (int attempt = 1; attempt <= 20; attempt++) {
+            long ceiling = Math.min(Duration.ofHours(1).toMillis(), Duration.ofSeconds(30).toMillis() << (attempt - 1));
+            Duration backoff = emailOutboxService.backoffWithJitter(attempt);
+            assertThat(backoff.toMillis(), allOf(greaterThanOrEqualTo(ceiling / 2), lessThanOrEqualTo(ceiling)));
+        }
+    }
+
+    private static OutboxEmail claimed(String to) {
+        return OutboxEmail.builder()
+                .id(to)
+                .to(to)
+                .subject("subject")
+                .text("text")
+                .status(OutboxEmailStatus.SENDING)
+                .claimedAt(Instant.now())
+                .build();
+    }
+}
@@ -81,6 +81,9 @@ class GoogleLoginServiceTest {
 
         HashMap<String, Object> claims = new HashMap<>();
         claims.put("name", user.getFull_name());
+        claims.put("role", "User");
+        claims.put("uid", "test_id");
+        claims.put("ver", 0L);
         when(jwtUtilsService.createToken(claims, user.getEmail())).thenReturn("jwt_test_token");
 
         LoginJWTDto loginJWTDto = googleLoginService.loginWithGoogle(code);
@@ -0,0 +1,49 @@
+package de.neuefische.flooooooooooorian.backend.service;
+
+import de.neuefische.flooooooooooorian.backend.model.Picture;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class LocalPictureStorageTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void storeWritesContentAddressedFile() throws IOException {
+        LocalPictureStorage storage = new LocalPictureStorage(directory, "/pictures");
+        byte[] image = new ClassPathResource("test_img.jpg").getInputStream().readAllBytes();
+
+        Picture picture = storage.store(new MockMultipartFile("file", "test_img.jpg", "image/jpeg", image));
+
+        assertThat(picture.getId(), matchesPattern("[0-9a-f]{64}"));
+        assertThat(picture.getUrl(), is("/pictures/" + picture.getId().substring(0, 2) + "/" + picture.getId() + ".jpg"));
+        Path stored = directory.resolve(picture.getUrl().substring("/pictures/".length()));
+        assertThat(Files.readAllBytes(stored), is(image));
+    }
+
+    @Test
+    void storeSameContentTwiceKeepsOneFile() throws IOException {
+        LocalPictureStorage storage = new LocalPictureStorage(directory, "/pictures/");
+        byte[] image = {1, 2, 3, 4};
+
+        Picture first = storage.store(image);
+        Picture second = storage.store(image);
+
+        assertThat(second, is(first));
+        assertThat(first.getUrl(), endsWith(".bin"));
+        try (Stream<Path> files = Files.walk(directory)) {
+            assertThat(files.filter(Files::isRegularFile).count(), is(1L));
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package de.neuefische.flooooooooooorian.backend.service;
+
+import de.neuefische.flooooooooooorian.backend.model.Location;
+import de.neuefische.flooooooooooorian.backend.model.Picture;
+import de.neuefische.flooooooooooorian.backend.security.model.User;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+class LocationGalleryServiceTest {
+
+    private final PictureUploadService pictureUploadService = mock(PictureUploadService.class);
+    private final LocationService locationService = mock(LocationService.class);
+    private final User user = User.builder().id("user_id").build();
+
+    @Test
+    void addPicturesUploadsConcurrentlyWithinCap() throws IOException {
+        LocationGalleryService locationGalleryService = new LocationGalleryService(pictureUploadService, locationService, 20, 2, 16, Duration.ofSeconds(5));
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        List<MultipartFile> files = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            files.add(new MockMultipartFile("files", new byte[]{(byte) i}));
+        }
+        Location updated = Location.builder().id("location_id").pictures(List.of("url")).build();
+
+        when(pictureUploadService.upload(Mockito.any(MultipartFile.class))).then(invocation -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            Thread.sleep(20);
+            inFlight.decrementAndGet();
+            MultipartFile file = invocation.getArgument(0);
+            return Picture.builder().id("picture_" + file.getBytes()[0]).build();
+        });
+        when(locationService.addPictures(Mockito.eq("location_id"), Mockito.anyList(), Mockito.eq(user))).thenReturn(Optional.of(updated));
+
+        Location actual = locationGalleryService.addPictures("location_id", files, user);
+
+        assertThat(actual, is(updated));
+        assertThat(maxInFlight.get(), lessThanOrEqualTo(2));
+        verify(locationService).getOwnedLocation("location_id", user);
+        verify(locationService).addPictures(Mockito.eq("location_id"), Mockito.argThat(pictures -> pictures.size() == 8
+                && pictures.get(0).getId().equals("picture_0")
+                && pictures.get(7).getId().equals("picture_7")), Mockito.eq(user));
+    }
+
+    @Test
+    void addPicturesTooManyFiles() {
+        LocationGalleryService locationGalleryService = new LocationGalleryService(pictureUploadService, locationService, 1, 2, 16, Duration.ofSeconds(5));
+        List<MultipartFile> files = List.of(new MockMultipartFile("files", new byte[]{1}), new MockMultipartFile("files", new byte[]{2}));
+
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class, () -> locationGalleryService.addPictures("location_id", files, user));
+
+        assertThat(exception.getStatus(), is(HttpStatus.BAD_REQUEST));
+        verifyNoInteractions(pictureUploadService);
+    }
+
+    @Test
+    void addPicturesNotOwner() {
+        LocationGalleryService locationGalleryService = new LocationGalleryService(pictureUploadService, locationService, 20, 2, 16, Duration.ofSeconds(5));
+
+        when(locationService.getOwnedLocation("location_id", user)).thenThrow(new ResponseStatusException(HttpStatus.FORBIDDEN));
+
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class, () -> locationGalleryService.addPictures("location_id", List.of(new MockMultipartFile("files", new byte[]{1})), user));
+
+        assertThat(exception.getStatus(), is(HttpStatus.FORBIDDEN));
+        verifyNoInteractions(pictureUploadService);
+    }
+
+    @Test
+    void addPicturesUploadFails() throws IOException {
+        LocationGalleryService locationGalleryService = new LocationGalleryService(pictureUploadService, locationService, 20, 2, 16, Duration.ofSeconds(5));
+
+        when(pictureUploadService.upload(Mockito.any(MultipartFile.class))).thenThrow(new IOException("storage down"));
+
+        assertThrows(IOException.class, () -> locationGalleryService.addPictures("location_id", List.of(new MockMultipartFile("files", new byte[]{1})), user));
+        verify(locationService, never()).addPictures(Mockito.any(), Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    void addPicturesWaitsForRunningUploadsWhenOneFails() throws IOException {
+        LocationGalleryService locationGalleryService = new LocationGalleryService(pictureUploadService, locationService, 20, 2, 16, Duration.ofSeconds(5));
+        AtomicInteger inFlight = new AtomicInteger();
+        List<MultipartFile> files = List.of(new MockMultipartFile("files", new byte[]{0}), new MockMultipartFile("files", new byte[]{1}));
+
+        when(pictureUploadService.upload(Mockito.any(MultipartFile.class))).then(invocation -> {
+            MultipartFile file = invocation.getArgument(0);
+            if (file.getBytes()[0] == 0) {
+                throw new IOException("storage down");
+            }
+            inFlight.incrementAndGet();
+            Thread.sleep(200);
+            inFlight.decrementAndGet();
+            return Picture.builder().id("picture").build();
+        });
+
+        assertThrows(IOException.class, () -> locationGalleryService.addPictures("location_id", files, user));
+        assertThat(inFlight.get(), is(0));
+    }
+
+    @Test
+    void addPicturesReleasesPermitsWhenSaturated() throws IOException {
+        LocationGalleryService locationGalleryService = new LocationGalleryService(pictureUploadService, locationService, 20, 2, 1, Duration.ofMillis(50));
+        AtomicInteger inFlight = new AtomicInteger();
+        List<MultipartFile> files = List.of(new MockMultipartFile("files", new byte[]{0}), new MockMultipartFile("files", new byte[]{1}));
+
+        when(pictureUploadService.upload(Mockito.any(MultipartFile.class))).then(invocation -> {
+            inFlight.incrementAndGet();
+            Thread.sleep(200);
+            inFlight.decrementAndGet();
+            return Picture.builder().id("picture").build();
+        });
+
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class, () -> locationGalleryService.addPictures("location_id", files, user));
+
+        assertThat(exception.getStatus(), is(HttpStatus.SERVICE_UNAVAILABLE));
+        assertThat(inFlight.get(), is(0));
+        assertThat(locationGalleryService.uploadAll(List.of(new MockMultipartFile("files", new byte[]{2}))), hasSize(1));
+    }
+}
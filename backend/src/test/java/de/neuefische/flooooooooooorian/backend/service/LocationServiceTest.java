@@ -1,18 +1,39 @@
 package de.neuefische.flooooooooooorian.backend.service;
 
+import de.neuefische.flooooooooooorian.backend.dto.CursorPageDto;
+import de.neuefische.flooooooooooorian.backend.dto.location.LocationClusterDto;
 import de.neuefische.flooooooooooorian.backend.dto.location.LocationCreationDto;
+import de.neuefische.flooooooooooorian.backend.dto.location.LocationSummaryDto;
 import de.neuefische.flooooooooooorian.backend.model.Location;
 import de.neuefische.flooooooooooorian.backend.model.Picture;
+import de.neuefische.flooooooooooorian.backend.model.ThumbnailState;
 import de.neuefische.flooooooooooorian.backend.repository.LocationRepository;
 import de.neuefische.flooooooooooorian.backend.security.model.User;
+import de.neuefische.flooooooooooorian.backend.utils.CursorMapper;
+import de.neuefische.flooooooooooorian.backend.utils.LocationMapper;
 import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.Metrics;
+import org.springframework.data.geo.Point;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.geo.GeoJsonPolygon;
+import org.springframework.data.mongodb.core.geo.Sphere;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import static org.hamcrest.MatcherAssert.assertThat;
-import static org.hamcrest.Matchers.containsInAnyOrder;
-import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
 
 class LocationServiceTest {
@@ -20,7 +41,7 @@ class LocationServiceTest {
     private final PictureService pictureService = mock(PictureService.class);
 
     private final LocationRepository locationRepository = mock(LocationRepository.class);
-    private final LocationService locationService = new LocationService(locationRepository, pictureService);
+    private final LocationService locationService = new LocationService(locationRepository, pictureService, Optional.empty(), new LocationTileCache(), new ConcurrentMapCacheManager());
 
     private final UserService userService = mock(UserService.class);
 
@@ -80,6 +101,19 @@ class LocationServiceTest {
         verify(locationRepository).findById(l1.getId());
     }
 
+    @Test
+    void getLocationByIdIsCached() {
+        Location l1 = Location.builder().id("dsfdsfg4eyt").title("title").build();
+
+        when(locationRepository.findById(l1.getId())).thenReturn(Optional.of(l1));
+
+        locationService.getLocationById(l1.getId());
+        Optional<Location> actual = locationService.getLocationById(l1.getId());
+
+        assertThat(actual.get(), is(l1));
+        verify(locationRepository, times(1)).findById(l1.getId());
+    }
+
     @Test
     void getLocationsWithGeoLocation() {
         Location l1 = Location.builder()
@@ -94,12 +128,299 @@ class LocationServiceTest {
                         .build())
                 .build();
 
-        when(locationRepository.findAllByLatBetweenAndLngBetween(45.0, 55.0, 13.0, 23.0)).thenReturn(List.of(l1));
+        GeoJsonPoint point = new GeoJsonPoint(18.0, 50.0);
+        Distance distance = new Distance(LocationService.DEFAULT_RADIUS_KM, Metrics.KILOMETERS);
+        PageRequest pageable = PageRequest.of(0, LocationService.DEFAULT_LIMIT);
+
+        when(locationRepository.findAllByPositionNear(point, distance, pageable)).thenReturn(List.of(l1));
 
         List<Location> actual = locationService.getLocations(Optional.of(50.0), Optional.of(18.0));
 
         assertThat(actual, containsInAnyOrder(l1));
-        verify(locationRepository).findAllByLatBetweenAndLngBetween(45.0, 55.0, 13.0, 23.0);
+        verify(locationRepository).findAllByPositionNear(point, distance, pageable);
+    }
+
+    @Test
+    void getLocationsWithinRadiusClampsRadiusAndLimit() {
+        Sphere sphere = new Sphere(new GeoJsonPoint(18.0, 50.0), new Distance(LocationService.MAX_RADIUS_KM, Metrics.KILOMETERS));
+        PageRequest pageable = PageRequest.of(0, CursorMapper.MAX_PAGE_SIZE + 1, Sort.by("id"));
+
+        when(locationRepository.findAllByPositionWithin(sphere, pageable)).thenReturn(List.of());
+
+        CursorPageDto<Location> actual = locationService.getLocationsWithinRadius(50.0, 18.0, 100000, Optional.empty(), 100000);
+
+        assertThat(actual.getItems(), empty());
+        assertThat(actual.getNext(), nullValue());
+        verify(locationRepository).findAllByPositionWithin(sphere, pageable);
+    }
+
+    @Test
+    void getLocationPageReturnsCursorOfLastItem() {
+        Location l1 = Location.builder().id("a").build();
+        Location l2 = Location.builder().id("b").build();
+        Location l3 = Location.builder().id("c").build();
+        PageRequest pageable = PageRequest.of(0, 3, Sort.by("id"));
+
+        when(locationRepository.findAllBy(pageable)).thenReturn(List.of(l1, l2, l3));
+
+        CursorPageDto<Location> actual = locationService.getLocationPage(Optional.empty(), 2);
+
+        assertThat(actual.getItems(), contains(l1, l2));
+        assertThat(actual.getNext(), is(CursorMapper.encode("b")));
+        verify(locationRepository).findAllBy(pageable);
+    }
+
+    @Test
+    void getLocationPageAfterCursor() {
+        Location l3 = Location.builder().id("c").build();
+        PageRequest pageable = PageRequest.of(0, 3, Sort.by("id"));
+
+        when(locationRepository.findAllByIdGreaterThan("b", pageable)).thenReturn(List.of(l3));
+
+        CursorPageDto<Location> actual = locationService.getLocationPage(Optional.of(CursorMapper.encode("b")), 2);
+
+        assertThat(actual.getItems(), contains(l3));
+        assertThat(actual.getNext(), nullValue());
+        verify(locationRepository).findAllByIdGreaterThan("b", pageable);
+    }
+
+    @Test
+    void getLocationsWithinBox() {
+        Location l1 = Location.builder()
+                .lat(50.0)
+                .lng(15)
+                .id("dsfdsfg4eyt")
+                .build();
+
+        PageRequest pageable = PageRequest.of(0, 81, Sort.by("id"));
+
+        when(locationRepository.findLocations(viewportCriteria(), pageable)).thenReturn(List.of(l1));
+
+        CursorPageDto<Location> actual = locationService.getLocationsWithinBox(45, 10, 55, 20, Optional.empty(), 20);
+
+        assertThat(actual.getItems(), containsInAnyOrder(l1));
+        verify(locationRepository).findLocations(viewportCriteria(), pageable);
+    }
+
+    @Test
+    void getLocationSummaryPageAfterCursor() {
+        LocationSummaryDto l1 = LocationSummaryDto.builder().id("c").lat(50.0).lng(15).title("title").build();
+        Criteria criteria = new Criteria().and("id").gt("b");
+        PageRequest pageable = PageRequest.of(0, 3, Sort.by("id"));
+
+        when(locationRepository.findSummaries(criteria, pageable)).thenReturn(List.of(l1));
+
+        CursorPageDto<LocationSummaryDto> actual = locationService.getLocationSummaryPage(Optional.of(CursorMapper.encode("b")), 2);
+
+        assertThat(actual.getItems(), contains(l1));
+        assertThat(actual.getNext(), nullValue());
+    }
+
+    @Test
+    void getLocationSummariesWithinBox() {
+        LocationSummaryDto l1 = LocationSummaryDto.builder().id("a").lat(50.0).lng(15).title("title").thumbnailUrl("www.url1.com").build();
+        LocationSummaryDto l2 = LocationSummaryDto.builder().id("b").lat(51.0).lng(16).title("title").build();
+        PageRequest pageable = PageRequest.of(0, 5, Sort.by("id"));
+
+        when(locationRepository.findSummaries(viewportCriteria(), pageable)).thenReturn(List.of(l1, l2));
+
+        CursorPageDto<LocationSummaryDto> actual = locationService.getLocationSummariesWithinBox(45, 10, 55, 20, Optional.empty(), 1);
+
+        assertThat(actual.getItems(), contains(l1));
+        assertThat(actual.getNext(), is(CursorMapper.encode("a")));
+    }
+
+    @Test
+    void getLocationsNearUsesSpatialIndexWhenEnabled() {
+        LocationSpatialIndex spatialIndex = new LocationSpatialIndex(locationRepository);
+        spatialIndex.add(LocationSummaryDto.builder().id("far").lat(50.5).lng(15).build());
+        spatialIndex.add(LocationSummaryDto.builder().id("near").lat(50.01).lng(15).build());
+        spatialIndex.add(LocationSummaryDto.builder().id("outside").lat(-30.0).lng(15).build());
+        Location near = Location.builder().id("near").lat(50.01).lng(15).build();
+        Location far = Location.builder().id("far").lat(50.5).lng(15).build();
+        LocationService indexedService = new LocationService(locationRepository, pictureService, Optional.of(spatialIndex), new LocationTileCache(), new ConcurrentMapCacheManager());
+
+        when(locationRepository.findAllById(List.of("near", "far"))).thenReturn(List.of(far, near));
+
+        List<Location> actual = indexedService.getLocationsNear(50, 15, 100, 10);
+
+        assertThat(actual, contains(near, far));
+        verify(locationRepository, never()).findAllByPositionNear(any(), any(), any());
+    }
+
+    @Test
+    void getLocationSummariesWithinBoxUsesSpatialIndexWhenEnabled() {
+        LocationSpatialIndex spatialIndex = new LocationSpatialIndex(locationRepository);
+        spatialIndex.add(LocationSummaryDto.builder().id("c").lat(50.2).lng(15).build());
+        spatialIndex.add(LocationSummaryDto.builder().id("a").lat(50.0).lng(15).build());
+        spatialIndex.add(LocationSummaryDto.builder().id("b").lat(50.1).lng(15).build());
+        spatialIndex.add(LocationSummaryDto.builder().id("outside").lat(-30.0).lng(15).build());
+        LocationService indexedService = new LocationService(locationRepository, pictureService, Optional.of(spatialIndex), new LocationTileCache(), new ConcurrentMapCacheManager());
+
+        CursorPageDto<LocationSummaryDto> first = indexedService.getLocationSummariesWithinBox(45, 10, 55, 20, Optional.empty(), 2);
+        CursorPageDto<LocationSummaryDto> second = indexedService.getLocationSummariesWithinBox(45, 10, 55, 20, Optional.of(first.getNext()), 2);
+
+        assertThat(first.getItems().stream().map(LocationSummaryDto::getId).collect(Collectors.toList()), is(List.of("a", "b")));
+        assertThat(first.getNext(), is(CursorMapper.encode("b")));
+        assertThat(second.getItems().stream().map(LocationSummaryDto::getId).collect(Collectors.toList()), is(List.of("c")));
+        assertThat(second.getNext(), nullValue());
+        verifyNoInteractions(locationRepository);
+    }
+
+    @Test
+    void getLocationSummariesNear() {
+        LocationSummaryDto l1 = LocationSummaryDto.builder().id("a").lat(50.0).lng(15).title("title").build();
+        Criteria near = Criteria.where("position").nearSphere(new GeoJsonPoint(15, 50)).maxDistance(10000);
+
+        when(locationRepository.findSummaries(near, PageRequest.of(0, 5))).thenReturn(List.of(l1));
+
+        List<LocationSummaryDto> actual = locationService.getLocationSummariesNear(50, 15, 10, 5);
+
+        assertThat(actual, contains(l1));
+    }
+
+    @Test
+    void getLocationsWithinBoxCachedPerQuantizedViewport() {
+        Location inside = Location.builder().id("a").lat(50.0).lng(15).build();
+        Location outsideViewport = Location.builder().id("b").lat(55.5).lng(15).build();
+        PageRequest pageable = PageRequest.of(0, 81, Sort.by("id"));
+
+        when(locationRepository.findLocations(viewportCriteria(), pageable)).thenReturn(List.of(inside, outsideViewport));
+
+        CursorPageDto<Location> first = locationService.getLocationsWithinBox(45, 10, 55, 20, Optional.empty(), 20);
+        CursorPageDto<Location> second = locationService.getLocationsWithinBox(45.5, 10.5, 55.5, 19.5, Optional.empty(), 20);
+
+        assertThat(first.getItems(), contains(inside));
+        assertThat(second.getItems(), contains(inside, outsideViewport));
+        verify(locationRepository, times(1)).findLocations(viewportCriteria(), pageable);
+    }
+
+    @Test
+    void getLocationsWithinBoxKeepsFetchingWhenViewportRowsFallOutsideBox() {
+        List<Location> outsideBox = List.of("a", "b", "c", "d", "e").stream()
+                .map(id -> Location.builder().id(id).lat(55.5).lng(15).build())
+                .collect(Collectors.toList());
+        Location inside = Location.builder().id("f").lat(50.0).lng(15).build();
+        PageRequest pageable = PageRequest.of(0, 5, Sort.by("id"));
+
+        when(locationRepository.findLocations(viewportCriteria(), pageable)).thenReturn(outsideBox);
+        when(locationRepository.findLocations(viewportCriteria().and("id").gt("d"), pageable)).thenReturn(List.of(inside));
+
+        CursorPageDto<Location> actual = locationService.getLocationsWithinBox(45, 10, 55, 20, Optional.empty(), 1);
+
+        assertThat(actual.getItems(), contains(inside));
+        assertThat(actual.getNext(), nullValue());
+    }
+
+    @Test
+    void getLocationClustersUsesZoomCellSize() {
+        GeoJsonPolygon box = new GeoJsonPolygon(
+                new Point(10, 44.890778452007524),
+                new Point(20, 44.890778452007524),
+                new Point(20, 55),
+                new Point(10, 55),
+                new Point(10, 44.890778452007524));
+        Criteria criteria = Criteria.where("position").within(box).and("lat").gte(45.0).lte(55.0);
+        LocationClusterDto cluster = LocationClusterDto.builder().lat(50).lng(15).count(3).representativeId("id").build();
+
+        when(locationRepository.findClustersWithin(criteria, 0.3515625)).thenReturn(List.of(cluster));
+
+        List<LocationClusterDto> actual = locationService.getLocationClusters(45, 10, 55, 20, 8);
+
+        assertThat(actual, contains(cluster));
+        verify(locationRepository).findClustersWithin(criteria, 0.3515625);
+    }
+
+    @Test
+    void getLocationClustersWidensPolygonEdgeTowardsEquator() {
+        GeoJsonPolygon box = new GeoJsonPolygon(
+                new Point(10, -40),
+                new Point(20, -40),
+                new Point(20, -29.905501406282664),
+                new Point(10, -29.905501406282664),
+                new Point(10, -40));
+        Criteria criteria = Criteria.where("position").within(box).and("lat").gte(-40.0).lte(-30.0);
+
+        when(locationRepository.findClustersWithin(criteria, 0.3515625)).thenReturn(List.of());
+
+        locationService.getLocationClusters(-40, 10, -30, 20, 8);
+
+        verify(locationRepository).findClustersWithin(criteria, 0.3515625);
+    }
+
+    @Test
+    void getLocationClustersLimitsCellsPerAxis() {
+        Criteria criteria = Criteria.where("lat").gte(-90.0).lte(90.0).and("lng").gte(-180.0).lte(180.0);
+
+        when(locationRepository.findClustersWithin(criteria, 5.625)).thenReturn(List.of());
+
+        locationService.getLocationClusters(-90, -180, 90, 180, 18);
+
+        verify(locationRepository).findClustersWithin(criteria, 5.625);
+    }
+
+    @Test
+    void getLocationClustersUsesCoordinateRangeForHemisphereWideViewport() {
+        Criteria criteria = Criteria.where("lat").gte(-10.0).lte(60.0).and("lng").gte(-100.0).lte(80.0);
+
+        when(locationRepository.findClustersWithin(criteria, 22.5)).thenReturn(List.of());
+
+        locationService.getLocationClusters(-10, -100, 60, 80, 2);
+
+        verify(locationRepository).findClustersWithin(criteria, 22.5);
+    }
+
+    @Test
+    void getLocationTileKeepsTopRatedPointPerPixel() {
+        LocationSummaryDto top = LocationSummaryDto.builder().id("top").lat(50.0).lng(15).title("top").rating(5).build();
+        LocationSummaryDto hidden = LocationSummaryDto.builder().id("hidden").lat(50.0001).lng(15.0001).title("hidden").rating(1).build();
+        LocationSummaryDto other = LocationSummaryDto.builder().id("other").lat(-30.0).lng(-60).title("other").rating(3).build();
+        PageRequest pageable = PageRequest.of(0, LocationService.MAX_TILE_FETCH, Sort.by(Sort.Direction.DESC, "rating"));
+
+        when(locationRepository.findSummaries(new Criteria(), pageable)).thenReturn(List.of(top, other, hidden));
+
+        String actual = new String(locationService.getLocationTile(0, 0, 0), StandardCharsets.UTF_8);
+
+        assertThat(actual, containsString(LocationService.TILE_LAYER));
+        assertThat(actual, containsString("top"));
+        assertThat(actual, containsString("other"));
+        assertThat(actual, not(containsString("hidden")));
+    }
+
+    @Test
+    void getLocationTileIsCachedUntilLocationCreatedInside() {
+        PageRequest pageable = PageRequest.of(0, LocationService.MAX_TILE_FETCH, Sort.by(Sort.Direction.DESC, "rating"));
+        when(locationRepository.findSummaries(new Criteria(), pageable)).thenReturn(List.of());
+        when(locationRepository.save(any())).thenReturn(Location.builder().id("new").lat(50.0).lng(15).build());
+
+        locationService.getLocationTile(0, 0, 0);
+        locationService.getLocationTile(0, 0, 0);
+        verify(locationRepository, times(1)).findSummaries(new Criteria(), pageable);
+
+        locationService.createLocation(LocationCreationDto.builder().lat(50.0).lng(15).title("title").build(), User.builder().build());
+        locationService.getLocationTile(0, 0, 0);
+        verify(locationRepository, times(2)).findSummaries(new Criteria(), pageable);
+    }
+
+    @Test
+    void getLocationTileRejectsTileOutsideZoom() {
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class, () -> locationService.getLocationTile(1, 2, 0));
+
+        assertThat(exception.getStatus(), is(HttpStatus.BAD_REQUEST));
+    }
+
+    @Test
+    void getLocationsFromUserNewestFirst() {
+        User user = User.builder().id("user_id").build();
+        Location l1 = Location.builder().id("a").ownerId("user_id").build();
+        PageRequest pageable = PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "creationDate"));
+
+        when(locationRepository.findByOwnerId("user_id", pageable)).thenReturn(List.of(l1));
+
+        List<Location> actual = locationService.getLocationsFromUser(user, 20);
+
+        assertThat(actual, contains(l1));
+        verify(locationRepository).findByOwnerId("user_id", pageable);
     }
 
     @Test
@@ -139,7 +460,7 @@ class LocationServiceTest {
                 .lng(dto.getLng())
                 .title(dto.getTitle())
                 .description(dto.getDescription())
-                .owner(user)
+                .owner(LocationMapper.toOwnerSnapshot(user))
                 .thumbnail(p1)
                 .build();
 
@@ -160,4 +481,66 @@ class LocationServiceTest {
         verify(pictureService, atLeastOnce()).createPicture(p1dto, user);
         assertThat(actual, is(expected));
     }
+
+    @Test
+    void attachThumbnailMarksLocationReady() {
+        User user = User.builder().id("user_id").email("test@test.com").build();
+        Picture picture = Picture.builder().id("feraegdarg").url("www.url1.com").build();
+        Picture savedPicture = Picture.builder().id("feraegdarg").url("www.url1.com").owner(user).build();
+        Location updated = Location.builder()
+                .id("fdiuasdgiaffgdg")
+                .lat(50.0)
+                .lng(15)
+                .thumbnail(savedPicture)
+                .thumbnailState(ThumbnailState.READY)
+                .build();
+
+        when(pictureService.createPicture(picture, user)).thenReturn(savedPicture);
+        when(locationRepository.updateThumbnail("fdiuasdgiaffgdg", savedPicture, ThumbnailState.READY)).thenReturn(true);
+        when(locationRepository.findById("fdiuasdgiaffgdg")).thenReturn(Optional.of(updated));
+
+        Optional<Location> actual = locationService.attachThumbnail("fdiuasdgiaffgdg", picture, user);
+
+        assertThat(actual, is(Optional.of(updated)));
+        assertThat(locationService.getLocationById("fdiuasdgiaffgdg"), is(Optional.of(updated)));
+        verify(locationRepository, times(1)).findById("fdiuasdgiaffgdg");
+    }
+
+    @Test
+    void failStalePendingThumbnailsMarksEachLocationFailed() {
+        Instant createdBefore = Instant.parse("2021-06-01T00:00:00Z");
+        Location stale = Location.builder().id("stale_id").thumbnailState(ThumbnailState.PENDING).build();
+
+        when(locationRepository.findByThumbnailStateAndCreationDateBefore(ThumbnailState.PENDING, createdBefore, PageRequest.of(0, 100))).thenReturn(List.of(stale));
+        when(locationRepository.updateThumbnail("stale_id", null, ThumbnailState.FAILED)).thenReturn(true);
+
+        int failed = locationService.failStalePendingThumbnails(createdBefore, 100);
+
+        assertThat(failed, is(1));
+        verify(locationRepository).updateThumbnail("stale_id", null, ThumbnailState.FAILED);
+    }
+
+    @Test
+    void getLocationsWithinBoxUsesCoordinateRangeForHemisphereWideViewport() {
+        Location inside = Location.builder().id("a").lat(10.0).lng(120).build();
+        Criteria criteria = Criteria.where("lat").gte(-32.0).lte(64.0).and("lng").gte(-128.0).lte(128.0);
+        PageRequest pageable = PageRequest.of(0, 81, Sort.by("id"));
+
+        when(locationRepository.findLocations(criteria, pageable)).thenReturn(List.of(inside));
+
+        CursorPageDto<Location> actual = locationService.getLocationsWithinBox(-20, -120, 60, 120, Optional.empty(), 20);
+
+        assertThat(actual.getItems(), contains(inside));
+        verify(locationRepository).findLocations(criteria, pageable);
+    }
+
+    private static Criteria viewportCriteria() {
+        GeoJsonPolygon box = new GeoJsonPolygon(
+                new Point(10, 43.89085224804187),
+                new Point(20, 43.89085224804187),
+                new Point(20, 56),
+                new Point(10, 56),
+                new Point(10, 43.89085224804187));
+        return Criteria.where("position").within(box).and("lat").gte(44.0).lte(56.0);
+    }
 }
@@ -0,0 +1,141 @@
+package de.neuefische.flooooooooooorian.backend.service;
+
+import de.neuefische.flooooooooooorian.backend.dto.location.LocationSummaryDto;
+import de.neuefische.flooooooooooorian.backend.repository.LocationRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.*;
+
+class LocationSpatialIndexTest {
+
+    private final LocationRepository locationRepository = mock(LocationRepository.class);
+    private final LocationSpatialIndex spatialIndex = new LocationSpatialIndex(locationRepository);
+
+    @Test
+    void buildIndexFromRepository() {
+        LocationSummaryDto l1 = LocationSummaryDto.builder().id("a").lat(50.0).lng(10.0).title("title a").build();
+        LocationSummaryDto l2 = LocationSummaryDto.builder().id("b").lat(51.0).lng(11.0).title("title b").build();
+
+        when(locationRepository.findSummaries(new Criteria(), PageRequest.of(0, 1000, Sort.by("id")))).thenReturn(List.of(l1, l2));
+
+        spatialIndex.afterPropertiesSet();
+
+        assertThat(spatialIndex.size(), is(2));
+    }
+
+    @Test
+    void nearestOrderedByDistanceAndLimited() {
+        spatialIndex.add(LocationSummaryDto.builder().id("far").lat(52.0).lng(10.0).title("far").build());
+        spatialIndex.add(LocationSummaryDto.builder().id("near").lat(50.01).lng(10.0).title("near").build());
+        spatialIndex.add(LocationSummaryDto.builder().id("middle").lat(50.5).lng(10.0).title("middle").build());
+        spatialIndex.add(LocationSummaryDto.builder().id("outside").lat(-30.0).lng(10.0).title("outside").build());
+
+        List<String> result = spatialIndex.nearest(50.0, 10.0, 500, 2).stream()
+                .map(LocationSummaryDto::getId)
+                .collect(Collectors.toList());
+
+        assertThat(result, contains("near", "middle"));
+    }
+
+    @Test
+    void nearestRespectsMaxDistance() {
+        spatialIndex.add(LocationSummaryDto.builder().id("near").lat(50.01).lng(10.0).title("near").build());
+        spatialIndex.add(LocationSummaryDto.builder().id("far").lat(52.0).lng(10.0).title("far").build());
+
+        List<LocationSummaryDto> result = spatialIndex.nearest(50.0, 10.0, 100, 10);
+
+        assertThat(result, hasSize(1));
+        assertThat(result.get(0).getId(), is("near"));
+    }
+
+    @Test
+    void nearestKeepsSummaryFields() {
+        spatialIndex.add(LocationSummaryDto.builder().id("inside").lat(50.2).lng(10.2).title("title").rating(4)
+                .thumbnailUrl("www.url1.com").build());
+        spatialIndex.add(LocationSummaryDto.builder().id("untitled").lat(50.3).lng(10.2).build());
+
+        List<LocationSummaryDto> result = spatialIndex.nearest(50.2, 10.2, 50, 10);
+
+        assertThat(result, contains(
+                LocationSummaryDto.builder().id("inside").lat(50.2).lng(10.2).title("title").rating(4).thumbnailUrl("www.url1.com").build(),
+                LocationSummaryDto.builder().id("untitled").lat(50.3).lng(10.2).build()));
+    }
+
+    @Test
+    void nearestWrapsAroundAntimeridian() {
+        spatialIndex.add(LocationSummaryDto.builder().id("east").lat(0.0).lng(179.9).build());
+        spatialIndex.add(LocationSummaryDto.builder().id("west").lat(0.0).lng(-179.7).build());
+        spatialIndex.add(LocationSummaryDto.builder().id("far").lat(0.0).lng(170.0).build());
+
+        List<String> result = spatialIndex.nearest(0.0, -179.95, 100, 10).stream()
+                .map(LocationSummaryDto::getId)
+                .collect(Collectors.toList());
+
+        assertThat(result, contains("east", "west"));
+    }
+
+    @Test
+    void withinBoxPagesByIdAfterCursor() {
+        spatialIndex.add(LocationSummaryDto.builder().id("d").lat(50.3).lng(10.3).build());
+        spatialIndex.add(LocationSummaryDto.builder().id("b").lat(50.1).lng(10.1).build());
+        spatialIndex.add(LocationSummaryDto.builder().id("a").lat(50.0).lng(10.0).build());
+        spatialIndex.add(LocationSummaryDto.builder().id("c").lat(52.0).lng(12.0).build());
+        spatialIndex.add(LocationSummaryDto.builder().id("outside").lat(40.0).lng(10.0).build());
+
+        List<String> first = spatialIndex.withinBox(49, 9, 53, 13, Optional.empty(), 2).stream()
+                .map(LocationSummaryDto::getId)
+                .collect(Collectors.toList());
+        List<String> second = spatialIndex.withinBox(49, 9, 53, 13, Optional.of("b"), 10).stream()
+                .map(LocationSummaryDto::getId)
+                .collect(Collectors.toList());
+
+        assertThat(first, contains("a", "b"));
+        assertThat(second, contains("c", "d"));
+    }
+
+    @Test
+    void withinBoxCoversWholeWorldOnce() {
+        spatialIndex.add(LocationSummaryDto.builder().id("dateline").lat(0.0).lng(180.0).build());
+        spatialIndex.add(LocationSummaryDto.builder().id("origin").lat(0.0).lng(0.0).build());
+
+        List<LocationSummaryDto> result = spatialIndex.withinBox(-90, -180, 90, 180, Optional.empty(), 10);
+
+        assertThat(result, hasSize(2));
+    }
+
+    @Test
+    void addExistingLocationMovesIt() {
+        spatialIndex.add(LocationSummaryDto.builder().id("a").lat(50.0).lng(10.0).title("old").build());
+        spatialIndex.add(LocationSummaryDto.builder().id("a").lat(-20.0).lng(-40.0).title("new").build());
+
+        assertThat(spatialIndex.size(), is(1));
+        assertThat(spatialIndex.nearest(50.0, 10.0, 100, 10), empty());
+        List<LocationSummaryDto> result = spatialIndex.nearest(-20.0, -40.0, 100, 10);
+        assertThat(result, hasSize(1));
+        assertThat(result.get(0).getTitle(), is("new"));
+    }
+
+    @Test
+    void growsAndCompactsWhenLocationsAreUpdated() {
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 5000; i++) {
+                spatialIndex.add(LocationSummaryDto.builder().id("id" + i).lat(i % 90).lng(i / 90.0).title("title " + round + " " + i).build());
+            }
+        }
+
+        assertThat(spatialIndex.size(), is(5000));
+        List<LocationSummaryDto> result = spatialIndex.nearest(4321 % 90, 4321 / 90.0, 1, 1);
+        assertThat(result, hasSize(1));
+        assertThat(result.get(0).getId(), is("id4321"));
+        assertThat(result.get(0).getTitle(), is("title 2 4321"));
+    }
+}
@@ -0,0 +1,33 @@
+package de.neuefische.flooooooooooorian.backend.service;
+
+import de.neuefische.flooooooooooorian.backend.event.UserProfileChangedEvent;
+import de.neuefische.flooooooooooorian.backend.model.OwnerSnapshot;
+import de.neuefische.flooooooooooorian.backend.repository.LocationRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class OwnerSnapshotFanOutServiceTest {
+
+    private final LocationRepository locationRepository = mock(LocationRepository.class);
+    private final CacheManager cacheManager = new ConcurrentMapCacheManager();
+    private final OwnerSnapshotFanOutService ownerSnapshotFanOutService = new OwnerSnapshotFanOutService(locationRepository, cacheManager);
+
+    @Test
+    void onUserProfileChangedRewritesSnapshotsAndClearsLocationCaches() {
+        OwnerSnapshot owner = OwnerSnapshot.builder().id("user_id").full_name("New Name").build();
+        cacheManager.getCache(LocationService.LOCATION_CACHE).put("location_id", "stale");
+        cacheManager.getCache(LocationService.BOX_CACHE).put("viewport", "stale");
+
+        ownerSnapshotFanOutService.onUserProfileChanged(new UserProfileChangedEvent(owner));
+
+        verify(locationRepository).updateOwnerSnapshots(owner);
+        assertThat(cacheManager.getCache(LocationService.LOCATION_CACHE).get("location_id"), nullValue());
+        assertThat(cacheManager.getCache(LocationService.BOX_CACHE).get("viewport"), nullValue());
+    }
+}
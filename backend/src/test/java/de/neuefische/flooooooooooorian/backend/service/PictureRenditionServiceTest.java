@@ -0,0 +1,165 @@
+package de.neuefische.flooooooooooorian.backend.service;
+
+import de.neuefische.flooooooooooorian.backend.model.Picture;
+import de.neuefische.flooooooooooorian.backend.model.PictureRendition;
+import de.neuefische.flooooooooooorian.backend.utils.LocationMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.core.io.ByteArrayResource;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.*;
+
+class PictureRenditionServiceTest {
+
+    private final PictureStorage pictureStorage = mock(PictureStorage.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PictureRenditionService pictureRenditionService = new PictureRenditionService(pictureStorage, meterRegistry, List.of(512, 128, 1600), 1, 1, Duration.ofSeconds(10), 100_000_000);
+
+    @Test
+    void createRenditionsForSmallerWidths() throws IOException {
+        AtomicInteger counter = new AtomicInteger();
+        when(pictureStorage.store(Mockito.any(byte[].class))).then(invocation -> {
+            BufferedImage stored = ImageIO.read(new ByteArrayInputStream(invocation.getArgument(0)));
+            return Picture.builder().url("url_" + stored.getWidth() + "_" + counter.incrementAndGet()).build();
+        });
+
+        List<PictureRendition> renditions = pictureRenditionService.createRenditions(new ByteArrayResource(image(1000, 500)));
+
+        assertThat(renditions, hasSize(2));
+        assertThat(renditions.get(0).getWidth(), is(128));
+        assertThat(renditions.get(0).getHeight(), is(64));
+        assertThat(renditions.get(0).getUrl(), Matchers.startsWith("url_128_"));
+        assertThat(renditions.get(1).getWidth(), is(512));
+        assertThat(renditions.get(1).getHeight(), is(256));
+        assertThat(renditions.get(1).getUrl(), Matchers.startsWith("url_512_"));
+    }
+
+    @Test
+    void createRenditionsSubsamplesLargeImages() throws IOException {
+        PictureRenditionService subsampling = new PictureRenditionService(pictureStorage, meterRegistry, List.of(128), 1, 1, Duration.ofSeconds(10), 100_000_000);
+        AtomicInteger storedWidth = new AtomicInteger();
+        when(pictureStorage.store(Mockito.any(byte[].class))).then(invocation -> {
+            storedWidth.set(ImageIO.read(new ByteArrayInputStream(invocation.getArgument(0))).getWidth());
+            return Picture.builder().url("url").build();
+        });
+
+        List<PictureRendition> renditions = subsampling.createRenditions(new ByteArrayResource(image(4000, 2000)));
+
+        assertThat(renditions, hasSize(1));
+        assertThat(renditions.get(0).getWidth(), is(128));
+        assertThat(renditions.get(0).getHeight(), is(64));
+        assertThat(storedWidth.get(), is(128));
+        subsampling.shutdown();
+    }
+
+    @Test
+    void createRenditionsSkipsImagesAboveThePixelBudget() throws IOException {
+        PictureRenditionService budgeted = new PictureRenditionService(pictureStorage, meterRegistry, List.of(128), 1, 1, Duration.ofSeconds(10), 100_000);
+
+        List<PictureRendition> renditions = budgeted.createRenditions(new ByteArrayResource(image(1000, 500)));
+
+        assertThat(renditions, empty());
+        verify(pictureStorage, never()).store(Mockito.any(byte[].class));
+        budgeted.shutdown();
+    }
+
+    @Test
+    void createRenditionsForNonImage() throws IOException {
+        List<PictureRendition> renditions = pictureRenditionService.createRenditions(new ByteArrayResource(new byte[]{1, 2, 3}));
+
+        assertThat(renditions, empty());
+        verify(pictureStorage, never()).store(Mockito.any(byte[].class));
+    }
+
+    @Test
+    void createRenditionsStorageFails() throws IOException {
+        when(pictureStorage.store(Mockito.any(byte[].class))).thenThrow(new IOException("disk full"));
+
+        List<PictureRendition> renditions = pictureRenditionService.createRenditions(new ByteArrayResource(image(1000, 500)));
+
+        assertThat(renditions, empty());
+        assertThat(meterRegistry.counter("picture.renditions.failed", "reason", "error").count(), is(1.0));
+    }
+
+    @Test
+    void createRenditionsRendersOnCallerWhenSaturated() throws IOException, InterruptedException {
+        PictureRenditionService saturated = new PictureRenditionService(pictureStorage, meterRegistry, List.of(128), 1, 1, Duration.ofSeconds(10), 100_000_000);
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        byte[] image = image(1000, 500);
+        when(pictureStorage.store(Mockito.any(byte[].class))).then(invocation -> {
+            if (!Thread.currentThread().getName().startsWith("picture-rendition-")) {
+                return Picture.builder().url("caller").build();
+            }
+            blocked.countDown();
+            release.await();
+            return Picture.builder().url("worker").build();
+        });
+        Thread first = new Thread(() -> saturated.createRenditions(new ByteArrayResource(image)));
+        Thread second = new Thread(() -> saturated.createRenditions(new ByteArrayResource(image)));
+        first.start();
+        blocked.await();
+        second.start();
+        while (saturated.queued() == 0) {
+            Thread.onSpinWait();
+        }
+
+        List<PictureRendition> renditions = saturated.createRenditions(new ByteArrayResource(image));
+
+        assertThat(renditions, hasSize(1));
+        assertThat(renditions.get(0).getUrl(), is("caller"));
+        assertThat(meterRegistry.counter("picture.renditions.saturated").count(), is(1.0));
+        release.countDown();
+        first.join();
+        second.join();
+        saturated.shutdown();
+    }
+
+    @Test
+    void withRenditionsUsesStorageTransformations() throws IOException {
+        Picture picture = Picture.builder().id("picture_id").url("original").build();
+        List<PictureRendition> transformed = List.of(PictureRendition.builder().width(128).url("transformed").build());
+        when(pictureStorage.transformedRenditions(picture, List.of(128, 512, 1600))).thenReturn(Optional.of(transformed));
+
+        Picture actual = pictureRenditionService.withRenditions(picture, new ByteArrayResource(image(1000, 500)));
+
+        assertThat(actual.getRenditions(), is(transformed));
+        verify(pictureStorage, never()).store(Mockito.any(byte[].class));
+    }
+
+    @Test
+    void urlForWidthPicksSmallestSufficientRendition() {
+        Picture picture = Picture.builder()
+                .url("original")
+                .renditions(List.of(
+                        PictureRendition.builder().width(128).url("small").build(),
+                        PictureRendition.builder().width(512).url("medium").build()))
+                .build();
+
+        assertThat(LocationMapper.urlForWidth(picture, 100), is("small"));
+        assertThat(LocationMapper.urlForWidth(picture, 300), is("medium"));
+        assertThat(LocationMapper.urlForWidth(picture, 1000), is("original"));
+        assertThat(LocationMapper.urlForWidth(Picture.builder().url("original").build(), 100), is("original"));
+    }
+
+    private static byte[] image(int width, int height) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", outputStream);
+        return outputStream.toByteArray();
+    }
+}
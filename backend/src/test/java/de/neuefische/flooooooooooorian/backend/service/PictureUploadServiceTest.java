@@ -0,0 +1,126 @@
+package de.neuefische.flooooooooooorian.backend.service;
+
+import de.neuefische.flooooooooooorian.backend.model.Picture;
+import de.neuefische.flooooooooooorian.backend.repository.PictureRepository;
+import de.neuefische.flooooooooooorian.backend.security.model.User;
+import de.neuefische.flooooooooooorian.backend.utils.ContentHash;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.*;
+
+class PictureUploadServiceTest {
+
+    private final PictureStorage pictureStorage = mock(PictureStorage.class);
+    private final PictureRepository pictureRepository = mock(PictureRepository.class);
+    private final PictureRenditionService pictureRenditionService = mock(PictureRenditionService.class);
+    private final PictureService pictureService = new PictureService(pictureRepository);
+    private final PictureUploadService pictureUploadService = new PictureUploadService(pictureStorage, pictureService, pictureRenditionService);
+
+    private final byte[] image = {1, 2, 3};
+    private final String hash = ContentHash.sha256(image);
+
+    @Test
+    void uploadNewImageStoresWithContentHash() throws IOException {
+        MockMultipartFile file = new MockMultipartFile("file", image);
+        Picture stored = Picture.builder().id("id").url("url").build();
+
+        when(pictureRepository.findByContentHash(hash)).thenReturn(Optional.empty());
+        when(pictureStorage.store(file)).thenReturn(stored);
+        when(pictureRenditionService.withRenditions(Mockito.eq(stored), Mockito.any())).thenReturn(stored);
+
+        Picture actual = pictureUploadService.upload(file);
+
+        assertThat(actual.getContentHash(), is(hash));
+        assertThat(hash, is("039058c6f2c0cb492c533b0a4d14ef77cc0f78abccced5287d84a1a2011cfb81"));
+        verify(pictureStorage).store(file);
+    }
+
+    @Test
+    void uploadDuplicateImageReusesPicture() throws IOException {
+        Picture existing = Picture.builder().id("id").url("url").contentHash(hash).build();
+
+        when(pictureRepository.findByContentHash(hash)).thenReturn(Optional.of(existing));
+
+        Picture actual = pictureUploadService.upload(new MockMultipartFile("file", image));
+
+        assertThat(actual, is(existing));
+        verify(pictureStorage, never()).store(Mockito.any(MultipartFile.class));
+        verifyNoInteractions(pictureRenditionService);
+    }
+
+    @Test
+    void discardDeletesUnreferencedPicture() throws IOException {
+        Picture orphan = Picture.builder().id("id").url("url").contentHash(hash).build();
+
+        when(pictureRepository.findByContentHash(hash)).thenReturn(Optional.empty());
+
+        pictureUploadService.discard(orphan);
+
+        verify(pictureStorage).delete(orphan);
+    }
+
+    @Test
+    void discardKeepsPersistedPicture() throws IOException {
+        Picture existing = Picture.builder().id("id").url("url").contentHash(hash).build();
+
+        when(pictureRepository.findByContentHash(hash)).thenReturn(Optional.of(existing));
+
+        pictureUploadService.discard(existing);
+
+        verify(pictureStorage, never()).delete(Mockito.any());
+    }
+
+    @Test
+    void createPictureReturnsExistingPictureForSameHash() {
+        Picture existing = Picture.builder().id("id").url("url").contentHash(hash).build();
+
+        when(pictureRepository.findByContentHash(hash)).thenReturn(Optional.of(existing));
+
+        Picture actual = pictureService.createPicture(Picture.builder().id("other").contentHash(hash).build(), User.builder().build());
+
+        assertThat(actual, is(existing));
+        verify(pictureRepository, never()).save(Mockito.any());
+    }
+
+    @Test
+    void createPictureConcurrentDuplicateReturnsWinner() {
+        Picture existing = Picture.builder().id("id").url("url").contentHash(hash).build();
+
+        when(pictureRepository.findByContentHash(hash)).thenReturn(Optional.empty()).thenReturn(Optional.of(existing));
+        when(pictureRepository.save(Mockito.any())).thenThrow(new DuplicateKeyException("duplicate contentHash"));
+
+        Picture actual = pictureService.createPicture(Picture.builder().id("other").contentHash(hash).build(), User.builder().build());
+
+        assertThat(actual, is(existing));
+    }
+
+    @Test
+    void createPicturesInsertsNewPicturesInOneBatch() {
+        User user = User.builder().id("user_id").build();
+        Picture known = Picture.builder().id("known").contentHash("hash_known").build();
+        Picture first = Picture.builder().id("first").contentHash("hash_new").build();
+        Picture sameContent = Picture.builder().id("same").contentHash("hash_new").build();
+        Picture reupload = Picture.builder().id("reupload").contentHash("hash_known").build();
+
+        when(pictureRepository.findAllByContentHashIn(Set.of("hash_known", "hash_new"))).thenReturn(List.of(known));
+
+        List<Picture> actual = pictureService.createPictures(List.of(first, sameContent, reupload), user);
+
+        assertThat(actual, contains(first, first, known));
+        assertThat(first.getOwner(), is(user));
+        verify(pictureRepository).insertAll(List.of(first));
+        verify(pictureRepository, never()).save(Mockito.any());
+    }
+}
@@ -0,0 +1,196 @@
+package de.neuefische.flooooooooooorian.backend.service;
+
+import de.neuefische.flooooooooooorian.backend.dto.location.LocationCreationDto;
+import de.neuefische.flooooooooooorian.backend.model.Location;
+import de.neuefische.flooooooooooorian.backend.model.Picture;
+import de.neuefische.flooooooooooorian.backend.model.ThumbnailState;
+import de.neuefische.flooooooooooorian.backend.security.model.User;
+import de.neuefische.flooooooooooorian.backend.utils.ContentHash;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+class ThumbnailUploadServiceTest {
+
+    private final PictureUploadService pictureUploadService = mock(PictureUploadService.class);
+    private final LocationService locationService = mock(LocationService.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final User user = User.builder().id("user_id").email("test@test.com").build();
+    private final LocationCreationDto dto = LocationCreationDto.builder().lat(50.0).lng(15).title("title").build();
+    private final MockMultipartFile file = new MockMultipartFile("file", new byte[]{1, 2, 3});
+
+    @Test
+    void createLocationSavesPendingLocationAndAttachesThumbnail() throws IOException, InterruptedException {
+        ThumbnailUploadService thumbnailUploadService = new ThumbnailUploadService(pictureUploadService, locationService, meterRegistry, 1, 1, 3, Duration.ZERO, Duration.ZERO, Duration.ofMinutes(10));
+        Picture picture = Picture.builder().id("picture_id").url("url").build();
+        CountDownLatch attached = new CountDownLatch(1);
+        AtomicReference<byte[]> uploaded = new AtomicReference<>();
+
+        when(locationService.createPendingLocation(dto, user)).thenReturn(Location.builder().id("location_id").thumbnailState(ThumbnailState.PENDING).build());
+        when(pictureUploadService.upload(Mockito.any(MultipartFile.class))).then(invocation -> {
+            uploaded.set(invocation.<MultipartFile>getArgument(0).getBytes());
+            return picture;
+        });
+        when(locationService.attachThumbnail("location_id", picture, user)).then(invocation -> {
+            attached.countDown();
+            return Optional.empty();
+        });
+
+        Location location = thumbnailUploadService.createLocation(dto, file, user);
+
+        assertThat(location.getThumbnailState(), is(ThumbnailState.PENDING));
+        assertThat(attached.await(5, TimeUnit.SECONDS), is(true));
+        assertThat(uploaded.get(), is(new byte[]{1, 2, 3}));
+    }
+
+    @Test
+    void createLocationDeletesSpooledFileAfterUpload() throws IOException {
+        ThumbnailUploadService thumbnailUploadService = new ThumbnailUploadService(pictureUploadService, locationService, meterRegistry, 1, 1, 1, Duration.ZERO, Duration.ZERO, Duration.ofMinutes(10));
+        AtomicReference<MultipartFile> spooled = new AtomicReference<>();
+
+        when(locationService.createPendingLocation(dto, user)).thenReturn(Location.builder().id("location_id").build());
+        when(pictureUploadService.upload(Mockito.any(MultipartFile.class))).then(invocation -> {
+            spooled.set(invocation.getArgument(0));
+            return Picture.builder().id("picture_id").build();
+        });
+
+        thumbnailUploadService.createLocation(dto, file, user);
+        while (thumbnailUploadService.availablePermits() < 2) {
+            Thread.onSpinWait();
+        }
+
+        assertThrows(IOException.class, () -> spooled.get().getInputStream());
+    }
+
+    @Test
+    void createLocationWithDuplicateImageSkipsQueue() throws IOException {
+        ThumbnailUploadService thumbnailUploadService = new ThumbnailUploadService(pictureUploadService, locationService, meterRegistry, 1, 0, 1, Duration.ZERO, Duration.ZERO, Duration.ofMinutes(10));
+        Picture existing = Picture.builder().id("picture_id").build();
+        Location created = Location.builder().id("location_id").thumbnail(existing).thumbnailState(ThumbnailState.READY).build();
+
+        when(pictureUploadService.findDuplicate(ContentHash.sha256(new byte[]{1, 2, 3}))).thenReturn(Optional.of(existing));
+        when(locationService.createLocation(dto, existing, user)).thenReturn(created);
+
+        Location location = thumbnailUploadService.createLocation(dto, file, user);
+
+        assertThat(location, is(created));
+        assertThat(thumbnailUploadService.availablePermits(), is(1));
+        verify(locationService, never()).createPendingLocation(Mockito.any(), Mockito.any());
+        verify(pictureUploadService, never()).upload(Mockito.any(MultipartFile.class));
+    }
+
+    @Test
+    void createLocationQueueFull() throws IOException, InterruptedException {
+        ThumbnailUploadService thumbnailUploadService = new ThumbnailUploadService(pictureUploadService, locationService, meterRegistry, 1, 0, 1, Duration.ZERO, Duration.ZERO, Duration.ofMinutes(10));
+        CountDownLatch release = new CountDownLatch(1);
+
+        when(locationService.createPendingLocation(dto, user)).thenReturn(Location.builder().id("location_id").build());
+        when(pictureUploadService.upload(Mockito.any(MultipartFile.class))).then(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return Picture.builder().build();
+        });
+
+        thumbnailUploadService.createLocation(dto, file, user);
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class, () -> thumbnailUploadService.createLocation(dto, file, user));
+        release.countDown();
+
+        assertThat(exception.getStatus(), is(HttpStatus.SERVICE_UNAVAILABLE));
+        verify(locationService, times(1)).createPendingLocation(dto, user);
+    }
+
+    @Test
+    void uploadRetriesAndMarksFailed() throws IOException {
+        ThumbnailUploadService thumbnailUploadService = new ThumbnailUploadService(pictureUploadService, locationService, meterRegistry, 1, 1, 3, Duration.ZERO, Duration.ZERO, Duration.ofMinutes(10));
+
+        when(pictureUploadService.upload(Mockito.any(MultipartFile.class))).thenThrow(new IOException("timeout"));
+
+        thumbnailUploadService.upload("location_id", file, user);
+
+        verify(pictureUploadService, times(3)).upload(Mockito.any(MultipartFile.class));
+        verify(locationService).markThumbnailFailed("location_id");
+        verify(locationService, never()).attachThumbnail(Mockito.any(), Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    void uploadRetriesUntilSuccess() throws IOException {
+        ThumbnailUploadService thumbnailUploadService = new ThumbnailUploadService(pictureUploadService, locationService, meterRegistry, 1, 1, 3, Duration.ZERO, Duration.ZERO, Duration.ofMinutes(10));
+        Picture picture = Picture.builder().id("picture_id").build();
+
+        when(pictureUploadService.upload(Mockito.any(MultipartFile.class))).thenThrow(new IOException("timeout")).thenReturn(picture);
+
+        thumbnailUploadService.upload("location_id", file, user);
+
+        verify(pictureUploadService, times(2)).upload(Mockito.any(MultipartFile.class));
+        verify(locationService).attachThumbnail("location_id", picture, user);
+        verify(locationService, never()).markThumbnailFailed(Mockito.any());
+    }
+
+    @Test
+    void uploadMarksFailedWhenAttachFails() throws IOException {
+        ThumbnailUploadService thumbnailUploadService = new ThumbnailUploadService(pictureUploadService, locationService, meterRegistry, 1, 1, 3, Duration.ZERO, Duration.ZERO, Duration.ofMinutes(10));
+        Picture picture = Picture.builder().id("picture_id").build();
+
+        when(pictureUploadService.upload(Mockito.any(MultipartFile.class))).thenReturn(picture);
+        when(locationService.attachThumbnail("location_id", picture, user)).thenThrow(new IllegalStateException("mongo down"));
+
+        thumbnailUploadService.upload("location_id", file, user);
+
+        verify(locationService).markThumbnailFailed("location_id");
+        verify(pictureUploadService).discard(picture);
+    }
+
+    @Test
+    void uploadCountsOrphanWhenDiscardFails() throws IOException {
+        ThumbnailUploadService thumbnailUploadService = new ThumbnailUploadService(pictureUploadService, locationService, meterRegistry, 1, 1, 3, Duration.ZERO, Duration.ZERO, Duration.ofMinutes(10));
+        Picture picture = Picture.builder().id("picture_id").build();
+
+        when(pictureUploadService.upload(Mockito.any(MultipartFile.class))).thenReturn(picture);
+        when(locationService.attachThumbnail("location_id", picture, user)).thenThrow(new IllegalStateException("mongo down"));
+        doThrow(new IOException("storage down")).when(pictureUploadService).discard(picture);
+
+        thumbnailUploadService.upload("location_id", file, user);
+
+        assertThat(meterRegistry.counter("thumbnail.upload.orphaned").count(), is(1.0));
+    }
+
+    @Test
+    void failStalePendingUploadsSweepsUntilNoneLeft() {
+        ThumbnailUploadService thumbnailUploadService = new ThumbnailUploadService(pictureUploadService, locationService, meterRegistry, 1, 1, 3, Duration.ZERO, Duration.ZERO, Duration.ofMinutes(10));
+
+        when(locationService.failStalePendingThumbnails(Mockito.any(), Mockito.eq(100))).thenReturn(100, 7);
+
+        thumbnailUploadService.failStalePendingUploads();
+
+        ArgumentCaptor<Instant> createdBefore = ArgumentCaptor.forClass(Instant.class);
+        verify(locationService, times(2)).failStalePendingThumbnails(createdBefore.capture(), Mockito.eq(100));
+        assertThat(createdBefore.getValue().isBefore(Instant.now().minus(Duration.ofMinutes(9))), is(true));
+    }
+
+    @Test
+    void backoffWithJitterStaysWithinCappedWindow() {
+        ThumbnailUploadService thumbnailUploadService = new ThumbnailUploadService(pictureUploadService, locationService, meterRegistry, 1, 1, 5, Duration.ofMillis(100), Duration.ofMillis(300), Duration.ofMinutes(10));
+
+        assertThat(thumbnailUploadService.backoffWithJitter(1), both(greaterThanOrEqualTo(50L)).and(lessThanOrEqualTo(100L)));
+        assertThat(thumbnailUploadService.backoffWithJitter(2), both(greaterThanOrEqualTo(100L)).and(lessThanOrEqualTo(200L)));
+        assertThat(thumbnailUploadService.backoffWithJitter(4), both(greaterThanOrEqualTo(150L)).and(lessThanOrEqualTo(300L)));
+    }
+}
@@ -1,18 +1,28 @@
 package de.neuefische.flooooooooooorian.backend.service;
 
-import de.neuefische.flooooooooooorian.backend.config.EmailConfig;
 import de.neuefische.flooooooooooorian.backend.dto.login.LoginJWTDto;
+import de.neuefische.flooooooooooorian.backend.dto.login.PasswordResetDto;
 import de.neuefische.flooooooooooorian.backend.dto.login.google.GoogleAccessTokenDto;
 import de.neuefische.flooooooooooorian.backend.dto.login.google.GoogleProfileDto;
+import de.neuefische.flooooooooooorian.backend.dto.user.ProfileDto;
+import de.neuefische.flooooooooooorian.backend.dto.user.UserDto;
+import de.neuefische.flooooooooooorian.backend.event.UserProfileChangedEvent;
+import de.neuefische.flooooooooooorian.backend.model.Location;
+import de.neuefische.flooooooooooorian.backend.model.OwnerSnapshot;
 import de.neuefische.flooooooooooorian.backend.security.dto.UserCreationDto;
 import de.neuefische.flooooooooooorian.backend.security.dto.UserLoginDto;
 import de.neuefische.flooooooooooorian.backend.security.model.CustomUserDetails;
 import de.neuefische.flooooooooooorian.backend.security.model.User;
 import de.neuefische.flooooooooooorian.backend.security.repository.UserRepository;
 import de.neuefische.flooooooooooorian.backend.security.service.JwtUtilsService;
+import de.neuefische.flooooooooooorian.backend.security.service.PasswordHashingService;
+import de.neuefische.flooooooooooorian.backend.security.service.TokenRevocationService;
+import de.neuefische.flooooooooooorian.backend.security.service.UserSecurityService;
+import de.neuefische.flooooooooooorian.backend.utils.LocationMapper;
 import org.assertj.core.condition.AnyOf;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.DisabledException;
@@ -22,6 +32,7 @@ import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
 
@@ -37,10 +48,14 @@ class UserServiceTest {
     private final PasswordEncoder passwordEncoder = mock(PasswordEncoder.class);
     private final JwtUtilsService jwtUtilsService = mock(JwtUtilsService.class);
     private final LocationService locationService = mock(LocationService.class);
-    private final EmailConfig emailConfig = mock(EmailConfig.class);
+    private final EmailOutboxService emailOutboxService = mock(EmailOutboxService.class);
     private final AuthenticationManager authenticationManager = mock(AuthenticationManager.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final UserSecurityService userSecurityService = mock(UserSecurityService.class);
+    private final TokenRevocationService tokenRevocationService = mock(TokenRevocationService.class);
+    private final PasswordHashingService passwordHashingService = new PasswordHashingService(passwordEncoder, 1, 1, Duration.ofSeconds(5));
 
-    private final UserService userService = new UserService(userRepository, passwordEncoder, jwtUtilsService, authenticationManager, locationService, emailConfig);
+    private final UserService userService = new UserService(userRepository, passwordHashingService, jwtUtilsService, authenticationManager, locationService, emailOutboxService, eventPublisher, userSecurityService, tokenRevocationService);
 
     @Test
     void registerNewUserByEmail() {
@@ -177,9 +192,87 @@ class UserServiceTest {
 
         verify(userRepository).existsUserByEmail(googleProfileDto.getEmail());
         verify(userRepository).findUserByEmail(googleProfileDto.getEmail());
+        verifyNoInteractions(eventPublisher);
         assertThat(actual_user, is(userWithId));
     }
 
+    @Test
+    void loginExistingUserWithGoogleUpdatesChangedProfile() {
+        GoogleProfileDto googleProfileDto = GoogleProfileDto.builder()
+                .email("test_email")
+                .name("new_name")
+                .picture("new_picture_url")
+                .verified_email(true)
+                .build();
+
+        User storedUser = User.builder()
+                .avatar_url("old_picture_url")
+                .role("User")
+                .full_name("old_name")
+                .email(googleProfileDto.getEmail())
+                .enabled(true)
+                .id("google_user_id")
+                .build();
+
+        when(userRepository.existsUserByEmail(googleProfileDto.getEmail())).thenReturn(true);
+        when(userRepository.findUserByEmail(googleProfileDto.getEmail())).thenReturn(Optional.of(storedUser));
+        when(userRepository.save(any())).then(invocation -> invocation.getArgument(0));
+
+        User actual_user = userService.loginUserWithGoogle(googleProfileDto, new GoogleAccessTokenDto());
+
+        assertThat(actual_user.getFull_name(), is("new_name"));
+        assertThat(actual_user.getAvatar_url(), is("new_picture_url"));
+        verify(eventPublisher).publishEvent(new UserProfileChangedEvent(OwnerSnapshot.builder()
+                .id("google_user_id")
+                .full_name("new_name")
+                .avatar_url("new_picture_url")
+                .build()));
+    }
+
+    @Test
+    void getProfileReturnsNewestLocationsAndCount() {
+        User user = User.builder()
+                .id("user_id")
+                .email("test_email")
+                .full_name("full_name")
+                .avatar_url("avatar_url")
+                .build();
+        Location location = Location.builder()
+                .id("location_id")
+                .title("title")
+                .owner(LocationMapper.toOwnerSnapshot(user))
+                .ownerId(user.getId())
+                .build();
+
+        when(userRepository.findUserByEmail("test_email")).thenReturn(Optional.of(user));
+        when(locationService.getLocationsFromUser(user, UserService.PROFILE_LOCATION_LIMIT)).thenReturn(List.of(location));
+        when(locationService.countLocationsFromUser(user)).thenReturn(42L);
+
+        ProfileDto actual = userService.getProfile("test_email");
+
+        assertThat(actual.getUser(), is(UserDto.builder().full_name("full_name").avatar_url("avatar_url").build()));
+        assertThat(actual.getLocations(), contains(LocationMapper.toLocationDto(location)));
+        assertThat(actual.getLocationCount(), is(42L));
+    }
+
+    @Test
+    void resetPasswordRevokesIssuedTokens() {
+        User user = User.builder().email("test_email").password("old_hash").enabled(true).build();
+        PasswordResetDto passwordResetDto = new PasswordResetDto("test_email", "new_password", "token");
+
+        when(userRepository.findUserByEmail("test_email")).thenReturn(Optional.of(user));
+        when(passwordEncoder.encode("new_password")).thenReturn("new_hash");
+
+        boolean actual = userService.resetPassword(passwordResetDto);
+
+        assertThat(actual, is(true));
+        assertThat(user.getPassword(), is("new_hash"));
+        assertThat(user.getTokenVersion(), is(1L));
+        verify(userRepository).save(user);
+        verify(userSecurityService).evictPrincipal("test_email");
+        verify(tokenRevocationService).revoke(user);
+    }
+
     @Test
     void loginWithCorrectData() {
         UserLoginDto userLoginDto = new UserLoginDto("testemail@test.com", "test_password");
@@ -187,19 +280,23 @@ class UserServiceTest {
         Authentication authentication = mock(Authentication.class);
 
         when(authenticationManager.authenticate(usernamePasswordAuthenticationToken)).thenReturn(authentication);
-        when(authentication.getPrincipal()).thenReturn(new CustomUserDetails("test_username", userLoginDto.getEmail(), userLoginDto.getPassword(), List.of(new SimpleGrantedAuthority("User"))));
+        CustomUserDetails userDetails = new CustomUserDetails("test_username", userLoginDto.getEmail(), userLoginDto.getPassword(), List.of(new SimpleGrantedAuthority("User")));
+        userDetails.setId("user_id");
+        userDetails.setTokenVersion(3);
+        when(authentication.getPrincipal()).thenReturn(userDetails);
         when(authentication.getName()).thenReturn(userLoginDto.getEmail());
 
         Mockito.doReturn(List.of(new SimpleGrantedAuthority("User"))).when(authentication).getAuthorities();
 
-        when(jwtUtilsService.createToken(new HashMap<>(Map.of("name", "test_username")), userLoginDto.getEmail())).thenReturn("jwt_test_token");
+        HashMap<String, Object> claims = new HashMap<>(Map.of("name", "test_username", "role", "User", "uid", "user_id", "ver", 3L));
+        when(jwtUtilsService.createToken(claims, userLoginDto.getEmail())).thenReturn("jwt_test_token");
 
         LoginJWTDto jwtDto = userService.login(userLoginDto);
 
         verify(authenticationManager).authenticate(usernamePasswordAuthenticationToken);
         verify(authentication, atLeastOnce()).getPrincipal();
         verify(authentication).getName();
-        verify(jwtUtilsService).createToken(new HashMap<>(Map.of("name", "test_username")), userLoginDto.getEmail());
+        verify(jwtUtilsService).createToken(claims, userLoginDto.getEmail());
         assertThat(jwtDto.getJwt(), is("jwt_test_token"));
         assertThat(jwtDto.getAuthorities(), arrayContainingInAnyOrder("User"));
     }
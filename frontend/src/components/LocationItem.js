@@ -12,7 +12,7 @@ export default function LocationItem({location, showDetailsPage}) {
         <div>
             <Card className={classes.card} onClick={handleListItemClick}>
                 <CardContent className={classes.content}>
-                    <CardMedia className={classes.media} image={location.thumbnail ? location.thumbnail.url : "https://picsum.photos/300/200"}/>
+                    <CardMedia className={classes.media} image={location.thumbnailUrl ? location.thumbnailUrl : "https://picsum.photos/300/200"}/>
                     <Typography className={classes.title} component={"h6"} variant={"h6"}>
                         {location.title}
                     </Typography>
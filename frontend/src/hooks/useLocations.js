@@ -6,11 +6,11 @@ export default function useLocations(geoLocation) {
 
     const [locations, setLocations] = useState([])
     const geoUrlData = `${geoLocation?`?lat=${geoLocation.latitude}&lng=${geoLocation.longitude}` : ""}`
-    const url = `/api/location${geoUrlData}`
+    const url = `/api/location/summaries${geoUrlData}`
 
     useEffect(() => {
         axios.get(url)
-            .then((response) => response.data)
+            .then((response) => response.data.items)
             .then(setLocations)
             .catch(console.error)
     }, [url])
@@ -67,14 +67,9 @@ export default function CreateLocationPage() {
             formData.append("file", inputRef.current.files[0])
         }
 
-        axios.post("/api/location", formData, config)
+        axios.post("/api/location?async=true", formData, config)
             .then((response) => response.data)
-            .then((data) => {
-                history.push({
-                    pathname: "/locations/" + data.id,
-                    state: {loc: data}
-                })
-            })
+            .then((data) => history.push("/locations/" + data.id))
             .catch(console.error)
     }
 
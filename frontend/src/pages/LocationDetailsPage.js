@@ -1,25 +1,41 @@
 import {useEffect, useState} from "react";
 import {Box, Card, CardContent, CardHeader, CardMedia, createTheme, makeStyles, Typography} from "@material-ui/core";
-import {useLocation, useParams} from "react-router-dom";
+import {useParams} from "react-router-dom";
 import StarIcon from '@material-ui/icons/Star';
 import axios from "axios";
 
+const THUMBNAIL_POLL_INTERVAL = 2000
+const DETAILS_IMAGE_WIDTH = 1600
+
 export default function LocationDetailsPage() {
-    const historyState = useLocation();
-    const [location, setLocation] = useState(historyState.state?.loc)
+    const [location, setLocation] = useState()
     const {id} = useParams()
 
     const classes = useStyles()
 
     useEffect(() => {
-        if (!location) {
-            axios.get("/api/location/" + id)
+        setLocation(undefined)
+        axios.get("/api/location/" + id, {params: {width: DETAILS_IMAGE_WIDTH}})
+            .then((response) => response.data)
+            .then(setLocation)
+            .catch((error) => {
+                console.error(error)
+            })
+    }, [id, setLocation])
+
+    useEffect(() => {
+        if (location?.thumbnailState !== "PENDING") {
+            return
+        }
+        const timeout = setTimeout(() => {
+            axios.get("/api/location/" + id, {params: {width: DETAILS_IMAGE_WIDTH}})
                 .then((response) => response.data)
                 .then(setLocation)
                 .catch((error) => {
                     console.error(error)
                 })
-        }
+        }, THUMBNAIL_POLL_INTERVAL)
+        return () => clearTimeout(timeout)
     }, [id, location, setLocation])
 
     if (!location) {
@@ -17,10 +17,7 @@ export default function LocationsPage({geoLocation}) {
     }
 
     const showDetailsPage = (location) => {
-        history.push({
-            pathname: "/locations/" + location.id,
-            state: {loc: location}
-        })
+        history.push("/locations/" + location.id)
     }
 
     const showCreateLocationPage = (event) => {
@@ -12,6 +12,7 @@ import {DataGrid} from "@mui/x-data-grid";
 export default function AdminLocationPage() {
 
     const [locations, setLocations] = useState([])
+    const [next, setNext] = useState(null)
     const [reload, setReload] = useState(false)
     let history = useHistory();
     const {token} = useContext(AuthContext)
@@ -22,8 +23,27 @@ export default function AdminLocationPage() {
         setReload(!reload)
     }
 
-    const getOwnerMail = (params) => {
-        return params.row? params.row.owner.email : params.value
+    const loadPage = (cursor) => {
+        const config = {
+            headers: {
+                "Authorization": token,
+            },
+            params: cursor ? {cursor} : {},
+        }
+        return axios.get("/api/admin/locations", config)
+            .then((response) => response.data)
+            .then((page) => {
+                setLocations((previous) => cursor ? [...previous, ...page.items] : page.items)
+                setNext(page.next)
+            })
+    }
+
+    const handleLoadMore = () => {
+        loadPage(next).catch(console.error)
+    }
+
+    const getOwnerName = (params) => {
+        return params.row && params.row.owner ? params.row.owner.full_name : params.value
     }
 
     const columns = [
@@ -31,9 +51,9 @@ export default function AdminLocationPage() {
         {field: 'title', headerName: 'Title', width: 150},
         {
             field: 'owner', headerName: 'Owner', width: 200,
-            valueGetter: getOwnerMail,
+            valueGetter: getOwnerName,
             sortComparator: (v1, v2, cellParams1, cellParams2) =>
-                getOwnerMail(cellParams1).localeCompare(getOwnerMail(cellParams2)),
+                getOwnerName(cellParams1).localeCompare(getOwnerName(cellParams2)),
         },
         {field: 'description', headerName: 'Description', width: 150},
         {field: 'lat', headerName: 'Latitude', type: 'number', width: 130},
@@ -44,14 +64,7 @@ export default function AdminLocationPage() {
     ];
 
     useEffect(() => {
-        const config = {
-            headers: {
-                "Authorization": token,
-            },
-        }
-        axios.get("/api/admin/locations", config)
-            .then((response) => response.data)
-            .then(setLocations)
+        loadPage(null)
             .catch((error) => {
                 console.error(error)
                 history.push({
@@ -59,6 +72,7 @@ export default function AdminLocationPage() {
                     state: {nextPathname: '/admin/locations'}
                 })
             })
+        // eslint-disable-next-line react-hooks/exhaustive-deps
     }, [token, history])
 
     return (
@@ -84,6 +98,9 @@ export default function AdminLocationPage() {
                     checkboxSelection
                 />
             </div>
+            <Button className={classes.more} onClick={handleLoadMore} disabled={!next} variant={"outlined"}>
+                Load more
+            </Button>
         </Box>
     )
 }
@@ -120,5 +137,8 @@ const useStyles = makeStyles(
             alignItems: "center",
             justifyContent: "space-between",
         },
+        more: {
+            marginTop: 10,
+        },
     }
 )
@@ -12,6 +12,7 @@ import {DataGrid} from "@mui/x-data-grid";
 export default function AdminUserPage() {
 
     const [users, setUsers] = useState([])
+    const [next, setNext] = useState(null)
     const [reload, setReload] = useState(false)
     let history = useHistory();
     const {token} = useContext(AuthContext)
@@ -22,6 +23,25 @@ export default function AdminUserPage() {
         setReload(!reload)
     }
 
+    const loadPage = (cursor) => {
+        const config = {
+            headers: {
+                "Authorization": token,
+            },
+            params: cursor ? {cursor} : {},
+        }
+        return axios.get("/api/admin/users", config)
+            .then((response) => response.data)
+            .then((page) => {
+                setUsers((previous) => cursor ? [...previous, ...page.items] : page.items)
+                setNext(page.next)
+            })
+    }
+
+    const handleLoadMore = () => {
+        loadPage(next).catch(console.error)
+    }
+
     const columns = [
         { field: 'id', headerName: 'ID', width: 90 },
         { field: 'email', headerName: 'Email', width: 200 },
@@ -34,14 +54,7 @@ export default function AdminUserPage() {
     ];
 
     useEffect(() => {
-        const config = {
-            headers: {
-                "Authorization": token,
-            },
-        }
-        axios.get("/api/admin/users", config)
-            .then((response) => response.data)
-            .then(setUsers)
+        loadPage(null)
             .catch((error) => {
                 console.error(error)
                 history.push({
@@ -49,6 +62,7 @@ export default function AdminUserPage() {
                     state: {nextPathname: '/admin/users'}
                 })
             })
+        // eslint-disable-next-line react-hooks/exhaustive-deps
     }, [token, history])
 
     return(
@@ -74,6 +88,9 @@ export default function AdminUserPage() {
 
                 />
             </div>
+            <Button className={classes.more} onClick={handleLoadMore} disabled={!next} variant={"outlined"}>
+                Load more
+            </Button>
         </Box>
     )
 }
@@ -110,5 +127,8 @@ const useStyles = makeStyles(
             alignItems: "center",
             justifyContent: "space-between",
         },
+        more: {
+            marginTop: 10,
+        },
     }
 )